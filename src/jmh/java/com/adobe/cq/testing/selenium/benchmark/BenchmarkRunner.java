@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Run the benchmarks and keep one JSON result per commit, i.e. target/benchmarks/1a2b3c4.json.
+ *
+ * When a baseline result is given, the run fails if any benchmark score got worse than the threshold ratio,
+ * so regressions of the library overhead are caught between two commits.
+ *
+ * <ul>
+ *     <li>sel.benchmark.include: regexp of the benchmarks to run</li>
+ *     <li>sel.benchmark.commit: name of the result, defaults to GIT_COMMIT or the current git HEAD</li>
+ *     <li>sel.benchmark.output: folder of the results, defaults to target/benchmarks</li>
+ *     <li>sel.benchmark.baseline: previous JSON result to compare with</li>
+ *     <li>sel.benchmark.threshold: allowed slowdown ratio, defaults to 0.2</li>
+ * </ul>
+ */
+public final class BenchmarkRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkRunner.class);
+
+    private static final String DEFAULT_INCLUDE = ".*Benchmark.*";
+    private static final String DEFAULT_OUTPUT = "target/benchmarks";
+    private static final double DEFAULT_THRESHOLD = 0.2;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws RunnerException, IOException {
+        String commit = resolveCommit();
+        File output = new File(property("sel.benchmark.output", DEFAULT_OUTPUT), commit + ".json");
+        if (!output.getParentFile().exists() && !output.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + output.getParent());
+        }
+        Options options = new OptionsBuilder()
+            .include(property("sel.benchmark.include", DEFAULT_INCLUDE))
+            .resultFormat(ResultFormatType.JSON)
+            .result(output.getPath())
+            .build();
+        new Runner(options).run();
+        LOGGER.info("Benchmark results for {} written to {}", commit, output);
+
+        String baseline = property("sel.benchmark.baseline", null);
+        if (baseline != null) {
+            double threshold = Double.parseDouble(property("sel.benchmark.threshold", String.valueOf(DEFAULT_THRESHOLD)));
+            List<String> regressions = compare(new File(baseline), output, threshold);
+            regressions.forEach(LOGGER::error);
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * @param baseline previous result.
+     * @param current current result.
+     * @param threshold allowed slowdown ratio.
+     * @return a message per benchmark slower than allowed.
+     * @throws IOException if a result cannot be read.
+     */
+    static List<String> compare(final File baseline, final File current, final double threshold) throws IOException {
+        Map<String, Double> before = scores(baseline);
+        Map<String, Double> after = scores(current);
+        List<String> regressions = new ArrayList<>();
+        after.forEach((name, score) -> {
+            Double previous = before.get(name);
+            // all benchmarks are measured as average time, higher is slower
+            if (previous != null && previous > 0 && score > previous * (1 + threshold)) {
+                regressions.add(String.format("Regression %s: %.3f -> %.3f (+%.0f%%)",
+                    name, previous, score, (score / previous - 1) * 100));
+            }
+        });
+        return regressions;
+    }
+
+    private static Map<String, Double> scores(final File result) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(result)) {
+            String name = run.path("benchmark").asText();
+            JsonNode params = run.path("params");
+            if (params.size() > 0) {
+                name += params.toString();
+            }
+            scores.put(name, run.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+
+    static String resolveCommit() {
+        String commit = property("sel.benchmark.commit", System.getenv("GIT_COMMIT"));
+        if (commit == null || commit.isEmpty()) {
+            try {
+                Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+                commit = IOUtils.toString(git.getInputStream(), StandardCharsets.UTF_8).trim();
+                if (git.waitFor() != 0) {
+                    commit = null;
+                }
+            } catch (IOException e) {
+                commit = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                commit = null;
+            }
+        }
+        return commit == null || commit.isEmpty() ? "local" : commit;
+    }
+
+    static String property(final String name, final String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.benchmark;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Count the WebDriver commands sent by the tests and the time spent in them.
+ *
+ * Only the outermost calls are counted, and the navigation helpers returning an intermediate object
+ * (manage, switchTo, navigate, ...) are not, as they don't reach the browser by themselves.
+ * Asynchronous scripts are the framework waits, their time is kept apart.
+ */
+final class CommandCounter implements WebDriverListener {
+
+    private static final Set<String> INTERMEDIATE = new HashSet<>(Arrays.asList(
+        "manage", "switchTo", "navigate", "timeouts", "window", "logs", "getWrappedDriver", "getWrappedElement"));
+
+    private static final String ASYNC_SCRIPT = "executeAsyncScript";
+
+    private long commands;
+    private long commandNanos;
+    private long asyncScriptNanos;
+    private int depth;
+    private long start;
+    private boolean asyncScript;
+
+    @Override
+    public void beforeAnyCall(final Object target, final Method method, final Object[] args) {
+        if (depth++ == 0) {
+            start = System.nanoTime();
+            asyncScript = ASYNC_SCRIPT.equals(method.getName());
+            if (!INTERMEDIATE.contains(method.getName())) {
+                commands++;
+            }
+        }
+    }
+
+    @Override
+    public void afterAnyCall(final Object target, final Method method, final Object[] args, final Object result) {
+        end();
+    }
+
+    @Override
+    public void onError(final Object target, final Method method, final Object[] args, final InvocationTargetException e) {
+        end();
+    }
+
+    private void end() {
+        if (depth > 0 && --depth == 0) {
+            long elapsed = System.nanoTime() - start;
+            commandNanos += elapsed;
+            if (asyncScript) {
+                asyncScriptNanos += elapsed;
+            }
+        }
+    }
+
+    /**
+     * Start a new count.
+     */
+    void reset() {
+        commands = 0;
+        commandNanos = 0;
+        asyncScriptNanos = 0;
+    }
+
+    /**
+     * @return the number of commands sent since the last reset.
+     */
+    long getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return the time spent in commands since the last reset, asynchronous scripts included.
+     */
+    long getCommandNanos() {
+        return commandNanos;
+    }
+
+    /**
+     * @return the time spent in asynchronous scripts since the last reset.
+     */
+    long getAsyncScriptNanos() {
+        return asyncScriptNanos;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.benchmark;
+
+import com.adobe.cq.testing.selenium.Constants;
+import com.adobe.cq.testing.selenium.junit.annotations.SlingClientConfig;
+import com.adobe.cq.testing.selenium.junit.extensions.ExtensionConfig;
+import com.adobe.cq.testing.selenium.junit.extensions.SlingClientExtension;
+import com.adobe.cq.testing.selenium.pagewidgets.Helpers;
+import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.pagewidgets.granite.Collection;
+import com.adobe.cq.testing.selenium.utils.AnnotationHelper;
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.Cookie;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the framework code running on every test or every widget lookup.
+ * Browser and JUnit engine are replaced by {@link StubContexts}, only the library overhead is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameworkBenchmark {
+
+    /**
+     * Annotated test class, found on the root of the context chain.
+     */
+    @SlingClientConfig
+    public static class AnnotatedTest {
+        public void test() {
+        }
+    }
+
+    /**
+     * Test class without any framework annotation, walking the whole chain.
+     */
+    public static class PlainTest {
+        public void test() {
+        }
+    }
+
+    private Collection collection;
+    private MethodHandle itemSelector;
+    private ExtensionContext annotatedContext;
+    private ExtensionContext plainContext;
+    private ExtensionContext clientContext;
+    private AEMBaseComponent trackedComponent;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        collection = new Collection("coral-masonry.foundation-collection");
+        Method getItemSelector = Collection.class.getDeclaredMethod("getItemSelector", String.class);
+        getItemSelector.setAccessible(true);
+        itemSelector = MethodHandles.lookup().unreflect(getItemSelector);
+
+        annotatedContext = methodContext(AnnotatedTest.class);
+        plainContext = methodContext(PlainTest.class);
+        clientContext = methodContext(AnnotatedTest.class);
+        // first call builds the client, the benchmark then measures the key building and lookup
+        SlingClientExtension.Store.getInstance().getOrCompute(clientContext, Constants.RUNMODE_AUTHOR, false);
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("data-foundation-tracking-event", "{\"element\":\"create\",\"type\":\"button\",\"action\":\"click\"}");
+        trackedComponent = new AEMBaseComponent(StubContexts.element(attributes));
+
+        WebDriverRunner.setWebDriver(StubContexts.driver(new Cookie("cq-authoring-mode-state",
+            "%7B%22mode%22%3A%22EDIT%22%2C%22layer%22%3A%22Edit%22%2C%22emulator%22%3A%22desktop%22%7D")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        WebDriverRunner.closeWebDriver();
+    }
+
+    private static ExtensionContext methodContext(final Class<?> testClass) throws NoSuchMethodException {
+        ExtensionContext root = StubContexts.extensionContext(testClass, null, null);
+        ExtensionContext classContext = StubContexts.extensionContext(testClass, null, root);
+        return StubContexts.extensionContext(testClass, testClass.getMethod("test"), classContext);
+    }
+
+    @Benchmark
+    public String collectionItemSelector() throws Throwable {
+        return (String) itemSelector.invoke(collection, "/content/we-retail/us/en");
+    }
+
+    @Benchmark
+    public Object slingClientStoreLookup() {
+        return SlingClientExtension.Store.getInstance().getOrCompute(clientContext, Constants.RUNMODE_AUTHOR, false);
+    }
+
+    @Benchmark
+    public Optional<SlingClientConfig> annotationFound() {
+        return AnnotationHelper.findOptionalAnnotation(annotatedContext, SlingClientConfig.class);
+    }
+
+    @Benchmark
+    public Optional<SlingClientConfig> annotationMissing() {
+        return AnnotationHelper.findOptionalAnnotation(plainContext, SlingClientConfig.class);
+    }
+
+    @Benchmark
+    public boolean extensionConfig() {
+        return ExtensionConfig.of(annotatedContext).isIncludeDefaultTours();
+    }
+
+    @Benchmark
+    public String trackingElement() {
+        return trackedComponent.getTrackingElement();
+    }
+
+    @Benchmark
+    public Object cookieValue() {
+        return Helpers.getCookieValue("cq-authoring-mode-state");
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.benchmark;
+
+import com.codeborne.selenide.SelenideElement;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Minimal proxies of the JUnit and Selenium types used by the framework, so its own code can be measured
+ * without a test engine or a browser.
+ */
+final class StubContexts {
+
+    private StubContexts() {
+    }
+
+    /**
+     * @param testClass class returned as test class.
+     * @param testMethod method returned as test method, null for a class context.
+     * @param parent parent context, null for a root.
+     * @return an extension context with a working store.
+     */
+    static ExtensionContext extensionContext(final Class<?> testClass, final Method testMethod,
+                                             final ExtensionContext parent) {
+        final Map<Object, ExtensionContext.Store> stores = new ConcurrentHashMap<>();
+        final ExtensionContext[] self = new ExtensionContext[1];
+        self[0] = (ExtensionContext) Proxy.newProxyInstance(StubContexts.class.getClassLoader(),
+            new Class<?>[] {ExtensionContext.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getStore":
+                        return stores.computeIfAbsent(args[0], ns -> store());
+                    case "getParent":
+                        return Optional.ofNullable(parent);
+                    case "getRoot":
+                        return parent != null ? parent.getRoot() : self[0];
+                    case "getRequiredTestClass":
+                        return testClass;
+                    case "getTestClass":
+                        return Optional.ofNullable(testClass);
+                    case "getTestMethod":
+                        return Optional.ofNullable(testMethod);
+                    case "getUniqueId":
+                        return "[stub:" + testClass.getName() + (testMethod != null ? "#" + testMethod.getName() : "") + "]";
+                    case "getDisplayName":
+                        return testMethod != null ? testMethod.getName() : testClass.getSimpleName();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "StubExtensionContext";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        return self[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExtensionContext.Store store() {
+        final Map<Object, Object> values = new ConcurrentHashMap<>();
+        return (ExtensionContext.Store) Proxy.newProxyInstance(StubContexts.class.getClassLoader(),
+            new Class<?>[] {ExtensionContext.Store.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "get":
+                        return values.get(args[0]);
+                    case "put":
+                        values.put(args[0], args[1]);
+                        return null;
+                    case "remove":
+                        return values.remove(args[0]);
+                    case "getOrComputeIfAbsent":
+                        if (args.length == 1) {
+                            return values.computeIfAbsent(args[0], k -> {
+                                try {
+                                    return ((Class<?>) k).getDeclaredConstructor().newInstance();
+                                } catch (ReflectiveOperationException e) {
+                                    throw new IllegalStateException(e);
+                                }
+                            });
+                        }
+                        return values.computeIfAbsent(args[0], (Function<Object, Object>) args[1]);
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * @param attributes attribute values returned by getAttribute.
+     * @return an element answering only the search criteria and attributes.
+     */
+    static SelenideElement element(final Map<String, String> attributes) {
+        return (SelenideElement) Proxy.newProxyInstance(StubContexts.class.getClassLoader(),
+            new Class<?>[] {SelenideElement.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getAttribute":
+                    case "attr":
+                        return attributes.get((String) args[0]);
+                    case "getSearchCriteria":
+                        return "stub";
+                    case "toString":
+                        return "StubElement";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * @param cookie cookie returned by name.
+     * @return a driver answering only the cookie lookups.
+     */
+    static WebDriver driver(final Cookie cookie) {
+        final WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(StubContexts.class.getClassLoader(),
+            new Class<?>[] {WebDriver.Options.class}, (proxy, method, args) -> {
+                if ("getCookieNamed".equals(method.getName())) {
+                    return cookie.getName().equals(args[0]) ? cookie : null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        return (WebDriver) Proxy.newProxyInstance(StubContexts.class.getClassLoader(),
+            new Class<?>[] {WebDriver.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "manage":
+                        return options;
+                    case "quit":
+                    case "close":
+                        return null;
+                    case "toString":
+                        return "StubDriver";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
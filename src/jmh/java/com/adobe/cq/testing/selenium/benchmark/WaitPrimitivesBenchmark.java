@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.benchmark;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.pagewidgets.Helpers;
+import com.adobe.cq.testing.selenium.pagewidgets.coral.CoralReady;
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.Selenide;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait primitives measured on an already loaded stand-in start page in a headless Chrome, so the score is the
+ * overhead of the wait itself (scripts round trips and polling) and not the page load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitPrimitivesBenchmark {
+
+    private static final long NETWORK_POLLING_INTERVAL = 250;
+
+    private StandInAuthorServer server;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = StandInAuthorServer.getInstance(0);
+        Configuration.browser = "chrome";
+        Configuration.headless = true;
+        Selenide.open(server.getUrl().resolve(StandInAuthorServer.START_PATH).toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Selenide.closeWebDriver();
+        server.close();
+    }
+
+    @Benchmark
+    public void waitNetworkIdled() {
+        Helpers.waitNetworkIdled(NETWORK_POLLING_INTERVAL);
+    }
+
+    @Benchmark
+    public void waitDocumentLoadCompleted() {
+        Helpers.waitDocumentLoadCompleted();
+    }
+
+    @Benchmark
+    public void waitCoralReady() {
+        CoralReady.waitCoralReady();
+    }
+
+    @Benchmark
+    public void waitDOMIdled() {
+        Helpers.waitDOMIdled(NETWORK_POLLING_INTERVAL);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.benchmark;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import com.adobe.cq.testing.selenium.pageobject.PageEditorPage;
+import com.adobe.cq.testing.selenium.pageobject.cq.sites.PropertiesPage;
+import com.adobe.cq.testing.selenium.pageobject.cq.sites.SitesPage;
+import com.adobe.cq.testing.selenium.pageobject.granite.LoginPage;
+import com.adobe.cq.testing.selenium.pagewidgets.cq.EditorSnapshot;
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.WebDriverRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Run representative page object workflows against the stand-in author server in a headless Chrome and report,
+ * per workflow and overall, the tests per minute, the WebDriver commands per test and the share of the time spent
+ * waiting. The result is kept per commit, i.e. target/benchmarks/1a2b3c4-workflows.json.
+ *
+ * The wait share is the time not spent in synchronous WebDriver commands (polling, sleeps and asynchronous wait
+ * scripts) over the total time, this is what the framework waits cost on pages which are ready almost at once.
+ * Only the successful runs are measured, failed runs are counted apart so that a workflow failing fast doesn't
+ * look like a faster one.
+ *
+ * <ul>
+ *     <li>sel.benchmark.workflows.iterations: number of measured runs of each workflow, defaults to 5</li>
+ *     <li>sel.benchmark.workflows.warmup: number of runs of each workflow before measuring, defaults to 1</li>
+ *     <li>sel.benchmark.commit: name of the result, defaults to GIT_COMMIT or the current git HEAD</li>
+ *     <li>sel.benchmark.output: folder of the results, defaults to target/benchmarks</li>
+ * </ul>
+ */
+public final class WorkflowThroughput {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowThroughput.class);
+
+    private static final String DEFAULT_ITERATIONS = "5";
+    private static final String DEFAULT_WARMUP = "1";
+    private static final String DEFAULT_OUTPUT = "target/benchmarks";
+    private static final double NANOS_PER_MINUTE = 60e9;
+
+    private static final String USER = "admin";
+    private static final String[] SITES = {"/content/campaigns", "/content/cfm-ui-test"};
+    private static final String PAGE = "/content/test_csayctjt/testPage";
+
+    private WorkflowThroughput() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int iterations = Integer.parseInt(BenchmarkRunner.property("sel.benchmark.workflows.iterations", DEFAULT_ITERATIONS));
+        int warmup = Integer.parseInt(BenchmarkRunner.property("sel.benchmark.workflows.warmup", DEFAULT_WARMUP));
+        String commit = BenchmarkRunner.resolveCommit();
+        File output = new File(BenchmarkRunner.property("sel.benchmark.output", DEFAULT_OUTPUT), commit + "-workflows.json");
+        if (!output.getParentFile().exists() && !output.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + output.getParent());
+        }
+
+        CommandCounter counter = new CommandCounter();
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        try (StandInAuthorServer server = StandInAuthorServer.getInstance(0).withUser(USER)) {
+            seed(server.getRepository());
+            URI base = server.getUrl();
+            Configuration.browser = "chrome";
+            Configuration.headless = true;
+            Configuration.baseUrl = base.toString().replaceAll("/$", "");
+            WebDriverRunner.addListener(counter);
+
+            Map<String, Workflow> workflows = workflows(base);
+            workflows.keySet().forEach(name -> stats.put(name, new Stats()));
+            try {
+                for (int i = 0; i < warmup + iterations; i++) {
+                    boolean measured = i >= warmup;
+                    for (Map.Entry<String, Workflow> workflow : workflows.entrySet()) {
+                        run(workflow.getKey(), workflow.getValue(), counter, measured ? stats.get(workflow.getKey()) : null);
+                    }
+                }
+            } finally {
+                Selenide.closeWebDriver();
+                WebDriverRunner.removeListener(counter);
+            }
+        }
+
+        ObjectNode report = report(commit, stats);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, report);
+        LOGGER.info("Workflow results for {} written to {}", commit, output);
+    }
+
+    private static Map<String, Workflow> workflows(final URI base) {
+        Map<String, Workflow> workflows = new LinkedHashMap<>();
+        workflows.put("login", () -> {
+            Selenide.clearBrowserCookies();
+            new LoginPage(base).loginAs(USER, USER);
+        });
+        workflows.put("openSites", () -> new SitesPage().open());
+        workflows.put("selectItems", () -> {
+            SitesPage sitesPage = new SitesPage().open();
+            sitesPage.collection().selectItem(SITES);
+            sitesPage.collection().deselectItem(SITES);
+        });
+        workflows.put("openProperties", () -> {
+            PropertiesPage propertiesPage = new PropertiesPage(PAGE).open();
+            propertiesPage.tabs().basic().title().setValue("Throughput");
+            propertiesPage.cancel();
+        });
+        workflows.put("editComponent", () -> {
+            PageEditorPage editorPage = new PageEditorPage(base, PAGE).open();
+            List<EditorSnapshot.Editable> editables = editorPage.snapshot().getEditables();
+            if (!editables.isEmpty()) {
+                editorPage.openEditableToolbar(editables.get(0).getPath());
+            }
+        });
+        return workflows;
+    }
+
+    private static void seed(final StandInRepository repository) {
+        for (String site : SITES) {
+            repository.put(site, page(site.substring(site.lastIndexOf('/') + 1)));
+        }
+        repository.put(PAGE, page("testPage"));
+        Map<String, Object> content = page("testPage");
+        content.put("jcr:primaryType", "cq:PageContent");
+        repository.put(PAGE + "/jcr:content", content);
+    }
+
+    private static Map<String, Object> page(final String title) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jcr:primaryType", "cq:Page");
+        properties.put("jcr:title", title);
+        return properties;
+    }
+
+    private static void run(final String name, final Workflow workflow, final CommandCounter counter, final Stats stats) {
+        counter.reset();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            workflow.run();
+        } catch (Exception | AssertionError e) {
+            failed = true;
+            LOGGER.warn("Workflow {} failed", name, e);
+        }
+        if (stats != null) {
+            stats.add(System.nanoTime() - start, counter, failed);
+        }
+    }
+
+    private static ObjectNode report(final String commit, final Map<String, Stats> stats) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode report = mapper.createObjectNode();
+        report.put("commit", commit);
+        ArrayNode workflows = report.putArray("workflows");
+        Stats total = new Stats();
+        stats.forEach((name, s) -> {
+            workflows.add(s.toJson(mapper.createObjectNode().put("name", name)));
+            total.merge(s);
+            LOGGER.info("{}", String.format("%-16s %s", name, s));
+        });
+        total.toJson(report.putObject("total"));
+        LOGGER.info("{}", String.format("%-16s %s", "total", total));
+        return report;
+    }
+
+    /**
+     * A page object workflow, as a test would run it.
+     */
+    @FunctionalInterface
+    private interface Workflow {
+        void run() throws Exception;
+    }
+
+    private static final class Stats {
+
+        private long runs;
+        private long failures;
+        private long nanos;
+        private long commands;
+        private long commandNanos;
+        private long asyncScriptNanos;
+
+        void add(final long elapsed, final CommandCounter counter, final boolean failed) {
+            if (failed) {
+                failures++;
+                return;
+            }
+            runs++;
+            nanos += elapsed;
+            commands += counter.getCommands();
+            commandNanos += counter.getCommandNanos();
+            asyncScriptNanos += counter.getAsyncScriptNanos();
+        }
+
+        void merge(final Stats other) {
+            runs += other.runs;
+            failures += other.failures;
+            nanos += other.nanos;
+            commands += other.commands;
+            commandNanos += other.commandNanos;
+            asyncScriptNanos += other.asyncScriptNanos;
+        }
+
+        double testsPerMinute() {
+            return nanos > 0 ? runs * NANOS_PER_MINUTE / nanos : 0;
+        }
+
+        double commandsPerTest() {
+            return runs > 0 ? (double) commands / runs : 0;
+        }
+
+        double waitShare() {
+            return nanos > 0 ? (double) (nanos - commandNanos + asyncScriptNanos) / nanos : 0;
+        }
+
+        ObjectNode toJson(final ObjectNode node) {
+            return node.put("runs", runs)
+                .put("failures", failures)
+                .put("testsPerMinute", testsPerMinute())
+                .put("commandsPerTest", commandsPerTest())
+                .put("waitShare", waitShare());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%3d passed %2d failed %8.1f tests/min %6.1f commands/test %5.1f%% waiting",
+                runs, failures, testsPerMinute(), commandsPerTest(), waitShare() * 100);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.junit.extensions;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.selenium.Constants;
+import com.adobe.cq.testing.selenium.utils.ContentSweeper;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sweep the stale test content once per test run, before the first test class using it.
+ * It only reports what would be removed unless {@value ContentSweeper#ENABLED_PROPERTY} is true,
+ * see {@link ContentSweeper} for the other configuration.
+ */
+public final class ContentSweeperExtension implements BeforeAllCallback {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentSweeperExtension.class);
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ContentSweeperExtension.class);
+
+    private final String runmode;
+    private final String[] prefixes;
+
+    public ContentSweeperExtension() {
+        this(Constants.RUNMODE_AUTHOR);
+    }
+
+    /**
+     * @param runMode instance to sweep.
+     * @param labelPrefixes test content prefixes, required to sweep the users and groups.
+     */
+    public ContentSweeperExtension(final String runMode, final String... labelPrefixes) {
+        this.runmode = runMode;
+        this.prefixes = labelPrefixes;
+    }
+
+    @Override
+    public void beforeAll(final ExtensionContext context) {
+        // the root store is shared by all the test classes of the run
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(runmode, key -> {
+            try {
+                CQClient client = SlingClientExtension.Store.getInstance().getOrCompute(context, runmode, false)
+                    .adaptTo(CQClient.class);
+                ContentSweeper.Report report = new ContentSweeper(client)
+                    .withPrefixes(prefixes)
+                    .withDryRun(!Boolean.getBoolean(ContentSweeper.ENABLED_PROPERTY))
+                    .sweep();
+                LOG.info("{}", report.describe());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // leftovers slow the instance down but don't prevent the tests from running
+                LOG.warn("Cannot sweep the stale test content", e);
+            }
+            return Boolean.TRUE;
+        });
+    }
+}
@@ -15,8 +15,6 @@
  */
 package com.adobe.cq.testing.selenium.junit.extensions;
 
-import com.adobe.cq.testing.selenium.utils.AnnotationHelper;
-import com.adobe.cq.testing.selenium.junit.annotations.DisableTourConfig;
 import com.adobe.cq.testing.selenium.utils.DisableTour;
 import org.apache.sling.testing.clients.SlingClient;
 import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
@@ -28,7 +26,6 @@ import org.junit.jupiter.api.extension.ParameterResolver;
 
 import java.net.URI;
 import java.util.Arrays;
-import java.util.Optional;
 
 import static com.adobe.cq.testing.selenium.utils.Network.getRebasedURL;
 
@@ -56,24 +53,10 @@ public final class DisableToursExtension implements ParameterResolver, BeforeTes
         return returnedValue;
     }
 
-    private String[] getTours(final ExtensionContext ec) {
-        Optional<DisableTourConfig> extensionConfig = AnnotationHelper.findOptionalAnnotation(ec, DisableTourConfig.class);
-        return extensionConfig.isPresent() ? extensionConfig.get().tours() : new String[0];
-    }
-
-    private boolean doIncludeDefault(final ExtensionContext ec) {
-        Optional<DisableTourConfig> extensionConfig = AnnotationHelper.findOptionalAnnotation(ec, DisableTourConfig.class);
-        boolean doInclude = true;
-        if (extensionConfig.isPresent()) {
-            doInclude = extensionConfig.get().includeDefault();
-        }
-        return doInclude;
-    }
-
     public void beforeTestExecution(final ExtensionContext context) throws Exception {
-        boolean includeDefaults = doIncludeDefault(context);
-        String[] additionalTours = getTours(context);
-        if (includeDefaults || additionalTours.length > 0) {
+        ExtensionConfig config = ExtensionConfig.of(context);
+        boolean includeDefaults = config.isIncludeDefaultTours();
+        if (includeDefaults || config.hasTours()) {
             SlingClientExtension.Store instance = SlingClientExtension.Store.getInstance();
             SlingClient client = instance.recallLatest(context);
             if (client != null) {
@@ -81,8 +64,8 @@ public final class DisableToursExtension implements ParameterResolver, BeforeTes
                 if (includeDefaults) {
                     disableTour.disableDefaultTours();
                 }
-                if (additionalTours.length > 0) {
-                    disableTour.disableTours(additionalTours);
+                if (config.hasTours()) {
+                    disableTour.disableTours(config.getTours());
                 }
                 context.getStore(ExtensionContext.Namespace.GLOBAL).put(getDisableTourStoreKey(), disableTour);
             }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.junit.extensions;
+
+import com.adobe.cq.testing.selenium.junit.annotations.DisableTourConfig;
+import com.adobe.cq.testing.selenium.junit.annotations.SlingClientContext;
+import com.adobe.cq.testing.selenium.junit.annotations.UserTimeZone;
+import com.adobe.cq.testing.selenium.utils.AnnotationHelper;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * Framework annotations of a test class, resolved once and kept in the class level store.
+ *
+ * The extensions look their configuration up for every test or parameter, walking the context chain with
+ * reflection each time; with this they only pay a store lookup once the class has been resolved.
+ */
+public final class ExtensionConfig {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ExtensionConfig.class);
+    private static final String NO_TIMEZONE = "none";
+
+    private final String[] tours;
+    private final boolean includeDefaultTours;
+    private final SlingClientContext slingClientContext;
+    private final String userTimeZone;
+
+    private ExtensionConfig(final ExtensionContext context) {
+        Optional<DisableTourConfig> disableTourConfig = AnnotationHelper.findOptionalAnnotation(context, DisableTourConfig.class);
+        tours = disableTourConfig.map(DisableTourConfig::tours).orElse(new String[0]);
+        includeDefaultTours = disableTourConfig.map(DisableTourConfig::includeDefault).orElse(true);
+        slingClientContext = AnnotationHelper.findOptionalAnnotation(context, SlingClientContext.class).orElse(null);
+        UserTimeZone timeZone = context.getTestClass().map(c -> c.getAnnotation(UserTimeZone.class)).orElse(null);
+        userTimeZone = timeZone != null ? timeZone.tz() : NO_TIMEZONE;
+    }
+
+    /**
+     * @param context any extension context of the test class.
+     * @return the configuration of the test class, resolved on first access.
+     */
+    public static ExtensionConfig of(final ExtensionContext context) {
+        ExtensionContext classContext = context;
+        while (classContext.getTestMethod().isPresent() && classContext.getParent().isPresent()) {
+            classContext = classContext.getParent().get();
+        }
+        if (!classContext.getTestClass().isPresent()) {
+            return new ExtensionConfig(classContext);
+        }
+        final ExtensionContext resolvedContext = classContext;
+        return classContext.getStore(NAMESPACE).getOrComputeIfAbsent(classContext.getRequiredTestClass(),
+            c -> new ExtensionConfig(resolvedContext), ExtensionConfig.class);
+    }
+
+    /**
+     * @return the additional tours to disable, empty if none.
+     */
+    public String[] getTours() {
+        return tours.clone();
+    }
+
+    /**
+     * @return true if there are additional tours to disable.
+     */
+    public boolean hasTours() {
+        return tours.length > 0;
+    }
+
+    /**
+     * @return true if the default tours should be disabled.
+     */
+    public boolean isIncludeDefaultTours() {
+        return includeDefaultTours;
+    }
+
+    /**
+     * @return the {@link SlingClientContext} of the class or its enclosing classes, if any.
+     */
+    public Optional<SlingClientContext> getSlingClientContext() {
+        return Optional.ofNullable(slingClientContext);
+    }
+
+    /**
+     * @param testMethod the test method, its annotation overrides the class one.
+     * @return the user time zone, "none" if not configured.
+     */
+    public String getUserTimeZone(final Method testMethod) {
+        UserTimeZone timeZone = testMethod != null ? testMethod.getAnnotation(UserTimeZone.class) : null;
+        return timeZone != null ? timeZone.tz() : userTimeZone;
+    }
+}
@@ -21,7 +21,6 @@ import com.adobe.cq.testing.client.CQClient;
 import com.adobe.cq.testing.selenium.junit.annotations.SlingClientConfig;
 import com.adobe.cq.testing.selenium.junit.annotations.SlingClientContext;
 import com.adobe.cq.testing.selenium.junit.annotations.WithClient;
-import com.adobe.cq.testing.selenium.utils.AnnotationHelper;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.client.utils.URIBuilder;
@@ -97,13 +96,13 @@ public final class SlingClientExtension implements BeforeAllCallback, AfterAllCa
     }
 
     private String getDefaultRunMode(final ExtensionContext extensionContext) {
-        return AnnotationHelper.findOptionalAnnotation(extensionContext, SlingClientContext.class)
+        return ExtensionConfig.of(extensionContext).getSlingClientContext()
                 .map(SlingClientContext::defaultRunMode)
                 .orElseThrow(() -> new ExtensionConfigurationException("@CQClientContext not found"));
     }
 
     private boolean getDefaultForceAnonymous(final ExtensionContext extensionContext) {
-        return AnnotationHelper.findOptionalAnnotation(extensionContext, SlingClientContext.class)
+        return ExtensionConfig.of(extensionContext).getSlingClientContext()
                 .map(SlingClientContext::defaultAnonymous)
                 .orElseThrow(() -> new ExtensionConfigurationException("@CQClientContext not found"));
     }
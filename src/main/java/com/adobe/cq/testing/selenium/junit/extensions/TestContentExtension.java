@@ -17,36 +17,127 @@
 package com.adobe.cq.testing.selenium.junit.extensions;
 
 import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.selenium.utils.AuditCleanup;
+import com.adobe.cq.testing.selenium.utils.ContentSnapshot;
 import com.adobe.cq.testing.selenium.utils.TestContentBuilder;
+import org.apache.sling.testing.clients.ClientException;
 import org.junit.jupiter.api.extension.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public final class TestContentExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+import java.util.function.UnaryOperator;
+
+/**
+ * Provide a {@link TestContentBuilder} to each test, disposed after it.
+ *
+ * In snapshot mode the builder is configured and built once per test class, its roots are captured with a
+ * {@link ContentSnapshot} and only the subtrees changed by a test are restored after it. The tests must not call
+ * {@link TestContentBuilder#build()} nor {@link TestContentBuilder#dispose()} themselves in this mode.
+ *
+ * When {@value AuditCleanup#DEFERRED_PROPERTY} is true, the audit trails of the disposed content are removed
+ * in one batch at the end of the test run.
+ *
+ * <pre>
+ *   &#64;RegisterExtension
+ *   static TestContentExtension content = new TestContentExtension(RUNMODE_AUTHOR, builder -&gt; builder.withEmptyTemplate());
+ * </pre>
+ */
+public final class TestContentExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback,
+        AfterEachCallback, ParameterResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestContentExtension.class);
 
     private static final String KEY_PREFIX = "_tcb_";
+    private static final String SNAPSHOT_KEY = "_tcb_snapshot_";
 
     private static final ExtensionContext.Namespace THIS_STORE = ExtensionContext.Namespace.GLOBAL;
+    private static final ExtensionContext.Namespace AUDIT_STORE = ExtensionContext.Namespace.create(AuditCleanup.class);
 
     private final String runmode;
+    private final UnaryOperator<TestContentBuilder> fixture;
 
     public TestContentExtension(final String runMode) {
+        this(runMode, null);
+    }
+
+    /**
+     * Snapshot mode, see the class documentation.
+     * @param runMode run mode of the instance.
+     * @param fixture configuration of the builder before it is built, i.e. {@code builder -> builder.withUser(...)}.
+     */
+    public TestContentExtension(final String runMode, final UnaryOperator<TestContentBuilder> fixture) {
         this.runmode = runMode;
+        this.fixture = fixture;
+    }
+
+    @Override
+    public void beforeAll(final ExtensionContext context) throws Exception {
+        if (fixture == null) {
+            return;
+        }
+        TestContentBuilder testContentBuilder = fixture.apply(newBuilder(context,
+                context.getRequiredTestClass().getSimpleName()));
+        Snapshot snapshot = new Snapshot(testContentBuilder);
+        // stored first, so that afterAll disposes of the content even if the build fails half way
+        context.getStore(THIS_STORE).put(SNAPSHOT_KEY, snapshot);
+        testContentBuilder.build();
+        snapshot.snapshot = ContentSnapshot.capture(testContentBuilder.getClient(), testContentBuilder.getRootPaths());
+    }
+
+    @Override
+    public void afterAll(final ExtensionContext context) throws Exception {
+        Snapshot snapshot = context.getStore(THIS_STORE).remove(SNAPSHOT_KEY, Snapshot.class);
+        if (snapshot != null) {
+            try {
+                if (snapshot.snapshot != null) {
+                    LOG.info("Restored {} subtrees with {} requests", snapshot.snapshot.getRestoredCount(),
+                            snapshot.snapshot.getRequestCount());
+                    snapshot.snapshot.dispose();
+                }
+            } finally {
+                snapshot.builder.dispose();
+            }
+        }
     }
 
     @Override
     public void afterEach(final ExtensionContext context) throws Exception {
         TestContentBuilder testContentBuilder = context.getStore(THIS_STORE).remove(getKey(), TestContentBuilder.class);
-        testContentBuilder.dispose();
+        Snapshot snapshot = getSnapshot(context);
+        if (snapshot == null) {
+            testContentBuilder.dispose();
+        } else {
+            snapshot.snapshot.restore();
+        }
     }
 
     @Override
     public void beforeEach(final ExtensionContext context) throws Exception {
-        TestContentBuilder testContentBuilder = new TestContentBuilder(
-                SlingClientExtension.Store.getInstance().getOrCompute(context, runmode, false).adaptTo(CQClient.class),
+        Snapshot snapshot = getSnapshot(context);
+        TestContentBuilder testContentBuilder = snapshot != null ? snapshot.builder : newBuilder(
+                context,
                 context.getTestMethod().orElseThrow(Exception::new).getName()
         );
         context.getStore(THIS_STORE).put(getKey(), testContentBuilder);
     }
 
+    private TestContentBuilder newBuilder(final ExtensionContext context, final String prefix) throws ClientException {
+        CQClient client = SlingClientExtension.Store.getInstance().getOrCompute(context, runmode, false).adaptTo(CQClient.class);
+        TestContentBuilder testContentBuilder = new TestContentBuilder(client, prefix);
+        if (Boolean.getBoolean(AuditCleanup.DEFERRED_PROPERTY)) {
+            // the root store is closed at the end of the run, flushing the audit cleanup
+            testContentBuilder.withAuditCleanup(context.getRoot().getStore(AUDIT_STORE)
+                    .getOrComputeIfAbsent(runmode, key -> new DeferredAuditCleanup(client), DeferredAuditCleanup.class)
+                    .auditCleanup);
+        }
+        return testContentBuilder;
+    }
+
+    private Snapshot getSnapshot(final ExtensionContext context) {
+        // stored on the class context, visible from the test method contexts
+        return fixture != null ? context.getStore(THIS_STORE).get(SNAPSHOT_KEY, Snapshot.class) : null;
+    }
+
     private String getKey() {
         return KEY_PREFIX + Thread.currentThread().getId();
     }
@@ -61,4 +152,26 @@ public final class TestContentExtension implements BeforeEachCallback, AfterEach
         return context.getStore(ExtensionContext.Namespace.GLOBAL).get(getKey(), TestContentBuilder.class);
     }
 
+    private static final class DeferredAuditCleanup implements ExtensionContext.Store.CloseableResource {
+        private final AuditCleanup auditCleanup;
+
+        private DeferredAuditCleanup(final CQClient client) {
+            this.auditCleanup = new AuditCleanup(client);
+        }
+
+        @Override
+        public void close() throws Throwable {
+            auditCleanup.flush();
+        }
+    }
+
+    private static final class Snapshot {
+        private final TestContentBuilder builder;
+        private ContentSnapshot snapshot;
+
+        private Snapshot(final TestContentBuilder builder) {
+            this.builder = builder;
+        }
+    }
+
 }
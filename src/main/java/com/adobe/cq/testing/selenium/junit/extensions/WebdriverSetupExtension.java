@@ -15,7 +15,8 @@
  */
 package com.adobe.cq.testing.selenium.junit.extensions;
 
-import com.adobe.cq.testing.selenium.junit.annotations.UserTimeZone;
+import com.adobe.cq.testing.selenium.utils.ChromeProfileTemplate;
+import com.adobe.cq.testing.selenium.utils.DevToolsChannel;
 import com.codeborne.selenide.Configuration;
 import com.codeborne.selenide.Selenide;
 import com.codeborne.selenide.WebDriverRunner;
@@ -47,6 +48,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.adobe.cq.testing.selenium.Constants.DEFAUT_WEBDRIVER_TIMEOUT;
 
@@ -58,6 +60,10 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
     private Logger logger = null;
 
     private static final ThreadLocal<WebDriverManager> localWdm = new ThreadLocal<>();
+    private static final ThreadLocal<Path> localProfile = new ThreadLocal<>();
+
+    public static final String CHROME_HEADLESS = "chrome-headless";
+    private static final boolean HEADLESS;
 
     public static final String BUILD_REPORTS_SCREENSHOTS = "build/reports/tests/screenshots";
     public static final String BUILD_REPORTS_RECORDINGS = "build/reports/tests/recordings";
@@ -68,7 +74,9 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
         Configuration.reportsFolder = BUILD_REPORTS_SCREENSHOTS;
         // Configure to have chrome-in-docker as the default as it used to be
         String browserType = System.getProperty("sel.jup.default.browser", "chrome-in-docker");
-        System.setProperty("wdm.defaultBrowser", browserType);
+        // Headless mode is a local chrome with headless arguments
+        HEADLESS = CHROME_HEADLESS.equals(browserType);
+        System.setProperty("wdm.defaultBrowser", HEADLESS ? "chrome" : browserType);
     }
 
     @Override
@@ -93,6 +101,9 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
         wdm.getWebDriverList().forEach(wd -> logger.info("Docker webdriver {}", wd));
         WebDriverRunner.setWebDriver(driver);
         driver.manage().window().maximize();
+        if (DevToolsChannel.isEnabled()) {
+            DevToolsChannel.open(driver).ifPresent(channel -> channel.streamConsole(logger));
+        }
         String listenerName = getListenerName();
         if (!SelenideLogger.hasListener(listenerName)) {
             SelenideLogger.addListener(listenerName, this);
@@ -105,16 +116,24 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
         WebDriverManager wdm = localWdm.get();
         if (!Objects.isNull(wdm)) {
             try {
-                dumpBrowserLogs();
+                Optional<DevToolsChannel> channel = DevToolsChannel.current();
+                if (channel.isPresent() && channel.get().isConsoleStreamed()) {
+                    channel.get().close();
+                } else {
+                    channel.ifPresent(DevToolsChannel::close);
+                    dumpBrowserLogs();
+                }
                 SelenideLogger.removeListener(LISTENER_NAME);
                 boolean failed = extensionContext.getExecutionException().isPresent();
                 saveScreenshotOnFail(extensionContext.getTestMethod().orElseThrow().getName(), failed);
                 quitHandleRecordings(wdm, !failed);
             } finally {
                 wdm.quit();
+                ChromeProfileTemplate.dispose(localProfile.get());
             }
         }
         localWdm.remove();
+        localProfile.remove();
     }
 
     private void saveScreenshotOnFail(String prefix, boolean failed) {
@@ -175,14 +194,7 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
     }
 
     private String getUserTimeZone(ExtensionContext ec) {
-        UserTimeZone annotation = ec.getTestMethod().orElseThrow(IllegalStateException::new).getAnnotation(UserTimeZone.class);
-        if (Objects.isNull(annotation)) {
-            annotation = ec.getTestClass().orElseThrow(IllegalAccessError::new).getAnnotation(UserTimeZone.class);
-            if (Objects.isNull(annotation)) {
-                return "none";
-            }
-        }
-        return annotation.tz();
+        return ExtensionConfig.of(ec).getUserTimeZone(ec.getTestMethod().orElseThrow(IllegalStateException::new));
     }
 
     private WebDriverManager setupWebdriver(ExtensionContext ec) {
@@ -192,8 +204,20 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
         ChromeOptions chromeOptions = new ChromeOptions();
         wdm.capabilities(chromeOptions);
         chromeOptions.addArguments("--remote-allow-origins=*");
+        if (HEADLESS) {
+            chromeOptions.addArguments("--headless=new", "--window-size=1920,1080");
+        }
+        // Profile template only makes sense for a browser running on this host
+        Path profile = isLocalBrowser() && ChromeProfileTemplate.isEnabled() ? ChromeProfileTemplate.newSessionProfile() : null;
+        localProfile.set(profile);
+        if (profile != null) {
+            chromeOptions.addArguments("--user-data-dir=" + profile.toAbsolutePath());
+        }
         if (BrowserProxyExtension.isEnabled()) {
-            chromeOptions.addArguments("--ignore-certificate-errors", "--user-data-dir=/tmp/insecurechrome");
+            chromeOptions.addArguments("--ignore-certificate-errors");
+            if (profile == null) {
+                chromeOptions.addArguments("--user-data-dir=/tmp/insecurechrome");
+            }
             final DesiredCapabilities desiredCapabilities = new DesiredCapabilities();
             desiredCapabilities.setCapability(CapabilityType.PROXY, BrowserProxyExtension.getSeleniumProxy());
             chromeOptions.merge(desiredCapabilities);
@@ -218,6 +242,10 @@ public class WebdriverSetupExtension implements BeforeAllCallback, BeforeEachCal
         return !useCustomImage && Boolean.parseBoolean(System.getProperty("sel.jup.recording", "false"));
     }
 
+    private boolean isLocalBrowser() {
+        return !StringUtils.endsWith(System.getProperty("wdm.defaultBrowser"), "-in-docker");
+    }
+
     private boolean keepRecordingOnFailureOnly() {
         return Boolean.parseBoolean(System.getProperty("sel.jup.recording.when.failure", "true"));
     }
@@ -0,0 +1,825 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.mock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in AEM author instance, to run the framework without a live AEM.
+ *
+ * It serves static Granite / Coral shells for the login, start, sites, page properties and editor pages with light
+ * Coral / Granite shims, the user info and preferences, the JSCover endpoints used by
+ * {@link com.adobe.cq.testing.selenium.utils.Coverage}
+ * and an in-memory {@link StandInRepository} following the Sling POST servlet semantics, with the wcm and tag
+ * commands used by {@link com.adobe.cq.testing.selenium.utils.TestContentBuilder}, a subset of the QueryBuilder,
+ * the user and group creation, search, membership and deletion requests of the security client and the DAM create
+ * asset servlet (assets are processed right away).
+ * A latency can be injected on all or some paths to mimic a remote instance.
+ *
+ * Url encoded and multipart forms are parsed, file parts are kept as their text content. An infinity json rendering of
+ * more than {@link StandInRepository#getMaxResults()} nodes is answered with a 300 listing the depths that fit, as Sling does.
+ *
+ * <pre>
+ *   &#64;RegisterExtension
+ *   static StandInAuthorServer author = StandInAuthorServer.getInstance(4502).withLatency(Duration.ofMillis(50));
+ * </pre>
+ */
+public final class StandInAuthorServer implements BeforeAllCallback, AutoCloseable {
+
+    /**
+     * System property defining the default latency in milliseconds added to every response.
+     */
+    public static final String LATENCY_PROPERTY = "sel.standin.latency";
+
+    public static final String LOGIN_PATH = "/libs/granite/core/content/login.html";
+    public static final String START_PATH = "/aem/start.html";
+    public static final String PROPERTIES_PATH = "/mnt/overlay/wcm/core/content/sites/properties.html";
+    public static final String USERINFO_PATH = "/libs/cq/security/userinfo.json";
+    public static final String JSCOVER_STORE_PATH = "/bin/jscover/store";
+    public static final String JSCOVER_EXPORT_PATH = "/bin/jscover/export";
+    public static final String QUERY_BUILDER_PATH = "/bin/querybuilder.json";
+    public static final String JSCOVER_SCRIPT_PATH = "/apps/granite/testing/clientlibs/jscover.js";
+    public static final String WCM_COMMAND_PATH = "/bin/wcmcommand";
+    public static final String TAG_COMMAND_PATH = "/bin/tagcommand";
+    public static final String TAGS_ROOT = "/content/cq:tags";
+    public static final String AUTHORIZABLES_SEARCH_PATH = "/libs/granite/security/search/authorizables.json";
+    public static final String REP_AUTHORIZABLE_ID = "rep:authorizableId";
+    public static final String REP_MEMBERS = "rep:members";
+    public static final String CREATE_ASSET_SUFFIX = ".createasset.html";
+    public static final String DAM_ASSET_STATE = "dam:assetState";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StandInAuthorServer.class);
+
+    private static final String RESOURCES = "/com/adobe/cq/testing/selenium/mock/";
+    private static final String CHECK_SUFFIX = "/j_security_check";
+    private static final String HTML = "text/html;charset=utf-8";
+    private static final String JSON = "application/json;charset=utf-8";
+    private static final String JS = "application/javascript;charset=utf-8";
+    private static final String JSON_EXTENSION = ".json";
+    private static final String HOME_USERS = "/home/users/";
+    private static final String HOME_GROUPS = "/home/groups/";
+    private static final String SECURITY_PATH = "/libs/granite/security/";
+    private static final String RW_SUFFIX = ".rw.html";
+    private static final Pattern NAMED = Pattern.compile("\"named\"\\s*:\\s*\"([^\"]*)\"");
+    private static final String PREFERENCES = "/preferences";
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+    private static final Pattern PART_NAME = Pattern.compile("(?i)content-disposition:[^\r\n]*\\bname=\"([^\"]*)\"");
+
+    // Most recent requests kept for inspection, older ones are dropped so that long benchmark runs stay bounded
+    private static final int MAX_RECORDED_REQUESTS = 10000;
+
+    private static final Map<Integer, StandInAuthorServer> INSTANCES = new HashMap<>();
+
+    private final int requestedPort;
+    private final StandInRepository repository = new StandInRepository();
+    private final Map<String, String> shells = new LinkedHashMap<>();
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final List<String> coverage = Collections.synchronizedList(new ArrayList<>());
+    private final Deque<Request> requests = new ArrayDeque<>();
+    private final AtomicLong totalRequests = new AtomicLong();
+
+    private long latency = Long.getLong(LATENCY_PROPERTY, 0L);
+    private String userId = "admin";
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private StandInAuthorServer(final int port) {
+        requestedPort = port;
+        shells.put(LOGIN_PATH, "login.html");
+        shells.put(START_PATH, "start.html");
+        shells.put("/sites.html/", "sites.html");
+        shells.put("/editor.html/", "editor.html");
+        shells.put(PROPERTIES_PATH, "properties.html");
+        shells.put("/etc.clientlibs/clientlibs/mocked_coral.js", "coral-shim.js");
+        shells.put("/etc.clientlibs/clientlibs/mocked_editorpage.js", "editor-shim.js");
+    }
+
+    /**
+     * @param port port to listen on, 0 for an ephemeral one.
+     * @return the instance for this port, started.
+     */
+    public static synchronized StandInAuthorServer getInstance(final int port) {
+        StandInAuthorServer instance = INSTANCES.get(port);
+        if (instance == null) {
+            instance = new StandInAuthorServer(port);
+            instance.start();
+            INSTANCES.put(port, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Reset content, counters and coverage before all tests of the class.
+     * @param ec the extension context.
+     */
+    @Override
+    public void beforeAll(final ExtensionContext ec) {
+        reset();
+    }
+
+    /**
+     * Start listening, no-op if already started.
+     * @return itself.
+     */
+    public synchronized StandInAuthorServer start() {
+        if (server == null) {
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", requestedPort), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot start stand-in author on port " + requestedPort, e);
+            }
+            executor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "standin-author");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(executor);
+            server.createContext("/", this::handle);
+            server.start();
+            reset();
+            LOG.info("Stand-in author listening on {}", getUrl());
+        }
+        return this;
+    }
+
+    /**
+     * Stop listening.
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            synchronized (StandInAuthorServer.class) {
+                INSTANCES.remove(requestedPort);
+            }
+        }
+    }
+
+    /**
+     * @return base url of the server, i.e. http://localhost:4502/
+     */
+    public URI getUrl() {
+        return URI.create("http://localhost:" + getPort() + "/");
+    }
+
+    /**
+     * @return the port the server listens on.
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : requestedPort;
+    }
+
+    /**
+     * @return the in-memory content.
+     */
+    public StandInRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Clear the content, counters, recorded requests and stored coverage, then seed the user home and preferences.
+     */
+    public void reset() {
+        repository.clear();
+        requestCounts.clear();
+        totalRequests.set(0);
+        synchronized (requests) {
+            requests.clear();
+        }
+        coverage.clear();
+        seedUser();
+    }
+
+    private void seedUser() {
+        Map<String, Object> user = new HashMap<>();
+        user.put(StandInRepository.JCR_PRIMARY_TYPE, "rep:User");
+        user.put(REP_AUTHORIZABLE_ID, userId);
+        repository.put(HOME_USERS + userId, user);
+        repository.put(HOME_USERS + userId + PREFERENCES, new HashMap<>());
+    }
+
+    /**
+     * @param id id of the logged in user, also used for its home path.
+     * @return itself.
+     */
+    public StandInAuthorServer withUser(final String id) {
+        userId = id;
+        seedUser();
+        return this;
+    }
+
+    /**
+     * @param delay latency added to every response.
+     * @return itself.
+     */
+    public StandInAuthorServer withLatency(final Duration delay) {
+        latency = delay.toMillis();
+        return this;
+    }
+
+    /**
+     * @param pathPrefix path prefix, the longest matching prefix wins over the default latency.
+     * @param delay latency added to the responses of the matching requests.
+     * @return itself.
+     */
+    public StandInAuthorServer withLatency(final String pathPrefix, final Duration delay) {
+        latencies.put(pathPrefix, delay.toMillis());
+        return this;
+    }
+
+    /**
+     * @param pathPrefix path prefix (a trailing / serves all the sub paths).
+     * @param resource classpath resource served for it, absolute or relative to the bundled shells.
+     * @return itself.
+     */
+    public StandInAuthorServer withShell(final String pathPrefix, final String resource) {
+        synchronized (shells) {
+            shells.put(pathPrefix, resource);
+        }
+        return this;
+    }
+
+    /**
+     * @return total number of requests received since the last reset.
+     */
+    public long getRequestCount() {
+        return totalRequests.get();
+    }
+
+    /**
+     * @param path exact request path.
+     * @return number of requests received for this path since the last reset.
+     */
+    public long getRequestCount(final String path) {
+        AtomicLong count = requestCounts.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * @return the requests received since the last reset, in order, up to the 10000 most recent ones.
+     */
+    public List<Request> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    /**
+     * @param path exact request path.
+     * @return the requests received for this path since the last reset, in order.
+     */
+    public List<Request> getRequests(final String path) {
+        List<Request> matching = new ArrayList<>();
+        getRequests().stream().filter(request -> request.getPath().equals(path)).forEach(matching::add);
+        return matching;
+    }
+
+    /**
+     * @return the coverage data stored through the JSCover endpoint, in order.
+     */
+    public List<String> getCoverageData() {
+        synchronized (coverage) {
+            return new ArrayList<>(coverage);
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+        path = URLDecoder.decode(path, StandardCharsets.UTF_8.name());
+        totalRequests.incrementAndGet();
+        requestCounts.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+        try {
+            delay(path);
+            Map<String, List<String>> parameters = parameters(exchange);
+            record(new Request(method, path, parameters));
+            if ("GET".equals(method) || "HEAD".equals(method)) {
+                doGet(exchange, path, parameters);
+            } else if ("POST".equals(method)) {
+                doPost(exchange, path, parameters);
+            } else if ("DELETE".equals(method)) {
+                send(exchange, repository.delete(path) ? HttpStatus.SC_NO_CONTENT : HttpStatus.SC_NOT_FOUND, HTML, "");
+            } else {
+                send(exchange, HttpStatus.SC_METHOD_NOT_ALLOWED, HTML, "");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.warn("Stand-in author failed on {} {}", method, path, e);
+            send(exchange, HttpStatus.SC_INTERNAL_SERVER_ERROR, HTML, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void record(final Request request) {
+        synchronized (requests) {
+            requests.addLast(request);
+            if (requests.size() > MAX_RECORDED_REQUESTS) {
+                requests.removeFirst();
+            }
+        }
+    }
+
+    private void delay(final String path) throws InterruptedException {
+        long wait = latency;
+        int matched = -1;
+        for (Map.Entry<String, Long> entry : latencies.entrySet()) {
+            if (path.startsWith(entry.getKey()) && entry.getKey().length() > matched) {
+                matched = entry.getKey().length();
+                wait = entry.getValue();
+            }
+        }
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+
+    private void doGet(final HttpExchange exchange, final String path, final Map<String, List<String>> parameters)
+        throws IOException {
+        if ("/".equals(path)) {
+            redirect(exchange, LOGIN_PATH + "?resource=");
+        } else if ("/sites.html".equals(path)) {
+            redirect(exchange, "/sites.html/content");
+        } else if (USERINFO_PATH.equals(path)) {
+            send(exchange, HttpStatus.SC_OK, JSON, String.format(
+                "{\"userID\":\"%s\",\"userName\":\"%s\",\"home\":\"%s\"}", userId, userId, HOME_USERS + userId));
+        } else if (path.endsWith(PREFERENCES)) {
+            String json = repository.toJson(path, 0);
+            send(exchange, HttpStatus.SC_OK, JSON, json != null ? json : "{}");
+        } else if (JSCOVER_SCRIPT_PATH.equals(path)) {
+            send(exchange, HttpStatus.SC_OK, JS, "OK");
+        } else if (JSCOVER_EXPORT_PATH.equals(path)) {
+            send(exchange, HttpStatus.SC_OK, JSON, "[" + String.join(",", getCoverageData()) + "]");
+        } else if (AUTHORIZABLES_SEARCH_PATH.equals(path)) {
+            searchAuthorizables(exchange, parameters);
+        } else if (QUERY_BUILDER_PATH.equals(path)) {
+            send(exchange, HttpStatus.SC_OK, JSON, repository.query(parameters));
+        } else if (!serveShell(exchange, path)) {
+            serveContent(exchange, path);
+        }
+    }
+
+    private boolean serveShell(final HttpExchange exchange, final String path) throws IOException {
+        String resource = null;
+        synchronized (shells) {
+            for (Map.Entry<String, String> shell : shells.entrySet()) {
+                String prefix = shell.getKey();
+                if (path.equals(prefix) || (prefix.endsWith("/") && path.startsWith(prefix))) {
+                    resource = shell.getValue();
+                }
+            }
+        }
+        if (resource == null) {
+            return false;
+        }
+        try (InputStream stream = StandInAuthorServer.class.getResourceAsStream(
+            resource.startsWith("/") ? resource : RESOURCES + resource)) {
+            if (stream == null) {
+                send(exchange, HttpStatus.SC_NOT_FOUND, HTML, "");
+            } else {
+                send(exchange, HttpStatus.SC_OK, resource.endsWith(".js") ? JS : HTML,
+                    IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+        }
+        return true;
+    }
+
+    private void serveContent(final HttpExchange exchange, final String path) throws IOException {
+        if (path.endsWith(JSON_EXTENSION)) {
+            String resource = path.substring(0, path.length() - JSON_EXTENSION.length());
+            String selectors = "";
+            // peel the selectors as the resource resolution does, node names may contain dots
+            while (!repository.exists(resource) && resource.lastIndexOf('.') > resource.lastIndexOf('/')) {
+                int dot = resource.lastIndexOf('.');
+                selectors = resource.substring(dot + 1) + (selectors.isEmpty() ? "" : "." + selectors);
+                resource = resource.substring(0, dot);
+            }
+            int depth = StandInRepository.depthOf(selectors);
+            int fitting = repository.exists(resource) ? repository.fittingDepth(resource, depth) : -1;
+            if (fitting >= 0) {
+                // too many nodes, list the renderings that fit as the Sling json servlet does
+                List<String> choices = new ArrayList<>();
+                for (int level = fitting; level >= 0; level--) {
+                    choices.add("\"" + resource + "." + level + JSON_EXTENSION + "\"");
+                }
+                send(exchange, HttpStatus.SC_MULTIPLE_CHOICES, JSON, "[" + String.join(",", choices) + "]");
+                return;
+            }
+            String json = repository.toJson(resource, depth);
+            send(exchange, json != null ? HttpStatus.SC_OK : HttpStatus.SC_NOT_FOUND, JSON, json != null ? json : "");
+        } else if (isClientLibrary(path)) {
+            // missing client libraries of the shells are served empty
+            send(exchange, HttpStatus.SC_OK, path.endsWith(".css") ? "text/css" : JS, "");
+        } else {
+            String resource = path.endsWith(".html") ? path.substring(0, path.length() - ".html".length()) : path;
+            if (repository.exists(resource)) {
+                send(exchange, HttpStatus.SC_OK, HTML, "<!DOCTYPE html><html><body data-path=\"" + resource + "\"></body></html>");
+            } else {
+                send(exchange, HttpStatus.SC_NOT_FOUND, HTML, "");
+            }
+        }
+    }
+
+    private static boolean isClientLibrary(final String path) {
+        return (path.startsWith("/etc.clientlibs/") || path.startsWith("/libs/") || path.startsWith("/apps/"))
+            && (path.endsWith(".js") || path.endsWith(".css"));
+    }
+
+    private void doPost(final HttpExchange exchange, final String path, final Map<String, List<String>> parameters)
+        throws IOException {
+        if (path.endsWith(CHECK_SUFFIX)) {
+            String resource = first(parameters, "resource");
+            exchange.getResponseHeaders().add("Set-Cookie", "login-token=standin-" + userId + "; Path=/; HttpOnly");
+            redirect(exchange, resource == null || resource.isEmpty() || "/".equals(resource) ? START_PATH : resource);
+        } else if (JSCOVER_STORE_PATH.equals(path)) {
+            if ("1".equals(first(parameters, "clear"))) {
+                coverage.clear();
+            } else if (first(parameters, "data") != null) {
+                coverage.add(first(parameters, "data"));
+            }
+            send(exchange, HttpStatus.SC_OK, JSON, "{}");
+        } else if (path.startsWith("/libs/granite/ui/content/dumplibs")) {
+            send(exchange, HttpStatus.SC_OK, HTML, "");
+        } else if (path.startsWith(SECURITY_PATH)
+            && (first(parameters, "createUser") != null || first(parameters, "createGroup") != null)) {
+            createAuthorizable(exchange, parameters);
+        } else if (path.endsWith(RW_SUFFIX)) {
+            authorizableCommand(exchange, path.substring(0, path.length() - RW_SUFFIX.length()), parameters);
+        } else if (path.endsWith(CREATE_ASSET_SUFFIX)) {
+            createAsset(exchange, path.substring(0, path.length() - CREATE_ASSET_SUFFIX.length()), parameters);
+        } else if (WCM_COMMAND_PATH.equals(path)) {
+            wcmCommand(exchange, parameters);
+        } else if (TAG_COMMAND_PATH.equals(path)) {
+            tagCommand(exchange, parameters);
+        } else {
+            String target = path.endsWith(".html") ? path.substring(0, path.length() - ".html".length()) : path;
+            StandInRepository.PostResult result = repository.post(target, parameters, userId);
+            sendPostResult(exchange, result);
+        }
+    }
+
+    private void wcmCommand(final HttpExchange exchange, final Map<String, List<String>> parameters) throws IOException {
+        String cmd = String.valueOf(first(parameters, "cmd"));
+        StandInRepository.PostResult result;
+        switch (cmd) {
+            case "createPage":
+                String parent = first(parameters, "parentPath");
+                String label = first(parameters, "label");
+                String title = first(parameters, "title");
+                String page = StandInRepository.normalize(parent + "/" + (label != null ? label : title));
+                if (repository.exists(page)) {
+                    result = new StandInRepository.PostResult(HttpStatus.SC_CONFLICT, page);
+                    break;
+                }
+                Map<String, Object> pageNode = new HashMap<>();
+                pageNode.put(StandInRepository.JCR_PRIMARY_TYPE, "cq:Page");
+                repository.put(page, pageNode);
+                Map<String, Object> content = new HashMap<>();
+                content.put(StandInRepository.JCR_PRIMARY_TYPE, "cq:PageContent");
+                content.put("jcr:title", title != null ? title : label);
+                content.put("cq:template", first(parameters, "template"));
+                repository.put(page + "/jcr:content", content);
+                result = new StandInRepository.PostResult(HttpStatus.SC_OK, page);
+                break;
+            case "deletePage":
+                List<String> paths = parameters.getOrDefault("path", Collections.emptyList());
+                boolean deleted = !paths.isEmpty();
+                for (String p : paths) {
+                    deleted &= repository.delete(p);
+                }
+                result = new StandInRepository.PostResult(deleted ? HttpStatus.SC_OK : HttpStatus.SC_NOT_FOUND,
+                    paths.isEmpty() ? "/" : paths.get(0));
+                break;
+            case "copyPage":
+            case "movePage":
+                String src = first(parameters, "srcPath");
+                String dest = first(parameters, "destParentPath");
+                String name = first(parameters, "destName");
+                Map<String, List<String>> copy = new HashMap<>();
+                copy.put(":operation", Collections.singletonList("copyPage".equals(cmd) ? "copy" : "move"));
+                copy.put(":dest", Collections.singletonList(name != null ? dest + "/" + name : dest + "/"));
+                result = repository.post(src, copy, userId);
+                break;
+            default:
+                result = new StandInRepository.PostResult(HttpStatus.SC_BAD_REQUEST, "/");
+        }
+        sendPostResult(exchange, result);
+    }
+
+    private void searchAuthorizables(final HttpExchange exchange, final Map<String, List<String>> parameters)
+        throws IOException {
+        Matcher named = NAMED.matcher(String.valueOf(first(parameters, "query")));
+        List<String> authorizables = new ArrayList<>();
+        for (String home : repository.find("/home", REP_AUTHORIZABLE_ID, named.find() ? named.group(1) : null)) {
+            Map<String, Object> properties = repository.getProperties(home);
+            authorizables.add(String.format("{\"authorizableId\":\"%s\",\"home\":\"%s\",\"type\":\"%s\"}",
+                properties.get(REP_AUTHORIZABLE_ID), home, home.startsWith(HOME_GROUPS) ? "group" : "user"));
+        }
+        send(exchange, HttpStatus.SC_OK, JSON, String.format("{\"authorizables\":[%s],\"total\":%d}",
+            String.join(",", authorizables), authorizables.size()));
+    }
+
+    private void createAuthorizable(final HttpExchange exchange, final Map<String, List<String>> parameters)
+        throws IOException {
+        boolean user = first(parameters, "createUser") != null;
+        String id = first(parameters, "authorizableId");
+        String root = user ? HOME_USERS : HOME_GROUPS;
+        String intermediate = first(parameters, "intermediatePath");
+        String parent = intermediate == null || intermediate.isEmpty() ? root
+            : intermediate.startsWith("/") ? intermediate : root + intermediate;
+        String home = StandInRepository.normalize(parent + "/" + id);
+        if (id == null || !repository.find("/home", REP_AUTHORIZABLE_ID, id).isEmpty()) {
+            sendPostResult(exchange, new StandInRepository.PostResult(HttpStatus.SC_CONFLICT, home));
+            return;
+        }
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(StandInRepository.JCR_PRIMARY_TYPE, user ? "rep:User" : "rep:Group");
+        properties.put(REP_AUTHORIZABLE_ID, id);
+        repository.put(home, properties);
+        sendPostResult(exchange, new StandInRepository.PostResult(HttpStatus.SC_CREATED, home));
+    }
+
+    private void authorizableCommand(final HttpExchange exchange, final String home,
+                                     final Map<String, List<String>> parameters) throws IOException {
+        Map<String, Object> properties = repository.getProperties(home);
+        if (properties == null || !properties.containsKey(REP_AUTHORIZABLE_ID)) {
+            sendPostResult(exchange, new StandInRepository.PostResult(HttpStatus.SC_NOT_FOUND, home));
+            return;
+        }
+        if ("1".equals(first(parameters, "deleteAuthorizable"))) {
+            repository.delete(home);
+        } else {
+            List<String> members = new ArrayList<>();
+            if (properties.get(REP_MEMBERS) instanceof List) {
+                ((List<?>) properties.get(REP_MEMBERS)).forEach(member -> members.add(String.valueOf(member)));
+            }
+            parameters.getOrDefault("addMembers", Collections.emptyList()).forEach(member -> {
+                if (!members.contains(member)) {
+                    members.add(member);
+                }
+            });
+            members.removeAll(parameters.getOrDefault("removeMembers", Collections.emptyList()));
+            repository.put(home, Collections.singletonMap(REP_MEMBERS, members));
+        }
+        sendPostResult(exchange, new StandInRepository.PostResult(HttpStatus.SC_OK, home));
+    }
+
+    private void createAsset(final HttpExchange exchange, final String folder, final Map<String, List<String>> parameters)
+        throws IOException {
+        String fileName = first(parameters, "fileName");
+        if (fileName == null || !repository.exists(folder)) {
+            sendPostResult(exchange, new StandInRepository.PostResult(HttpStatus.SC_BAD_REQUEST, folder));
+            return;
+        }
+        // processed right away, tests of the processing wait change the state in the repository
+        String asset = folder + "/" + fileName;
+        repository.put(asset, Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "dam:Asset"));
+        Map<String, Object> content = new HashMap<>();
+        content.put(StandInRepository.JCR_PRIMARY_TYPE, "dam:AssetContent");
+        content.put(DAM_ASSET_STATE, "processed");
+        repository.put(asset + "/jcr:content", content);
+        Map<String, Object> original = new HashMap<>();
+        original.put(StandInRepository.JCR_PRIMARY_TYPE, "nt:file");
+        original.put("jcr:data", first(parameters, "file"));
+        repository.put(asset + "/jcr:content/renditions/original", original);
+        sendPostResult(exchange, new StandInRepository.PostResult(HttpStatus.SC_CREATED, asset));
+    }
+
+    private void tagCommand(final HttpExchange exchange, final Map<String, List<String>> parameters) throws IOException {
+        String cmd = String.valueOf(first(parameters, "cmd"));
+        StandInRepository.PostResult result;
+        if ("createTag".equals(cmd) || "createTagByTitle".equals(cmd)) {
+            String tag = first(parameters, "tag");
+            String parentTagId = first(parameters, "parentTagID");
+            if (parentTagId != null && !parentTagId.isEmpty()) {
+                tag = parentTagId + (parentTagId.endsWith(":") ? "" : "/") + tag;
+            }
+            String path = TAGS_ROOT + "/" + tag.replace(':', '/');
+            Map<String, Object> node = new HashMap<>();
+            node.put(StandInRepository.JCR_PRIMARY_TYPE, "cq:Tag");
+            node.put("sling:resourceType", "cq/tagging/components/tag");
+            if (first(parameters, "jcr:title") != null) {
+                node.put("jcr:title", first(parameters, "jcr:title"));
+            }
+            repository.put(path, node);
+            result = new StandInRepository.PostResult(HttpStatus.SC_OK, path);
+        } else if ("deleteTag".equals(cmd)) {
+            String path = first(parameters, "path");
+            result = new StandInRepository.PostResult(repository.delete(path) ? HttpStatus.SC_OK : HttpStatus.SC_NOT_FOUND, path);
+        } else {
+            result = new StandInRepository.PostResult(HttpStatus.SC_OK, TAGS_ROOT);
+        }
+        sendPostResult(exchange, result);
+    }
+
+    private static void sendPostResult(final HttpExchange exchange, final StandInRepository.PostResult result)
+        throws IOException {
+        String path = result.getPath();
+        String parent = path.lastIndexOf('/') > 0 ? path.substring(0, path.lastIndexOf('/')) : "/";
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        if (result.getStatus() == HttpStatus.SC_CREATED) {
+            exchange.getResponseHeaders().add("Location", path);
+        }
+        if (accept != null && accept.contains("application/json")) {
+            send(exchange, result.getStatus(), JSON, String.format(
+                "{\"status.code\":%d,\"path\":\"%s\",\"location\":\"%s\",\"parentLocation\":\"%s\"}",
+                result.getStatus(), path, path, parent));
+            return;
+        }
+        send(exchange, result.getStatus(), HTML, String.format("<html><head><title>Content modified %1$s</title></head>"
+            + "<body><table>\n"
+            + "<tr><td>Status</td><td><div id=\"Status\">%2$d</div></td></tr>\n"
+            + "<tr><td>Message</td><td><div id=\"Message\">%3$s</div></td></tr>\n"
+            + "<tr><td>Location</td><td><a href=\"%1$s\" id=\"Location\">%1$s</a></td></tr>\n"
+            + "<tr><td>Parent Location</td><td><a href=\"%4$s\" id=\"ParentLocation\">%4$s</a></td></tr>\n"
+            + "<tr><td>Path</td><td><div id=\"Path\">%1$s</div></td></tr>\n"
+            + "</table></body></html>", path, result.getStatus(),
+            result.getStatus() < HttpStatus.SC_BAD_REQUEST ? "OK" : "Error", parent));
+    }
+
+    private static void redirect(final HttpExchange exchange, final String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        send(exchange, HttpStatus.SC_MOVED_TEMPORARILY, HTML, "");
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final String contentType, final String body)
+        throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        boolean noBody = "HEAD".equals(exchange.getRequestMethod()) || status == HttpStatus.SC_NO_CONTENT;
+        // an empty body is sent chunked, a fixed -1 length makes the server drop the kept alive connection
+        exchange.sendResponseHeaders(status, noBody ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (!noBody) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Map<String, List<String>> parameters(final HttpExchange exchange) throws IOException {
+        Map<String, List<String>> parameters = new LinkedHashMap<>();
+        addParameters(parameters, exchange.getRequestURI().getRawQuery());
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if ("POST".equals(exchange.getRequestMethod()) && contentType != null
+            && contentType.startsWith("application/x-www-form-urlencoded")) {
+            addParameters(parameters, IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        } else if ("POST".equals(exchange.getRequestMethod()) && contentType != null
+            && contentType.startsWith("multipart/form-data")) {
+            addMultipartParameters(parameters, contentType, IOUtils.toByteArray(exchange.getRequestBody()));
+        }
+        return parameters;
+    }
+
+    private static void addMultipartParameters(final Map<String, List<String>> parameters, final String contentType,
+                                               final byte[] body) {
+        Matcher boundary = BOUNDARY.matcher(contentType);
+        if (!boundary.find()) {
+            throw new IllegalArgumentException("Multipart request without boundary: " + contentType);
+        }
+        // ISO-8859-1 maps every byte to one char, so the binary parts survive the split
+        String content = new String(body, StandardCharsets.ISO_8859_1);
+        String delimiter = "--" + boundary.group(1);
+        for (String part : content.split(Pattern.quote(delimiter))) {
+            int headersEnd = part.indexOf("\r\n\r\n");
+            if (headersEnd < 0) {
+                continue;
+            }
+            Matcher name = PART_NAME.matcher(part.substring(0, headersEnd));
+            if (!name.find()) {
+                continue;
+            }
+            String value = part.substring(headersEnd + 4);
+            if (value.endsWith("\r\n")) {
+                value = value.substring(0, value.length() - 2);
+            }
+            value = new String(value.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name.group(1), n -> new ArrayList<>()).add(value);
+        }
+    }
+
+    private static void addParameters(final Map<String, List<String>> parameters, final String encoded)
+        throws IOException {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8.name());
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8.name()) : "";
+            parameters.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+        }
+    }
+
+    private static String first(final Map<String, List<String>> parameters, final String name) {
+        List<String> values = parameters.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * A request received by the stand-in, with its query and form parameters.
+     */
+    public static final class Request {
+
+        private final String method;
+        private final String path;
+        private final Map<String, List<String>> parameters;
+
+        private Request(final String method, final String path, final Map<String, List<String>> parameters) {
+            this.method = method;
+            this.path = path;
+            this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        }
+
+        /**
+         * @return the request method.
+         */
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the decoded request path.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the query and form parameters, in order.
+         */
+        public Map<String, List<String>> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * @param name parameter name.
+         * @return its first value, null if absent.
+         */
+        public String getParameter(final String name) {
+            return first(parameters, name);
+        }
+
+        /**
+         * @param name parameter name.
+         * @return all its values, empty if absent.
+         */
+        public List<String> getParameters(final String name) {
+            return parameters.getOrDefault(name, Collections.emptyList());
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + path + " " + parameters;
+        }
+    }
+}
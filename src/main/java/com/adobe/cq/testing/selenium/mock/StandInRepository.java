@@ -0,0 +1,678 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.mock;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory content tree of the {@link StandInAuthorServer}, following the Sling POST servlet semantics.
+ *
+ * Nodes are kept in a sorted map by path, each node being a map of properties. Supported operations are the
+ * default modify operation (with @TypeHint, @Delete, @DefaultValue suffixes and intermediate nodes creation),
+ * delete, import (json), copy, move and nop. Reads render the node as the default Sling json servlet does,
+ * with the selector depth (.json, .1.json, .infinity.json), the binary jcr:data as ":jcr:data": length.
+ */
+public final class StandInRepository {
+
+    public static final String JCR_PRIMARY_TYPE = "jcr:primaryType";
+    public static final String NT_UNSTRUCTURED = "nt:unstructured";
+
+    private static final String OPERATION = ":operation";
+    private static final String TYPE_HINT = "@TypeHint";
+    private static final String DELETE = "@Delete";
+    private static final String DEFAULT_VALUE = "@DefaultValue";
+    private static final String INFINITY = "infinity";
+    private static final String JCR_DATA = "jcr:data";
+
+    /**
+     * Default number of nodes an infinity rendering can return, as the json.maximumresults of the Sling json servlet.
+     */
+    public static final int DEFAULT_MAX_RESULTS = 200;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final NavigableMap<String, Map<String, Object>> nodes = new TreeMap<>();
+
+    private int maxResults = DEFAULT_MAX_RESULTS;
+
+    public StandInRepository() {
+        clear();
+    }
+
+    /**
+     * Remove all the content but the root node.
+     */
+    public synchronized void clear() {
+        nodes.clear();
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put(JCR_PRIMARY_TYPE, "rep:root");
+        nodes.put("/", root);
+    }
+
+    /**
+     * @param path absolute node path.
+     * @return true if the node exists.
+     */
+    public synchronized boolean exists(final String path) {
+        return nodes.containsKey(normalize(path));
+    }
+
+    /**
+     * @param path absolute node path.
+     * @return a copy of the node properties, null if it doesn't exist.
+     */
+    public synchronized Map<String, Object> getProperties(final String path) {
+        Map<String, Object> node = nodes.get(normalize(path));
+        return node != null ? new LinkedHashMap<>(node) : null;
+    }
+
+    /**
+     * @return the number of nodes, including the root.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Create or update a node, creating the missing intermediate nodes.
+     * @param path absolute node path.
+     * @param properties properties to set.
+     * @return true if the node was created.
+     */
+    public synchronized boolean put(final String path, final Map<String, Object> properties) {
+        String nodePath = normalize(path);
+        boolean created = ensureNode(nodePath);
+        nodes.get(nodePath).putAll(properties);
+        return created;
+    }
+
+    /**
+     * @param path absolute node path.
+     * @return true if the node existed and was removed with its descendants.
+     */
+    public synchronized boolean delete(final String path) {
+        String nodePath = normalize(path);
+        if ("/".equals(nodePath) || !nodes.containsKey(nodePath)) {
+            return false;
+        }
+        descendants(nodePath).clear();
+        nodes.remove(nodePath);
+        return true;
+    }
+
+    /**
+     * @param root absolute path of the searched tree.
+     * @param property property name.
+     * @param value property value, null to match any node having the property.
+     * @return the paths of the matching descendants, sorted.
+     */
+    public synchronized List<String> find(final String root, final String property, final String value) {
+        List<String> found = new ArrayList<>();
+        descendants(normalize(root)).forEach((path, properties) -> {
+            Object actual = properties.get(property);
+            if (actual != null && (value == null || value.equals(String.valueOf(actual)))) {
+                found.add(path);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * @return the number of nodes a rendering can return.
+     */
+    public synchronized int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * @param max the number of nodes a rendering can return.
+     */
+    public synchronized void setMaxResults(final int max) {
+        maxResults = max;
+    }
+
+    /**
+     * Find how deep a node can be rendered within {@link #getMaxResults()} nodes.
+     * @param path absolute node path.
+     * @return -1 if the infinity rendering fits, otherwise the deepest level that does (0 at least).
+     */
+    public synchronized int fittingDepth(final String path) {
+        return fittingDepth(path, -1);
+    }
+
+    /**
+     * Find how deep a node can be rendered within {@link #getMaxResults()} nodes, as the Sling json servlet checks
+     * before rendering any number of levels.
+     * @param path absolute node path.
+     * @param depth requested number of descendant levels, -1 for infinity.
+     * @return -1 if the requested rendering fits, otherwise the deepest level that does (0 at least).
+     */
+    public synchronized int fittingDepth(final String path, final int depth) {
+        String nodePath = normalize(path);
+        String prefix = "/".equals(nodePath) ? "/" : nodePath + "/";
+        List<Integer> levels = new ArrayList<>();
+        for (String descendant : descendants(nodePath).keySet()) {
+            int level = descendant.substring(prefix.length()).split("/").length;
+            if (depth >= 0 && level > depth) {
+                continue;
+            }
+            while (levels.size() < level) {
+                levels.add(0);
+            }
+            levels.set(level - 1, levels.get(level - 1) + 1);
+        }
+        if (1 + levels.stream().mapToInt(Integer::intValue).sum() <= maxResults) {
+            return -1;
+        }
+        int count = 1;
+        int fitting = 0;
+        while (fitting < levels.size() && count + levels.get(fitting) <= maxResults) {
+            count += levels.get(fitting);
+            fitting++;
+        }
+        return fitting;
+    }
+
+    /**
+     * Render the node as json.
+     * @param path absolute node path.
+     * @param depth number of descendant levels, -1 for infinity (not bounded, check {@link #fittingDepth(String)} first).
+     * @return the json, null if the node doesn't exist.
+     */
+    public synchronized String toJson(final String path, final int depth) {
+        String nodePath = normalize(path);
+        if (!nodes.containsKey(nodePath)) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(toTree(nodePath, depth));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot render " + nodePath, e);
+        }
+    }
+
+    /**
+     * Run a QueryBuilder query, supporting the path (and path.flat), type, nodename, property / property.value
+     * (or property.N_value),
+     * or-ed path groups (group.p.or with group.N_path and group.N_path.exact),
+     * p.offset, p.limit, p.hits (simple, selective with p.properties, full with p.nodedepth) predicates only.
+     * @param parameters query parameters.
+     * @return the QueryBuilder json result.
+     */
+    public synchronized String query(final Map<String, List<String>> parameters) {
+        String root = normalize(first(parameters, "path") != null ? first(parameters, "path") : "/");
+        boolean flat = Boolean.parseBoolean(first(parameters, "path.flat"));
+        String type = first(parameters, "type");
+        String nodeName = first(parameters, "nodename");
+        Pattern namePattern = nodeName != null
+            ? Pattern.compile(Pattern.quote(nodeName).replace("*", "\\E.*\\Q").replace("?", "\\E.\\Q")) : null;
+        String property = first(parameters, "property");
+        List<String> values = new ArrayList<>();
+        parameters.forEach((name, value) -> {
+            if ("property.value".equals(name) || name.matches("property\\.\\d+_value")) {
+                values.addAll(value);
+            }
+        });
+        int offset = first(parameters, "p.offset") != null ? Integer.parseInt(first(parameters, "p.offset")) : 0;
+        int limit = first(parameters, "p.limit") != null ? Integer.parseInt(first(parameters, "p.limit")) : 10;
+        String hitsMode = first(parameters, "p.hits") != null ? first(parameters, "p.hits") : "simple";
+        Map<String, Boolean> groupPaths = new LinkedHashMap<>();
+        parameters.forEach((name, value) -> {
+            if (name.startsWith("group.") && name.endsWith("_path") && !value.isEmpty()) {
+                groupPaths.put(normalize(value.get(0)), Boolean.parseBoolean(first(parameters, name + ".exact")));
+            }
+        });
+
+        List<String> matches = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> node : descendants(root).entrySet()) {
+            String path = node.getKey();
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            Map<String, Object> properties = node.getValue();
+            String parent = path.lastIndexOf('/') > 0 ? path.substring(0, path.lastIndexOf('/')) : "/";
+            if ((flat && !parent.equals(root))
+                || (type != null && !type.equals(properties.get(JCR_PRIMARY_TYPE)))
+                || (namePattern != null && !namePattern.matcher(name).matches())
+                || (property != null && !matchesProperty(path, property, values))
+                || (!groupPaths.isEmpty() && !matchesGroup(path, groupPaths))) {
+                continue;
+            }
+            matches.add(path);
+        }
+        List<Object> hits = new ArrayList<>();
+        int end = limit < 0 ? matches.size() : Math.min(matches.size(), offset + limit);
+        for (String path : matches.subList(Math.min(offset, matches.size()), end)) {
+            hits.add(hit(path, hitsMode, parameters));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", true);
+        result.put("results", hits.size());
+        result.put("total", matches.size());
+        result.put("more", end < matches.size());
+        result.put("offset", offset);
+        result.put("hits", hits);
+        try {
+            return MAPPER.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot render the query result", e);
+        }
+    }
+
+    private static boolean matchesGroup(final String path, final Map<String, Boolean> groupPaths) {
+        return groupPaths.entrySet().stream().anyMatch(group -> group.getValue()
+            ? path.equals(group.getKey()) : path.startsWith(group.getKey() + "/"));
+    }
+
+    private boolean matchesProperty(final String path, final String property, final List<String> values) {
+        int slash = property.lastIndexOf('/');
+        Map<String, Object> properties = nodes.get(slash > 0 ? path + "/" + property.substring(0, slash) : path);
+        Object value = properties != null ? properties.get(property.substring(slash + 1)) : null;
+        if (value == null) {
+            return false;
+        }
+        return values == null || values.isEmpty() || values.contains(String.valueOf(value));
+    }
+
+    private Object hit(final String path, final String mode, final Map<String, List<String>> parameters) {
+        Map<String, Object> properties = nodes.get(path);
+        if ("full".equals(mode)) {
+            String depth = first(parameters, "p.nodedepth");
+            Map<String, Object> tree = toTree(path, depth != null ? Integer.parseInt(depth) : 0);
+            tree.put("jcr:path", path);
+            return tree;
+        }
+        Map<String, Object> hit = new LinkedHashMap<>();
+        if ("selective".equals(mode)) {
+            String selected = first(parameters, "p.properties");
+            for (String name : selected != null ? selected.split(" ") : new String[0]) {
+                if ("jcr:path".equals(name)) {
+                    hit.put(name, path);
+                } else if (properties.containsKey(name)) {
+                    hit.put(name, properties.get(name));
+                }
+            }
+            return hit;
+        }
+        hit.put("path", path);
+        hit.put("name", path.substring(path.lastIndexOf('/') + 1));
+        hit.put("title", properties.getOrDefault("jcr:title", hit.get("name")));
+        return hit;
+    }
+
+    /**
+     * Apply a Sling POST request.
+     * @param path request path, a trailing / or /* creates a new child node.
+     * @param parameters request parameters, multi-valued.
+     * @param userId user id set on jcr:createdBy / jcr:lastModifiedBy when requested.
+     * @return the result of the operation.
+     */
+    public synchronized PostResult post(final String path, final Map<String, List<String>> parameters, final String userId) {
+        String operation = first(parameters, OPERATION);
+        if (operation == null || operation.isEmpty()) {
+            return modify(path, parameters, userId);
+        }
+        String nodePath = normalize(path);
+        switch (operation) {
+            case "delete":
+                List<String> applyTo = parameters.get(":applyTo");
+                if (applyTo == null || applyTo.isEmpty()) {
+                    return delete(nodePath) ? new PostResult(HttpStatus.SC_OK, nodePath)
+                        : new PostResult(HttpStatus.SC_NOT_FOUND, nodePath);
+                }
+                applyTo.forEach(p -> delete(resolve(nodePath, p)));
+                return new PostResult(HttpStatus.SC_OK, nodePath);
+            case "import":
+                return importContent(nodePath, parameters);
+            case "copy":
+            case "move":
+                return copy(nodePath, parameters, "move".equals(operation));
+            case "nop":
+            case "checkin":
+            case "checkout":
+                return new PostResult(HttpStatus.SC_OK, nodePath);
+            default:
+                return new PostResult(HttpStatus.SC_INTERNAL_SERVER_ERROR, nodePath);
+        }
+    }
+
+    private PostResult modify(final String path, final Map<String, List<String>> parameters, final String userId) {
+        String target = path;
+        if (target.endsWith("/*") || target.endsWith("/")) {
+            String parent = normalize(target.substring(0, target.lastIndexOf('/')));
+            target = childPath(parent, newChildName(parent, parameters));
+        }
+        final String nodePath = normalize(target);
+        boolean created = ensureNode(nodePath);
+        Map<String, Map<String, String>> suffixes = new LinkedHashMap<>();
+        parameters.forEach((name, values) -> {
+            int at = name.lastIndexOf('@');
+            if (at > 0) {
+                suffixes.computeIfAbsent(name.substring(0, at), k -> new LinkedHashMap<>())
+                    .put(name.substring(at), values.isEmpty() ? "" : values.get(0));
+            }
+        });
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            String name = parameter.getKey();
+            if (name.startsWith(":") || name.indexOf('@') > 0 || "_charset_".equals(name)) {
+                continue;
+            }
+            Map<String, String> suffix = suffixes.getOrDefault(name, new LinkedHashMap<>());
+            setProperty(nodePath, name, parameter.getValue(), suffix, userId);
+        }
+        suffixes.forEach((name, suffix) -> {
+            if (suffix.containsKey(DELETE)) {
+                removeProperty(nodePath, name);
+            } else if (suffix.containsKey(DEFAULT_VALUE) && !parameters.containsKey(name)) {
+                List<String> values = new ArrayList<>();
+                values.add(suffix.get(DEFAULT_VALUE));
+                setProperty(nodePath, name, values, suffix, userId);
+            }
+        });
+        return new PostResult(created ? HttpStatus.SC_CREATED : HttpStatus.SC_OK, nodePath);
+    }
+
+    private void setProperty(final String nodePath, final String name, final List<String> values,
+                             final Map<String, String> suffix, final String userId) {
+        String relative = name.startsWith("./") ? name.substring(2) : name;
+        if (relative.startsWith("/")) {
+            return;
+        }
+        int slash = relative.lastIndexOf('/');
+        String target = slash > 0 ? childPath(nodePath, relative.substring(0, slash)) : nodePath;
+        String property = slash > 0 ? relative.substring(slash + 1) : relative;
+        ensureNode(target);
+        String typeHint = suffix.get(TYPE_HINT);
+        Object value = convert(property, values, typeHint, userId);
+        if (value == null) {
+            nodes.get(target).remove(property);
+        } else {
+            nodes.get(target).put(property, value);
+        }
+    }
+
+    private void removeProperty(final String nodePath, final String name) {
+        String relative = name.startsWith("./") ? name.substring(2) : name;
+        int slash = relative.lastIndexOf('/');
+        String target = slash > 0 ? childPath(nodePath, relative.substring(0, slash)) : nodePath;
+        String property = slash > 0 ? relative.substring(slash + 1) : relative;
+        if (nodes.containsKey(target) && !nodes.get(target).containsKey(property)) {
+            // a @Delete on a child node name removes the node
+            delete(childPath(target, property));
+        } else if (nodes.containsKey(target)) {
+            nodes.get(target).remove(property);
+        }
+    }
+
+    private static Object convert(final String property, final List<String> values, final String typeHint,
+                                  final String userId) {
+        boolean multiple = values.size() > 1 || (typeHint != null && typeHint.endsWith("[]"));
+        String type = typeHint != null ? typeHint.replace("[]", "") : "String";
+        if (!multiple) {
+            String value = values.isEmpty() ? "" : values.get(0);
+            if (value.isEmpty()) {
+                // same auto values as the Sling POST servlet, nothing set otherwise
+                if ("jcr:created".equals(property) || "jcr:lastModified".equals(property)) {
+                    return now();
+                }
+                if ("jcr:createdBy".equals(property) || "jcr:lastModifiedBy".equals(property)) {
+                    return userId;
+                }
+                return "String".equals(type) || "Binary".equals(type) ? "" : null;
+            }
+            return convert(value, type);
+        }
+        List<Object> converted = new ArrayList<>();
+        values.forEach(v -> converted.add(convert(v, type)));
+        return converted;
+    }
+
+    private static Object convert(final String value, final String type) {
+        switch (type) {
+            case "Long":
+                return Long.parseLong(value);
+            case "Double":
+            case "Decimal":
+                return Double.parseDouble(value);
+            case "Boolean":
+                return Boolean.parseBoolean(value);
+            default:
+                return value;
+        }
+    }
+
+    private PostResult importContent(final String nodePath, final Map<String, List<String>> parameters) {
+        String content = first(parameters, ":content");
+        if (content == null) {
+            return new PostResult(HttpStatus.SC_PRECONDITION_FAILED, nodePath);
+        }
+        String name = first(parameters, ":name");
+        if (name == null) {
+            name = first(parameters, ":nameHint");
+        }
+        String target = name != null ? childPath(nodePath, name) : nodePath;
+        boolean replace = Boolean.parseBoolean(first(parameters, ":replace"));
+        if (nodes.containsKey(target) && name != null) {
+            if (!replace) {
+                return new PostResult(HttpStatus.SC_CONFLICT, target);
+            }
+            delete(target);
+        }
+        Map<String, Object> tree;
+        try {
+            tree = MAPPER.readValue(content, LinkedHashMap.class);
+        } catch (IOException e) {
+            return new PostResult(HttpStatus.SC_INTERNAL_SERVER_ERROR, target);
+        }
+        importTree(target, tree);
+        // as the Sling import operation, reported as created even when merged into an existing node
+        return new PostResult(HttpStatus.SC_CREATED, target);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void importTree(final String path, final Map<String, Object> tree) {
+        ensureNode(path);
+        Map<String, Object> node = nodes.get(path);
+        tree.forEach((key, value) -> {
+            if (value instanceof Map) {
+                importTree(childPath(path, key), (Map<String, Object>) value);
+            } else if (value != null) {
+                node.put(key, value);
+            }
+        });
+    }
+
+    private PostResult copy(final String nodePath, final Map<String, List<String>> parameters, final boolean move) {
+        String dest = first(parameters, ":dest");
+        if (dest == null || !nodes.containsKey(nodePath)) {
+            return new PostResult(dest == null ? HttpStatus.SC_PRECONDITION_FAILED : HttpStatus.SC_NOT_FOUND, nodePath);
+        }
+        String parent = nodePath.substring(0, Math.max(1, nodePath.lastIndexOf('/')));
+        String target = dest.endsWith("/") ? childPath(resolve(parent, dest), nodePath.substring(nodePath.lastIndexOf('/') + 1))
+            : resolve(parent, dest);
+        boolean exists = nodes.containsKey(target);
+        if (exists && !Boolean.parseBoolean(first(parameters, ":replace"))) {
+            return new PostResult(HttpStatus.SC_PRECONDITION_FAILED, target);
+        }
+        NavigableMap<String, Map<String, Object>> subtree = new TreeMap<>(descendants(nodePath));
+        subtree.put(nodePath, nodes.get(nodePath));
+        if (exists) {
+            delete(target);
+        }
+        if (move) {
+            delete(nodePath);
+        }
+        ensureNode(target.substring(0, Math.max(1, target.lastIndexOf('/'))));
+        subtree.forEach((p, props) -> nodes.put(target + p.substring(nodePath.length()), new LinkedHashMap<>(props)));
+        return new PostResult(exists ? HttpStatus.SC_OK : HttpStatus.SC_CREATED, target);
+    }
+
+    private Map<String, Object> toTree(final String path, final int depth) {
+        Map<String, Object> tree = new LinkedHashMap<>(nodes.get(path));
+        if (tree.containsKey(JCR_DATA)) {
+            tree.put(":" + JCR_DATA, String.valueOf(tree.remove(JCR_DATA)).length());
+        }
+        if (depth == 0) {
+            return tree;
+        }
+        for (String child : children(path)) {
+            tree.put(child.substring(child.lastIndexOf('/') + 1), toTree(child, depth - 1));
+        }
+        return tree;
+    }
+
+    /**
+     * @param path absolute node path.
+     * @return the direct children paths, sorted by name.
+     */
+    public synchronized List<String> children(final String path) {
+        String nodePath = normalize(path);
+        String prefix = "/".equals(nodePath) ? "/" : nodePath + "/";
+        List<String> children = new ArrayList<>();
+        for (String candidate : descendants(nodePath).keySet()) {
+            if (candidate.length() > prefix.length() && candidate.indexOf('/', prefix.length()) < 0) {
+                children.add(candidate);
+            }
+        }
+        return children;
+    }
+
+    private NavigableMap<String, Map<String, Object>> descendants(final String path) {
+        String prefix = "/".equals(path) ? "/" : path + "/";
+        return nodes.subMap(prefix, true, prefix + "\uFFFF", true);
+    }
+
+    private boolean ensureNode(final String path) {
+        if (nodes.containsKey(path)) {
+            return false;
+        }
+        int slash = path.lastIndexOf('/');
+        ensureNode(slash > 0 ? path.substring(0, slash) : "/");
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put(JCR_PRIMARY_TYPE, NT_UNSTRUCTURED);
+        nodes.put(path, node);
+        return true;
+    }
+
+    private String newChildName(final String parent, final Map<String, List<String>> parameters) {
+        String name = first(parameters, ":name");
+        if (name == null) {
+            name = first(parameters, ":nameHint");
+        }
+        if (name == null) {
+            String title = first(parameters, "./jcr:title");
+            name = title != null ? title : first(parameters, "jcr:title");
+        }
+        if (name == null || name.isEmpty()) {
+            return UUID.randomUUID().toString().substring(0, 8);
+        }
+        String candidate = name.toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9_\\-:.]", "_");
+        String unique = candidate;
+        for (int i = 0; first(parameters, ":name") == null && nodes.containsKey(childPath(parent, unique)); i++) {
+            unique = candidate + i;
+        }
+        return unique;
+    }
+
+    /**
+     * @param path a path, possibly with trailing slash or selectors.
+     * @return the path without trailing slash.
+     */
+    public static String normalize(final String path) {
+        if (path == null || path.isEmpty() || "/".equals(path)) {
+            return "/";
+        }
+        String normalized = path.replaceAll("/+", "/");
+        return normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized;
+    }
+
+    private static String childPath(final String parent, final String name) {
+        return normalize("/".equals(parent) ? "/" + name : parent + "/" + name);
+    }
+
+    private static String resolve(final String base, final String path) {
+        return path.startsWith("/") ? normalize(path) : childPath(base, path);
+    }
+
+    private static String first(final Map<String, List<String>> parameters, final String name) {
+        List<String> values = parameters.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static String now() {
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX", Locale.ENGLISH).format(new Date());
+    }
+
+    /**
+     * @param selectors the selectors of a json request, i.e. "1", "tidy.infinity".
+     * @return the depth to render, -1 for infinity.
+     */
+    public static int depthOf(final String selectors) {
+        int depth = 0;
+        if (selectors != null) {
+            for (String selector : selectors.split("\\.")) {
+                if (INFINITY.equals(selector)) {
+                    depth = -1;
+                } else if (selector.matches("\\d+")) {
+                    depth = Integer.parseInt(selector);
+                }
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Outcome of a POST operation.
+     */
+    public static final class PostResult {
+
+        private final int status;
+        private final String path;
+
+        PostResult(final int status, final String path) {
+            this.status = status;
+            this.path = path;
+        }
+
+        /**
+         * @return the http status of the operation.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the path of the changed node.
+         */
+        public String getPath() {
+            return path;
+        }
+    }
+}
@@ -61,6 +61,39 @@ public abstract class EditorPage extends BasePage {
             + "return ns.pageInfo && ns.pageInfo !== null;%n"
             + "}%n" + "return false";
 
+    private static final String TOOLBAR_OPENED = "opened";
+    private static final long TOOLBAR_OPEN_TIMEOUT = 2000;
+    // JS script selecting the editable and opening its toolbar through the editor API, resolving once the toolbar
+    // is displayed at a stable position (or 'unavailable' when the API / editable can't be used)
+    private static final String JS_OPEN_EDITABLE_TOOLBAR = ""
+            + "var path = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];%n"
+            + "var ns = window.Granite && window.Granite.author;%n"
+            + "if (!ns || !ns.editables || !ns.selection || !ns.EditorFrame || !ns.EditorFrame.editableToolbar) {%n"
+            + "  done('unavailable'); return;%n"
+            + "}%n"
+            + "var editable = ns.editables.find(path)[0];%n"
+            + "var toolbar = document.querySelector('#EditableToolbar');%n"
+            + "if (!editable || !toolbar) { done('unavailable'); return; }%n"
+            + "var deadline = Date.now() + timeout, last = null, observer = null;%n"
+            + "function check() {%n"
+            + "  var rect = toolbar.getBoundingClientRect();%n"
+            + "  var key = rect.top + ',' + rect.left + ',' + rect.width + ',' + rect.height;%n"
+            + "  if (rect.width > 0 && rect.height > 0 && key === last) { observer.disconnect(); done('opened'); return; }%n"
+            + "  if (Date.now() > deadline) { observer.disconnect(); done('timeout'); return; }%n"
+            + "  last = key;%n"
+            + "  window.requestAnimationFrame(check);%n"
+            + "}%n"
+            + "observer = new MutationObserver(function() { last = null; });%n"
+            + "observer.observe(toolbar, { attributes: true, attributeFilter: ['style', 'class'] });%n"
+            + "try {%n"
+            + "  ns.selection.deselectAll();%n"
+            + "  ns.selection.select(editable);%n"
+            + "  ns.EditorFrame.editableToolbar.open(editable);%n"
+            + "} catch (err) {%n"
+            + "  observer.disconnect(); done('unavailable'); return;%n"
+            + "}%n"
+            + "window.requestAnimationFrame(check);%n";
+
     private PageInfo pageInfo = new PageInfo();
 
     private static String getEditedPagePath(final String pagePath) {
@@ -192,13 +225,34 @@ public abstract class EditorPage extends BasePage {
     }
 
     /**
-     * Opens the editor tool bar for a resource
+     * Opens the editor tool bar for a resource.
+     * The editable is selected through the Granite.author API when available, otherwise its overlay is clicked.
      * @param resourcePath path of the resource
      * @return {@link EditableToolbar} instance
      * @throws TimeoutException if component is not visible before Timeout
      */
     public EditableToolbar openEditableToolbar(final String resourcePath) throws TimeoutException {
         SelenideElement targetActionBar = getComponentOverlay(resourcePath);
+        final String opened = Selenide.executeAsyncJavaScript(String.format(JS_OPEN_EDITABLE_TOOLBAR), resourcePath,
+            TOOLBAR_OPEN_TIMEOUT);
+        if (TOOLBAR_OPENED.equals(opened) && editableToolbar.element().isDisplayed()) {
+            return editableToolbar;
+        }
+        LOG.info("Editable toolbar of {} not opened through the editor API ({}), clicking the overlay", resourcePath, opened);
+        return openEditableToolbarByClick(targetActionBar);
+    }
+
+    /**
+     * Opens the editor tool bar for a resource by clicking its overlay.
+     * @param resourcePath path of the resource
+     * @return {@link EditableToolbar} instance
+     * @throws TimeoutException if component is not visible before Timeout
+     */
+    public EditableToolbar openEditableToolbarByClick(final String resourcePath) throws TimeoutException {
+        return openEditableToolbarByClick(getComponentOverlay(resourcePath));
+    }
+
+    private EditableToolbar openEditableToolbarByClick(final SelenideElement targetActionBar) throws TimeoutException {
         clickUntil(targetActionBar, editableToolbar.element(), Condition.visible, DEFAULT_CLICK_UNTIL_RETRIES, 1);
         return editableToolbar;
     }
@@ -234,6 +288,14 @@ public abstract class EditorPage extends BasePage {
         return componentOverlay.has(Condition.cssClass("is-selected"));
     }
 
+    /**
+     * Extract in one script the editables from the overlay wrapper and the content frame, to be queried locally.
+     * @return the {@link EditorSnapshot} of the current editor state
+     */
+    public EditorSnapshot snapshot() {
+        return EditorSnapshot.take(OVERLAY_WRAPPER, CONTENT_FRAME);
+    }
+
     /**
      * @return collections of all the editable components
      */
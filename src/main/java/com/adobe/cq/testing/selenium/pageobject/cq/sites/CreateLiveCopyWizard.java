@@ -85,5 +85,13 @@ public class CreateLiveCopyWizard extends Wizard {
         return CONFIRM_DIALOG;
     }
 
+    /**
+     * Open the wizard directly by url.
+     * @param parentPath the parent page in which the live copy is created.
+     * @return the page object for this wizard.
+     */
+    public static CreateLiveCopyWizard openOn(final String parentPath) {
+        return new CreateLiveCopyWizard().open(CREATE_WIZARD_URL + parentPath);
+    }
 
 }
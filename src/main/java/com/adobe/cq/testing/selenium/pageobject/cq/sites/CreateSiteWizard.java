@@ -80,4 +80,13 @@ public class CreateSiteWizard extends Wizard {
     return CONFIRM_DIALOG;
   }
 
+  /**
+   * Open the wizard directly by url.
+   * @param parentPath the parent page in which the site is created.
+   * @return the page object for this wizard.
+   */
+  public static CreateSiteWizard openOn(final String parentPath) {
+    return new CreateSiteWizard().open(CREATE_WIZARD_URL + parentPath);
+  }
+
 }
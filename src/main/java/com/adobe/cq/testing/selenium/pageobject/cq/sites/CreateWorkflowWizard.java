@@ -27,8 +27,19 @@ import com.adobe.cq.testing.selenium.pagewidgets.granite.Collection;
 import com.adobe.cq.testing.selenium.pagewidgets.granite.Picker;
 import com.adobe.cq.testing.selenium.pagewidgets.granite.Table;
 import com.adobe.cq.testing.selenium.pagewidgets.granite.Wizard;
+import com.adobe.cq.testing.selenium.utils.WorkflowTracker;
+import com.codeborne.selenide.Selenide;
 import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.WebDriverRunner;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.adobe.cq.testing.selenium.utils.ElementUtils.clickableClick;
 import static com.codeborne.selenide.Selenide.$;
@@ -49,6 +60,20 @@ public final class CreateWorkflowWizard extends Wizard {
 
     private static final Collection COLLECTION = new Table(".foundation-collection");
 
+    // JS script reading the ids of all the items of the collection at once
+    private static final String JS_ITEM_IDS = "var attribute = arguments[1];\n"
+        + "return [].map.call(document.querySelectorAll(arguments[0]), function(item) { return item.getAttribute(attribute); });";
+
+    /**
+     * Open the wizard directly by url.
+     * @param items the paths the workflow is started on.
+     * @return the page object for this wizard.
+     */
+    public static CreateWorkflowWizard openOn(final String... items) {
+        return new CreateWorkflowWizard().open(CREATE_WF_WIZARD_URL + "?" + Arrays.stream(items)
+            .map(item -> "item=" + URLEncoder.encode(item, StandardCharsets.UTF_8)).collect(Collectors.joining("&")));
+    }
+
     /**
      * @return true if the wizard is opened.
      */
@@ -96,6 +121,25 @@ public final class CreateWorkflowWizard extends Wizard {
         return COLLECTION;
     }
 
+    /**
+     * @return the paths of the items the workflows are started on.
+     */
+    public List<String> getItemPaths() {
+        List<String> ids = Selenide.executeJavaScript(JS_ITEM_IDS,
+            ".foundation-collection " + Collection.DEFAULT_ALLITEMS_SELECTOR, Collection.COLLECTION_ITEM_ID_ATTRIBUTE);
+        return ids != null ? ids : new ArrayList<>();
+    }
+
+    /**
+     * Watch the workflow instances of the wizard items, to call before starting the workflows.
+     * @param client author client, allowed to read the workflow instances.
+     * @return the tracker, to wait for the started workflows to complete.
+     * @throws ClientException if the query of the existing instances fails.
+     */
+    public WorkflowTracker trackWorkflows(final SlingClient client) throws ClientException {
+        return new WorkflowTracker(client).watch(getItemPaths());
+    }
+
     /**
      * @return possible actions in this wizard.
      */
@@ -146,8 +190,8 @@ public final class CreateWorkflowWizard extends Wizard {
          * @return the picker that is displayed.
          */
         public Picker addContent() {
+            Picker pickerDialog = new Picker("coral-dialog.foundation-picker-collection", ViewType.COLUMN).expectOpen();
             clickableClick(ADD_CONTENT_BUTTON);
-            Picker pickerDialog = new Picker("coral-dialog.foundation-picker-collection", ViewType.COLUMN);
             pickerDialog.waitVisible();
             return pickerDialog;
         }
@@ -158,8 +202,8 @@ public final class CreateWorkflowWizard extends Wizard {
          * @return the alert dialog that is displayed.
          */
         public Dialog removeSelection() {
+            Dialog dialog = new Dialog("coral-dialog[role=\"alertdialog\"]").expectOpen();
             clickableClick(REMOVE_SELECTION_BUTTON);
-            Dialog dialog = new Dialog("coral-dialog[role=\"alertdialog\"]");
             dialog.waitVisible();
             return dialog;
         }
@@ -170,8 +214,8 @@ public final class CreateWorkflowWizard extends Wizard {
          * @return the include children dialog that is displayed.
          */
         public IncludeChildrenDialog includeChildren() {
+            IncludeChildrenDialog dialog = new IncludeChildrenDialog().expectOpen();
             clickableClick(INCLUDE_CHILDREN_BUTTON);
-            IncludeChildrenDialog dialog = new IncludeChildrenDialog();
             dialog.waitVisible();
             return dialog;
         }
@@ -21,6 +21,7 @@ import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
 import com.adobe.cq.testing.selenium.pagewidgets.coral.CoralCheckbox;
 import com.adobe.cq.testing.selenium.pagewidgets.coral.CoralMultiField;
 import com.adobe.cq.testing.selenium.pagewidgets.coral.CoralPopOver;
+import com.adobe.cq.testing.selenium.pagewidgets.cq.FormFiller;
 import com.adobe.cq.testing.selenium.pagewidgets.cq.sites.PageSelector;
 import com.adobe.cq.testing.selenium.utils.ExpectNav;
 import com.codeborne.selenide.Condition;
@@ -28,6 +29,7 @@ import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.adobe.cq.testing.selenium.pagewidgets.cq.FormField.*;
@@ -105,6 +107,16 @@ public final class PropertiesPage extends BasePage {
         return target;
     }
 
+    /**
+     * Fill several page properties at once, see {@link FormFiller}.
+     * @param values field name (i.e ./jcr:title) to value map.
+     * @return itself.
+     */
+    public PropertiesPage fill(final Map<String, ?> values) {
+        new FormFiller().setAll(values).fill();
+        return this;
+    }
+
     public PropertiesPage save() {
         clickableClick(dropDownButton);
         // assert a popover is opened
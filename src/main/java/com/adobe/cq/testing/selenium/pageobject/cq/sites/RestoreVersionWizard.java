@@ -72,8 +72,8 @@ public class RestoreVersionWizard extends Wizard {
      */
     public void selectVersion(String uuid, int index) {
         CoralSelect select = new CoralSelect("uuid='" + uuid + "'");
+        CoralPopOver popOver = CoralPopOver.firstOpened().expectOpen();
         select.click();
-        CoralPopOver popOver = CoralPopOver.firstOpened();
         popOver.waitVisible();
         CoralSelectList list = new CoralSelectList(popOver.element());
         list.selectByIndex(index);
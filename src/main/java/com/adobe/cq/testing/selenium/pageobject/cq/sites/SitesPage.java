@@ -83,8 +83,16 @@ public class SitesPage extends CollectionPage {
         return new SitesToolbarActions();
     }
 
+    /**
+     * @return common combo actions for this sites page.
+     */
+    public SitesPageSmartActions smartActions() {
+        return new SitesPageSmartActions(this);
+    }
+
     /**
      * Common actions for Sites.
+     * Wizards can be opened either through the UI from current context, or directly by url for a given parent path.
      */
     public static final class SitesPageSmartActions {
 
@@ -135,6 +143,24 @@ public class SitesPage extends CollectionPage {
             return wizard;
         }
 
+        /**
+         * Open the create site wizard by url, without any UI navigation.
+         * @param parentPath the parent in which the site is created.
+         * @return the create site wizard.
+         */
+        public CreateSiteWizard openCreateSiteWizard(final String parentPath) {
+            return CreateSiteWizard.openOn(parentPath);
+        }
+
+        /**
+         * Open the create page wizard by url, without any UI navigation.
+         * @param parentPath the parent page in which the page is created.
+         * @return the create page wizard.
+         */
+        public CreatePageWizard openCreatePageWizard(final String parentPath) {
+            return CreatePageWizard.openOn(parentPath);
+        }
+
         /**
          * Combo action to open the create workflow wizard from current context.
          * @return the create workflow wizard.
@@ -148,6 +174,24 @@ public class SitesPage extends CollectionPage {
 
 
 
+        /**
+         * Open the create workflow wizard by url, without any UI navigation.
+         * @param items the paths the workflow is started on.
+         * @return the create workflow wizard.
+         */
+        public CreateWorkflowWizard openCreateWorkflowWizard(final String... items) {
+            return CreateWorkflowWizard.openOn(items);
+        }
+
+        /**
+         * Open the create live copy wizard by url, without any UI navigation.
+         * @param parentPath the parent page in which the live copy is created.
+         * @return the create live copy wizard.
+         */
+        public CreateLiveCopyWizard openCreateLiveCopyWizard(final String parentPath) {
+            return CreateLiveCopyWizard.openOn(parentPath);
+        }
+
         /**
          * Combo action to open the create create live copy wizard from current context.
          * @return the create live copy wizard.
@@ -185,10 +185,15 @@ public class BasePage {
 
     /**
      * Wait that the page is ready (according to coral).
+     * Learned readiness signals are used instead of the full chain when {@link ReadinessProfiles} are enabled.
      */
     public void waitReady() {
         // ensure frame on unified shell
         switchToAemContentFrame();
+        if (ReadinessProfiles.isEnabled()) {
+            ReadinessProfiles.waitReady(WebDriverRunner.url());
+            return;
+        }
         waitNetworkIdled(NETWORK_POLLING_INTERVAL);
         waitDocumentLoadCompleted();
         waitCoralReady();
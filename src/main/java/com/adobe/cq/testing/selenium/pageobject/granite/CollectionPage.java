@@ -23,9 +23,16 @@ import com.adobe.cq.testing.selenium.pagewidgets.coral.CoralSelectList;
 import com.adobe.cq.testing.selenium.pagewidgets.cq.EnumRail;
 import com.adobe.cq.testing.selenium.pagewidgets.granite.*;
 import com.adobe.cq.testing.selenium.pagewidgets.granite.columnview.ColumnView;
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.ex.UIAssertionError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.EnumMap;
 
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
 import static com.adobe.cq.testing.selenium.pagewidgets.Helpers.waitForElementAnimationFinished;
 import static com.adobe.cq.testing.selenium.pagewidgets.Helpers.waitNetworkIdled;
 import static com.adobe.cq.testing.selenium.pagewidgets.I18N.geti18nString;
@@ -33,9 +40,26 @@ import static com.adobe.cq.testing.selenium.pagewidgets.coral.CoralReady.waitCor
 
 public class CollectionPage extends ShellPage {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CollectionPage.class);
+
     private static final String BASE_COLLECTION_SELECTOR = ".foundation-collection";
     private static final CoralCycleButton RAIL_CYCLE_BUTTON = new CoralCycleButton("[id=\"shell-collectionpage-rail-toggle\"]");
     private static final long NETWORK_IDLE_INTERVAL = 250;
+    private static final String RAIL_ACTIVE_CLASS = "foundation-layout-panel-rail-active";
+    private static final Condition PANEL_SELECTED = Condition.or("selected",
+        Condition.attribute("selected"), Condition.cssClass("is-selected"));
+
+    // JS script selecting the rail item of the cycle button, as the granite toggleable reacts on its change event
+    private static final String JS_SELECT_RAIL = ""
+        + "var toggle = document.querySelector(arguments[0]), name = arguments[1], label = arguments[2];\n"
+        + "if (!toggle || !toggle.items) { return false; }\n"
+        + "var item = toggle.items.getAll().filter(function(i) {\n"
+        + "  return (name && i.getAttribute('data-granite-toggleable-control-name') === name)\n"
+        + "    || i.textContent.trim() === label;\n"
+        + "})[0];\n"
+        + "if (!item) { return false; }\n"
+        + "item.selected = true;\n"
+        + "return true;\n";
 
     private final CoralActionBar actionbarElement;
     private final CoralQuickActions quickactions;
@@ -110,14 +134,51 @@ public class CollectionPage extends ShellPage {
     }
 
     /**
-     * Opens the rail by using the name of the rail.
+     * Opens the rail by using the name of the rail, selecting it directly on the rail toggle.
+     * Falls back to {@link #openRailByClick(EnumRail)} if the rail panel doesn't become active,
+     * use that one to test the rail toggle itself.
      *
      * @param railtype - a known type of rail.
      */
     public void openRail(final EnumRail railtype) {
+        final String label = geti18nString(railtype.getI18nTitle());
+        if (Boolean.TRUE.equals(Selenide.executeJavaScript(JS_SELECT_RAIL, railToggle().getCssSelector(),
+            railtype.getPanelName(), label)) && isRailActive(railtype)) {
+            waitRailTransition(railtype);
+        } else {
+            LOG.info("Rail {} not activated by selection, opening it through the rail toggle", railtype);
+            openRailByClick(railtype);
+        }
+    }
+
+    private boolean isRailActive(final EnumRail railtype) {
+        if (railtype.getPanelName() == null) {
+            // no panel to check, i.e. Content Only
+            return true;
+        }
+        Duration timeout = Duration.ofMillis(DEFAULT_WAIT_TIME);
+        try {
+            leftRail().element().shouldHave(Condition.cssClass(RAIL_ACTIVE_CLASS), timeout);
+            leftRail().getPanelByName(railtype).shouldBe(PANEL_SELECTED, timeout);
+            return true;
+        } catch (UIAssertionError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the rail by using the name of the rail, through the rail toggle popover.
+     *
+     * @param railtype - a known type of rail.
+     */
+    public void openRailByClick(final EnumRail railtype) {
         // Don't open if already open
         railToggle().click();
         railToggle().selectList().selectByLabel(geti18nString(railtype.getI18nTitle()));
+        waitRailTransition(railtype);
+    }
+
+    private void waitRailTransition(final EnumRail railtype) {
         if (railtype.getPanelName() != null) {
             // we need to wait for the panel to transition.
             waitForElementAnimationFinished(leftRail().getCssSelector());
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.pageobject.granite;
+
+import com.adobe.cq.testing.selenium.pagewidgets.Helpers;
+import com.adobe.cq.testing.selenium.pagewidgets.coral.CoralReady;
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.WebDriverRunner;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang.StringUtils;
+import org.openqa.selenium.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Readiness engine for {@link BasePage#waitReady()}, learning per page path pattern which readiness signals
+ * actually gate the page.
+ *
+ * During the first {@value #LEARNING_SAMPLES} waits of a pattern the full signal chain is run and timed. A signal
+ * is found already satisfied when it took no longer than its own polling plus the WebDriver round-trips and page
+ * source transfers it does, as measured on that sample. A signal found already satisfied on every sample is then
+ * skipped, the others are waited with a timeout adapted to the slowest observed duration. The skipped signals are
+ * checked afterwards in one script call, each with a single sample of its condition, and any mismatch or adaptive
+ * timeout makes the pattern learn again.
+ *
+ * Enabled by setting {@value #PROFILES_FILE_PROPERTY} to the file the profiles are kept in between runs.
+ */
+public final class ReadinessProfiles {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadinessProfiles.class);
+
+    public static final String PROFILES_FILE_PROPERTY = "sel.readiness.profiles";
+    public static final int LEARNING_SAMPLES = 3;
+
+    private static final long NETWORK_POLLING_INTERVAL = 250;
+    private static final long DOM_POLLING_INTERVAL = 250;
+    // Jitter allowed above the expected duration of a signal to still consider it satisfied on arrival
+    private static final long SATISFIED_MARGIN = 100;
+    private static final long MIN_ADAPTIVE_TIMEOUT = 2000;
+    private static final int ADAPTIVE_TIMEOUT_FACTOR = 4;
+
+    private static final String JS_ROUND_TRIP = "return 0;";
+    // no resource pending nor received during the last polling interval, the user data pings aside
+    private static final String JS_NETWORK_IDLE_SAMPLE = "performance.getEntriesByType('resource').every(function (e) {"
+            + " return /\\/(pulse\\.data|token)\\.json/.test(e.name)"
+            + " || (e.responseEnd > 0 && performance.now() - e.responseEnd >= " + NETWORK_POLLING_INTERVAL + "); })";
+    private static final String JS_DOCUMENT_COMPLETE_SAMPLE = "document.readyState === 'complete'";
+    // Coral loaded and every custom element below body upgraded, what Coral.commons.ready('body') waits for
+    private static final String JS_CORAL_READY_SAMPLE = "!!(window.Coral && window.Coral.commons && window.Coral.commons.ready)"
+            + " && document.body.querySelectorAll(':not(:defined)').length === 0";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, Profile> PROFILES = new ConcurrentHashMap<>();
+    private static boolean loaded = false;
+
+    /**
+     * Readiness signals, in the order they are awaited.
+     */
+    public enum Signal {
+        // two request counts around the polling interval
+        NETWORK_IDLE(NETWORK_POLLING_INTERVAL, 2, 0, JS_NETWORK_IDLE_SAMPLE),
+        DOCUMENT_COMPLETE(0, 1, 0, JS_DOCUMENT_COMPLETE_SAMPLE),
+        // precondition, ready script and events install calls, then two page sources around the DOM polling interval
+        CORAL_READY(DOM_POLLING_INTERVAL, 3, 2, JS_CORAL_READY_SAMPLE);
+
+        private final long intrinsicDuration;
+        private final int roundTrips;
+        private final int sourceTransfers;
+        private final String sample;
+
+        Signal(final long intrinsic, final int calls, final int sources, final String condition) {
+            intrinsicDuration = intrinsic;
+            roundTrips = calls;
+            sourceTransfers = sources;
+            sample = condition;
+        }
+
+        /**
+         * @param roundTrip measured duration of a WebDriver script call.
+         * @param sourceTransfer measured duration of a page source transfer.
+         * @return the longest duration of the signal when it is already satisfied on arrival.
+         */
+        long satisfiedWithin(final long roundTrip, final long sourceTransfer) {
+            return intrinsicDuration + roundTrips * roundTrip + sourceTransfers * sourceTransfer + SATISFIED_MARGIN;
+        }
+
+        private void await(final Duration timeout) {
+            switch (this) {
+                case NETWORK_IDLE:
+                    Helpers.waitNetworkIdled(NETWORK_POLLING_INTERVAL, timeout);
+                    break;
+                case DOCUMENT_COMPLETE:
+                    Helpers.waitDocumentLoadCompleted(timeout);
+                    break;
+                default:
+                    CoralReady.waitCoralReady("body", timeout);
+            }
+        }
+    }
+
+    private ReadinessProfiles() {
+    }
+
+    /**
+     * @return true if the readiness profiles are enabled.
+     */
+    public static boolean isEnabled() {
+        return StringUtils.isNotBlank(System.getProperty(PROFILES_FILE_PROPERTY));
+    }
+
+    /**
+     * @param path page path or url.
+     * @return the pattern the path belongs to, i.e. /editor.html/* for any page in the editor.
+     */
+    public static String getPattern(final String path) {
+        String pattern = StringUtils.substringBefore(StringUtils.substringBefore(path, "?"), "#");
+        pattern = pattern.replaceFirst("^[a-z]+://[^/]+", "");
+        int html = pattern.indexOf(".html");
+        if (html > 0 && html + ".html".length() < pattern.length()) {
+            pattern = pattern.substring(0, html + ".html".length()) + "/*";
+        }
+        return pattern;
+    }
+
+    /**
+     * Wait the page at the given path is ready, learning or applying the profile of its pattern.
+     * @param path page path or url.
+     */
+    public static void waitReady(final String path) {
+        String pattern = getPattern(path);
+        Profile profile = getProfile(pattern);
+        if (profile.isLearning()) {
+            learn(pattern, profile);
+        } else if (!waitProfiled(pattern, profile)) {
+            profile.reset();
+            learn(pattern, profile);
+        }
+    }
+
+    private static void learn(final String pattern, final Profile profile) {
+        Map<Signal, Long> durations = new EnumMap<>(Signal.class);
+        for (Signal signal : Signal.values()) {
+            long start = System.currentTimeMillis();
+            signal.await(Duration.ofMillis(Configuration.timeout));
+            durations.put(signal, System.currentTimeMillis() - start);
+        }
+        // measured on the ready page, the satisfied thresholds follow the actual driver and page size
+        long start = System.currentTimeMillis();
+        Selenide.executeJavaScript(JS_ROUND_TRIP);
+        long roundTrip = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        WebDriverRunner.source();
+        long sourceTransfer = System.currentTimeMillis() - start;
+        Map<Signal, Long> thresholds = new EnumMap<>(Signal.class);
+        for (Signal signal : Signal.values()) {
+            thresholds.put(signal, signal.satisfiedWithin(roundTrip, sourceTransfer));
+        }
+        LOG.info("Readiness of {} learned from {}, satisfied within {}", pattern, durations, thresholds);
+        if (profile.record(durations, thresholds)) {
+            LOG.info("Readiness of {} gated by {}", pattern, profile.getGatingSignals());
+            save();
+        }
+    }
+
+    private static boolean waitProfiled(final String pattern, final Profile profile) {
+        Set<Signal> gating = profile.getGatingSignals();
+        try {
+            for (Signal signal : gating) {
+                signal.await(profile.getAdaptiveTimeout(signal));
+            }
+        } catch (TimeoutException e) {
+            LOG.warn("Readiness of {} slower than its profile, learning again", pattern);
+            return false;
+        }
+        if (gating.size() < Signal.values().length
+                && !Boolean.TRUE.equals(Selenide.executeJavaScript(getSkippedCheck(gating)))) {
+            LOG.warn("Readiness of {} not reached with {}, learning again", pattern, gating);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param gating the signals awaited.
+     * @return the script sampling the conditions of all the other signals at once.
+     */
+    static String getSkippedCheck(final Set<Signal> gating) {
+        return Arrays.stream(Signal.values()).filter(signal -> !gating.contains(signal)).map(signal -> signal.sample)
+            .collect(Collectors.joining(" && ", "return ", ";"));
+    }
+
+    private static synchronized Profile getProfile(final String pattern) {
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+        return PROFILES.computeIfAbsent(pattern, key -> new Profile());
+    }
+
+    private static void load() {
+        File file = new File(System.getProperty(PROFILES_FILE_PROPERTY));
+        if (file.isFile()) {
+            try {
+                PROFILES.putAll(MAPPER.readValue(file, new TypeReference<Map<String, Profile>>() { }));
+                LOG.info("Loaded {} readiness profiles from {}", PROFILES.size(), file);
+            } catch (IOException e) {
+                LOG.warn("Cannot read readiness profiles {}, learning from scratch: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private static synchronized void save() {
+        File file = new File(System.getProperty(PROFILES_FILE_PROPERTY));
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, PROFILES);
+        } catch (IOException e) {
+            LOG.warn("Cannot save readiness profiles {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Learned readiness of a page path pattern, serialized as is in the profiles file.
+     */
+    public static final class Profile {
+
+        private int samples;
+        private Map<Signal, Long> maxDurations = new EnumMap<>(Signal.class);
+        private Map<Signal, Integer> satisfiedCounts = new EnumMap<>(Signal.class);
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public void setSamples(final int value) {
+            samples = value;
+        }
+
+        public Map<Signal, Long> getMaxDurations() {
+            return maxDurations;
+        }
+
+        public void setMaxDurations(final Map<Signal, Long> value) {
+            maxDurations = new EnumMap<>(Signal.class);
+            maxDurations.putAll(value);
+        }
+
+        public Map<Signal, Integer> getSatisfiedCounts() {
+            return satisfiedCounts;
+        }
+
+        public void setSatisfiedCounts(final Map<Signal, Integer> value) {
+            satisfiedCounts = new EnumMap<>(Signal.class);
+            satisfiedCounts.putAll(value);
+        }
+
+        synchronized boolean isLearning() {
+            return samples < LEARNING_SAMPLES;
+        }
+
+        /**
+         * @param durations measured duration of each signal.
+         * @param thresholds duration up to which each signal is considered satisfied on arrival.
+         * @return true if this sample ended the learning.
+         */
+        synchronized boolean record(final Map<Signal, Long> durations, final Map<Signal, Long> thresholds) {
+            durations.forEach((signal, duration) -> {
+                maxDurations.merge(signal, duration, Math::max);
+                if (duration <= thresholds.getOrDefault(signal, signal.satisfiedWithin(0, 0))) {
+                    satisfiedCounts.merge(signal, 1, Integer::sum);
+                }
+            });
+            samples++;
+            return samples == LEARNING_SAMPLES;
+        }
+
+        synchronized void reset() {
+            samples = 0;
+            maxDurations.clear();
+            satisfiedCounts.clear();
+        }
+
+        synchronized Set<Signal> getGatingSignals() {
+            Set<Signal> gating = EnumSet.noneOf(Signal.class);
+            for (Signal signal : Signal.values()) {
+                if (satisfiedCounts.getOrDefault(signal, 0) < samples) {
+                    gating.add(signal);
+                }
+            }
+            return gating;
+        }
+
+        synchronized Duration getAdaptiveTimeout(final Signal signal) {
+            long timeout = Math.max(MIN_ADAPTIVE_TIMEOUT, maxDurations.getOrDefault(signal, 0L) * ADAPTIVE_TIMEOUT_FACTOR);
+            return Duration.ofMillis(Math.min(timeout, Configuration.timeout));
+        }
+    }
+}
@@ -17,7 +17,15 @@
 package com.adobe.cq.testing.selenium.pageobject.granite;
 
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.utils.ExpectNav;
+import com.codeborne.selenide.Selenide;
 import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.WebDriverRunner;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
 
 import static com.adobe.cq.testing.selenium.pagewidgets.Helpers.executeIfPresent;
 import static com.adobe.cq.testing.selenium.pagewidgets.granite.Collection.COLLECTION_ITEM_ID_ATTRIBUTE;
@@ -29,12 +37,23 @@ import static com.codeborne.selenide.Selenide.$;
  */
 public class StartPage extends ShellPage {
 
+    private static final Logger LOG = LoggerFactory.getLogger(StartPage.class);
+
     private static final String START_PAGE_PATH = "/aem/start.html";
 
     // Tablist action items
     private static final SelenideElement NAVIGATION_BUTTON = $("coral-tab[icon='compass']");
     private static final SelenideElement TOOLS_BUTTON = $("coral-tab[icon='hammer']");
 
+    // JS script resolving the console href of a navigation item from its resource
+    private static final String JS_NAV_ITEM_HREF = ""
+        + "var path = arguments[0] + '.json', done = arguments[arguments.length - 1];\n"
+        + "var url = window.Granite && Granite.HTTP ? Granite.HTTP.externalize(path) : path;\n"
+        + "fetch(url, { credentials: 'same-origin' })\n"
+        + "  .then(function(r) { return r.ok ? r.json() : {}; })\n"
+        + "  .then(function(item) { done(typeof item.href === 'string' && item.href.indexOf('${') < 0 ? item.href : null); })\n"
+        + "  .catch(function() { done(null); });\n";
+
     /**
      * Construct a StartPage.
      */
@@ -59,6 +78,28 @@ public class StartPage extends ShellPage {
         clickableClick($(toolItemCard.getSelector()));
     }
 
+    /**
+     * Open the console of a tool directly, its url being resolved from the navigation item.
+     * Falls back to the navigation through the start page if the url can't be resolved.
+     *
+     * @param toolItemCard the tool to open.
+     * @return the opened console page.
+     */
+    public BasePage openToolConsole(ToolItemCard toolItemCard) {
+        String href = Selenide.executeAsyncJavaScript(JS_NAV_ITEM_HREF, toolItemCard.getCollectionItemId());
+        if (StringUtils.isBlank(href)) {
+            LOG.info("Cannot resolve the console of {}, navigating through the start page", toolItemCard);
+            open();
+            clickToolsButton();
+            clickNavigationGroup(toolItemCard.getGroup());
+            ExpectNav.on(() -> clickToolItemCard(toolItemCard));
+            BasePage console = new BasePage(URI.create(WebDriverRunner.url()).getRawPath());
+            console.waitReady();
+            return console;
+        }
+        return new BasePage(href).open();
+    }
+
     public enum ToolItemCard {
         CRXDE_LITE("/mnt/overlay/cq/core/content/nav/tools/general/crxdelite", ToolsGroup.GENERAL),
         SEARCH_FORMS("/mnt/overlay/cq/core/content/nav/tools/general/customsearchfacets", ToolsGroup.GENERAL),
@@ -20,6 +20,7 @@ import com.adobe.cq.testing.client.CQClient;
 import com.adobe.cq.testing.selenium.pagewidgets.common.ActionComponent;
 import com.adobe.cq.testing.selenium.pagewidgets.common.BaseComponent;
 import com.adobe.cq.testing.selenium.pagewidgets.coral.Dialog;
+import com.adobe.cq.testing.selenium.utils.DevToolsChannel;
 import com.codeborne.selenide.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -36,6 +37,7 @@ import org.openqa.selenium.Cookie.Builder;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,6 +83,17 @@ public final class Helpers {
     + "}";
   private static final String JS_METRICS_IDLE = "return performance.getEntriesByName(arguments[0]).length";
   private static final String JS_FCP = "return performance.getEntriesByType(\"paint\").length";
+  // JS script resolving once no mutation happened under the root element during the quiet period
+  private static final String JS_DOM_QUIET = ""
+    + "var root = arguments[0] || document.body, quiet = arguments[1], deadline = Date.now() + arguments[2];"
+    + "var done = arguments[arguments.length - 1], timer = null;"
+    + "var observer = new MutationObserver(function() {"
+    + " clearTimeout(timer);"
+    + " if (Date.now() > deadline) { observer.disconnect(); done(false); } else { timer = setTimeout(finish, quiet); }"
+    + "});"
+    + "function finish() { observer.disconnect(); done(true); }"
+    + "observer.observe(root, { childList: true, subtree: true, attributes: true, characterData: true });"
+    + "timer = setTimeout(finish, quiet);";
   private static final String CK_AFFINITY = "affinity";
   private static final String CK_SUDO = "sling.sudo";
   private static final String US_AEM_FRAME = "Main Content";
@@ -229,6 +242,7 @@ public final class Helpers {
    * @return The provided dialog when it was opened by button click
    */
   public static <T extends Dialog> T clickDialogAction(SelenideElement button, T dialog) {
+    dialog.expectOpen();
     clickableClick(button);
     dialog.waitVisible();
     return (T) dialog;
@@ -369,11 +383,30 @@ public final class Helpers {
 
   /**
    * Await that all open network connections are completed within consecutive polling interval.
+   * Relies on the pushed Network events when a {@link DevToolsChannel} is opened for the session.
    * @param pollingInterval polling interval for idle detection.
    */
   public static void waitNetworkIdled(final long pollingInterval) {
-    LOG.info("waitNetworkIdled with polling interval={}ms", pollingInterval);
-    Wait().until(webdriver -> assertNetworkIdled(pollingInterval));
+    waitNetworkIdled(pollingInterval, Duration.ofMillis(Configuration.timeout));
+  }
+
+  /**
+   * Same as {@link #waitNetworkIdled(long)} with a specific timeout.
+   * @param pollingInterval polling interval for idle detection.
+   * @param timeout maximum time to wait.
+   * @throws TimeoutException if the network didn't idle within the timeout.
+   */
+  public static void waitNetworkIdled(final long pollingInterval, final Duration timeout) {
+    Optional<DevToolsChannel> channel = DevToolsChannel.current();
+    if (channel.isPresent()) {
+      // the events are authoritative, polling after a timeout would only wait as long again
+      if (!channel.get().waitNetworkIdled(pollingInterval, timeout)) {
+        throw new TimeoutException("Network not idled within " + timeout);
+      }
+      return;
+    }
+    LOG.info("waitNetworkIdled with polling interval={}ms, timeout={}", pollingInterval, timeout);
+    Wait().withTimeout(timeout).until(webdriver -> assertNetworkIdled(pollingInterval));
   }
   
   /**
@@ -384,13 +417,44 @@ public final class Helpers {
 	Wait().until(driver -> ((JavascriptExecutor) driver).executeScript("return document.readyState").equals("complete"));
   }
 
+  /**
+   * Same as {@link #waitDocumentLoadCompleted()} with a specific timeout.
+   * @param timeout maximum time to wait.
+   */
+  public static void waitDocumentLoadCompleted(final Duration timeout) {
+    LOG.info("waitDocumentLoadCompleted with timeout={}", timeout);
+    Wait().withTimeout(timeout)
+      .until(driver -> ((JavascriptExecutor) driver).executeScript("return document.readyState").equals("complete"));
+  }
+
   /**
    * Await that page source (DOM) isn't changed within consecutive polling interval.
    * @param pollingInterval polling interval for idle detection.
    */
   public static void waitDOMIdled(final long pollingInterval) {
-    LOG.info("waitDOMIdled with polling interval={}ms", pollingInterval);
-    Wait().until(webdriver -> assertDOMIdled(pollingInterval));
+    waitDOMIdled(pollingInterval, Duration.ofMillis(Configuration.timeout));
+  }
+
+  /**
+   * Same as {@link #waitDOMIdled(long)} with a specific timeout.
+   * @param pollingInterval polling interval for idle detection.
+   * @param timeout maximum time to wait.
+   */
+  public static void waitDOMIdled(final long pollingInterval, final Duration timeout) {
+    LOG.info("waitDOMIdled with polling interval={}ms, timeout={}", pollingInterval, timeout);
+    Wait().withTimeout(timeout).until(webdriver -> assertDOMIdled(pollingInterval));
+  }
+
+  /**
+   * Await that no DOM mutation happens under the element during the quiet period, observed in the browser.
+   * Unlike {@link #waitDOMIdled(long)} it doesn't transfer the page source and returns as soon as the period elapsed.
+   * @param element root of the observed subtree, null for the document body.
+   * @param quietPeriod period in milliseconds without mutation.
+   * @return true if the DOM got quiet before {@link com.adobe.cq.testing.selenium.Constants#DEFAULT_WAIT_TIME}.
+   */
+  public static boolean waitDOMQuiet(final SelenideElement element, final long quietPeriod) {
+    LOG.info("waitDOMQuiet with quiet period={}ms", quietPeriod);
+    return Boolean.TRUE.equals(Selenide.executeAsyncJavaScript(JS_DOM_QUIET, element, quietPeriod, DEFAULT_WAIT_TIME));
   }
 
   /**
@@ -418,8 +482,10 @@ public final class Helpers {
         Cookie newCookie = new Builder(CK_AFFINITY, affinity).domain(existingCookie.getDomain())
                 .expiresOn(existingCookie.getExpiry()).isHttpOnly(existingCookie.isHttpOnly())
                 .isSecure(existingCookie.isSecure()).path(existingCookie.getPath()).build();
-        WebDriverRunner.getWebDriver().manage().deleteCookieNamed(CK_AFFINITY);
-        WebDriverRunner.getWebDriver().manage().addCookie(newCookie);
+        if (!setCookieOnChannel(newCookie)) {
+          WebDriverRunner.getWebDriver().manage().deleteCookieNamed(CK_AFFINITY);
+          WebDriverRunner.getWebDriver().manage().addCookie(newCookie);
+        }
         LOG.info("Setting browser affinity cookie with value {}", newCookie.getValue());
       }
     }
@@ -448,11 +514,20 @@ public final class Helpers {
       Cookie newCookie = new Builder(CK_SUDO, impUser).domain(existingCookie.getDomain())
               .expiresOn(existingCookie.getExpiry()).isHttpOnly(existingCookie.isHttpOnly())
               .isSecure(existingCookie.isSecure()).path(existingCookie.getPath()).build();
-      WebDriverRunner.getWebDriver().manage().addCookie(newCookie);
+      if (!setCookieOnChannel(newCookie)) {
+        WebDriverRunner.getWebDriver().manage().addCookie(newCookie);
+      }
       LOG.info("Setting browser impersonate cookie with value {}", newCookie.getValue());
     }
   }
 
+  // the DevTools channel sets the cookie in the browser store in one call, replacing the one with the same name
+  private static boolean setCookieOnChannel(final Cookie cookie) {
+    Optional<DevToolsChannel> channel = DevToolsChannel.current();
+    channel.ifPresent(c -> c.setCookies(WebDriverRunner.url(), Collections.singletonList(cookie)));
+    return channel.isPresent();
+  }
+
   public static void removeImpersonateCookie() {
     WebDriverRunner.getWebDriver().manage().deleteCookieNamed(CK_SUDO);
   }
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.pagewidgets.coral;
+
+import com.codeborne.selenide.Selenide;
+import org.openqa.selenium.JavascriptException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bridge between Coral / Granite events fired in the browser and the test code.
+ *
+ * Listeners are installed once per document and buffer the events with a sequence number and a timestamp,
+ * so that waiting for an event is a single async script call instead of polling the element state.
+ * The bridge is installed by {@link CoralReady#waitCoralReady(String)} and lazily by any of the methods below.
+ */
+public final class CoralEvents {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoralEvents.class);
+
+    public static final String OVERLAY_OPEN = "coral-overlay:open";
+    public static final String OVERLAY_CLOSE = "coral-overlay:close";
+    public static final String SELECT_SHOWITEMS = "coral-select:showitems";
+    public static final String COLLECTION_ADD = "coral-collection:add";
+    public static final String COLLECTION_REMOVE = "coral-collection:remove";
+    public static final String FOUNDATION_CONTENTLOADED = "foundation-contentloaded";
+
+    /**
+     * Marker to consider all the events buffered since the bridge installation.
+     */
+    public static final long ANY = 0;
+
+    /**
+     * Marker of a component for which no {@link #mark()} was taken before the action, its events can't be trusted.
+     */
+    public static final long UNMARKED = -1;
+
+    private static final String[] EVENT_TYPES = new String[] {
+        OVERLAY_OPEN, OVERLAY_CLOSE, SELECT_SHOWITEMS, COLLECTION_ADD, COLLECTION_REMOVE, FOUNDATION_CONTENTLOADED
+    };
+
+    private static final int MAX_BUFFERED_EVENTS = 500;
+
+    // JS script installing the listeners once, foundation-* events are jQuery triggered so need a jQuery listener
+    private static final String JS_INSTALL = ""
+        + "(function(types, max) {\n"
+        + "  if (window.__itEventBridge) { return; }\n"
+        + "  var bridge = window.__itEventBridge = { seq: 0, queue: [], waiters: [] };\n"
+        + "  bridge.matches = function(entry, type, since, selector) {\n"
+        + "    if (entry.seq <= since || (type && entry.type !== type)) { return false; }\n"
+        + "    return !selector || (entry.target && entry.target.matches && entry.target.matches(selector));\n"
+        + "  };\n"
+        + "  bridge.describe = function(entry) {\n"
+        + "    var t = entry.target || {};\n"
+        + "    return { seq: entry.seq, type: entry.type, time: entry.time,\n"
+        + "      tagName: t.tagName ? t.tagName.toLowerCase() : null, id: t.id || null };\n"
+        + "  };\n"
+        + "  bridge.record = function(e) {\n"
+        + "    var entry = { seq: ++bridge.seq, type: e.type, time: Date.now(), target: e.target };\n"
+        + "    bridge.queue.push(entry);\n"
+        + "    if (bridge.queue.length > max) { bridge.queue.shift(); }\n"
+        + "    bridge.waiters = bridge.waiters.filter(function(w) { return !w(entry); });\n"
+        + "  };\n"
+        + "  types.forEach(function(type) {\n"
+        + "    if (type.indexOf('foundation-') === 0 && window.jQuery) {\n"
+        + "      window.jQuery(document).on(type, bridge.record);\n"
+        + "    } else {\n"
+        + "      document.addEventListener(type, bridge.record, true);\n"
+        + "    }\n"
+        + "  });\n"
+        + "})([" + Stream.of(EVENT_TYPES).map(t -> "'" + t + "'").collect(Collectors.joining(",")) + "], "
+        + MAX_BUFFERED_EVENTS + ");\n";
+
+    private static final String JS_MARK = JS_INSTALL + "return window.__itEventBridge.seq;";
+
+    private static final String JS_DRAIN = JS_INSTALL
+        + "var since = arguments[0], bridge = window.__itEventBridge;\n"
+        + "return bridge.queue.filter(function(e) { return e.seq > since; }).map(bridge.describe);";
+
+    private static final String JS_AWAIT = JS_INSTALL
+        + "var type = arguments[0], since = arguments[1], selector = arguments[2], timeout = arguments[3];\n"
+        + "var acceptRendered = arguments[4];\n"
+        + "var done = arguments[arguments.length - 1], bridge = window.__itEventBridge, timer = null;\n"
+        + "try {\n"
+        + "  var found = bridge.queue.filter(function(e) { return bridge.matches(e, type, since, selector); });\n"
+        + "  if (found.length > 0) { done(bridge.describe(found[found.length - 1])); return; }\n"
+        + "  var current = acceptRendered && selector ? document.querySelector(selector) : null;\n"
+        + "  if (current && current.getClientRects().length > 0) {\n"
+        + "    done(bridge.describe({ seq: bridge.seq, type: type, time: Date.now(), target: current })); return;\n"
+        + "  }\n"
+        + "} catch (err) {\n"
+        + "  done({ error: String(err) }); return;\n"
+        + "}\n"
+        + "var waiter = function(entry) {\n"
+        + "  var matched = false;\n"
+        + "  try { matched = bridge.matches(entry, type, since, selector); } catch (err) { matched = false; }\n"
+        + "  if (matched) { clearTimeout(timer); done(bridge.describe(entry)); }\n"
+        + "  return matched;\n"
+        + "};\n"
+        + "bridge.waiters.push(waiter);\n"
+        + "timer = setTimeout(function() {\n"
+        + "  bridge.waiters = bridge.waiters.filter(function(w) { return w !== waiter; });\n"
+        + "  done(null);\n"
+        + "}, timeout);\n";
+
+    private CoralEvents() {
+    }
+
+    /**
+     * Install the listeners in the current document if not yet done.
+     */
+    public static void install() {
+        mark();
+    }
+
+    /**
+     * @return the sequence number of the latest buffered event, to be used as marker for {@link #await} or {@link #drain}.
+     */
+    public static long mark() {
+        Object seq = Selenide.executeJavaScript(JS_MARK);
+        return seq instanceof Number ? ((Number) seq).longValue() : ANY;
+    }
+
+    /**
+     * @param since marker returned by {@link #mark()}, or {@link #ANY}.
+     * @return all the events buffered after the marker.
+     */
+    public static List<Event> drain(final long since) {
+        List<Map<String, Object>> entries = Selenide.executeJavaScript(JS_DRAIN, since);
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        List<Event> events = new ArrayList<>();
+        entries.forEach(entry -> events.add(new Event(entry)));
+        return events;
+    }
+
+    /**
+     * Wait for an event in one async script call, the event can be already buffered or fired later on.
+     *
+     * @param type event type, i.e. {@link #OVERLAY_OPEN}.
+     * @param since marker returned by {@link #mark()}, or {@link #ANY}.
+     * @param selector optional CSS selector the event target should match, null for any target.
+     * @param timeout timeout in milliseconds.
+     * @return the matching event or null if none before the timeout (or if the selector is invalid).
+     */
+    public static Event await(final String type, final long since, final String selector, final long timeout) {
+        return await(type, since, selector, timeout, false);
+    }
+
+    /**
+     * Wait for an event in one async script call, the event can be already buffered or fired later on.
+     * When acceptRendered is set, an already rendered element matching the selector is considered as the expected
+     * state being reached. Only use it when no {@link #mark()} was taken before the action (i.e. a dialog opened
+     * before the bridge was installed), as it can't tell an element rendered before the action from a new one.
+     *
+     * @param type event type, i.e. {@link #OVERLAY_OPEN}.
+     * @param since marker returned by {@link #mark()}, or {@link #ANY}.
+     * @param selector optional CSS selector the event target should match, null for any target.
+     * @param timeout timeout in milliseconds.
+     * @param acceptRendered true to accept an already rendered element matching the selector.
+     * @return the matching event or null if none before the timeout (or if the selector is invalid).
+     */
+    public static Event await(final String type, final long since, final String selector, final long timeout,
+                              final boolean acceptRendered) {
+        Event event = null;
+        try {
+            Map<String, Object> entry = Selenide.executeAsyncJavaScript(JS_AWAIT, type, since, selector, timeout,
+                acceptRendered);
+            if (entry != null && entry.containsKey("error")) {
+                LOG.info("Cannot await {} on {} due to {}", type, selector, entry.get("error"));
+            } else if (entry != null) {
+                event = new Event(entry);
+            }
+        } catch (JavascriptException e) {
+            LOG.warn("Cannot await {} due to {}", type, e.getMessage());
+        }
+        if (event == null) {
+            LOG.info("No {} event received for {} within {}ms", type, selector, timeout);
+        }
+        return event;
+    }
+
+    /**
+     * Coral / Granite event as buffered by the bridge.
+     */
+    public static final class Event {
+
+        private final long seq;
+        private final String type;
+        private final long time;
+        private final String tagName;
+        private final String id;
+
+        private Event(final Map<String, Object> entry) {
+            seq = toLong(entry.get("seq"));
+            type = (String) entry.get("type");
+            time = toLong(entry.get("time"));
+            tagName = (String) entry.get("tagName");
+            id = (String) entry.get("id");
+        }
+
+        private static long toLong(final Object value) {
+            return value instanceof Number ? ((Number) value).longValue() : 0;
+        }
+
+        /**
+         * @return the sequence number, usable as marker.
+         */
+        public long getSeq() {
+            return seq;
+        }
+
+        /**
+         * @return the event type.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return browser timestamp (epoch millisec) when the event was dispatched.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * @return lower cased tag name of the event target.
+         */
+        public String getTagName() {
+            return tagName;
+        }
+
+        /**
+         * @return id of the event target, null if none.
+         */
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s#%d on %s%s", type, seq, tagName, id != null ? "#" + id : "");
+        }
+    }
+}
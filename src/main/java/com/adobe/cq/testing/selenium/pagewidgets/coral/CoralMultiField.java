@@ -18,6 +18,7 @@
 package com.adobe.cq.testing.selenium.pagewidgets.coral;
 
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.utils.ActionCompletion;
 import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
 
@@ -25,14 +26,14 @@ import java.util.stream.Stream;
 
 import static com.adobe.cq.testing.selenium.utils.ElementUtils.clickableClick;
 import static com.codeborne.selenide.Selenide.actions;
-import static com.codeborne.selenide.Selenide.sleep;
 
 public class CoralMultiField extends  AEMBaseComponent {
 
   private static final String SELECTOR_PATTERN = "coral-multifield[data-granite-coral-multifield-name=\"%s\"]";
-  private static final int SMALL_DELAY = 250;
+  private static final String SELECTOR_ITEM = "coral-multifield-item";
 
   private SelenideElement addButton;
+  private ActionCompletion addCompletion;
 
   /**
    * @param name field name.
@@ -40,6 +41,7 @@ public class CoralMultiField extends  AEMBaseComponent {
   public CoralMultiField(final String name) {
     super(String.format(SELECTOR_PATTERN, name));
     addButton = element().$("button[coral-multifield-add]");
+    addCompletion = ActionCompletion.sizeChange(element().$$(SELECTOR_ITEM));
   }
   
   /**
@@ -48,6 +50,16 @@ public class CoralMultiField extends  AEMBaseComponent {
   public CoralMultiField(final SelenideElement parent) {
     super(parent);
     addButton = element().$("button[coral-multifield-add]");
+    addCompletion = ActionCompletion.sizeChange(element().$$(SELECTOR_ITEM));
+  }
+
+  /**
+   * @param completion how to detect an item was added, defaults to a change of the number of items.
+   * @return itself.
+   */
+  public CoralMultiField withAddCompletion(final ActionCompletion completion) {
+    addCompletion = completion;
+    return this;
   }
 
   /**
@@ -55,8 +67,7 @@ public class CoralMultiField extends  AEMBaseComponent {
    * @return added element.
    */
   public MultiFieldItem add() {
-    clickableClick(addButton);
-    sleep(SMALL_DELAY);
+    clickableClick(addButton, addCompletion);
     return items().reduce((first, second) -> second).orElse(null);
   }
 
@@ -64,7 +75,7 @@ public class CoralMultiField extends  AEMBaseComponent {
    * @return list of coral-multifield-item
    */
   public Stream<MultiFieldItem> items() {
-    ElementsCollection items = element().$$("coral-multifield-item");
+    ElementsCollection items = element().$$(SELECTOR_ITEM);
     return items.stream().map(i -> new MultiFieldItem(i));
   }
 
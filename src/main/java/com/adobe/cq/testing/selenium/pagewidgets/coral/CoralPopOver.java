@@ -17,16 +17,22 @@
 package com.adobe.cq.testing.selenium.pagewidgets.coral;
 
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.pagewidgets.common.BaseComponent;
+import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
 
 import java.util.stream.Stream;
 
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
+import static com.adobe.cq.testing.selenium.utils.ElementUtils.waitStable;
 import static com.codeborne.selenide.Selenide.$$;
 
 public final class CoralPopOver extends AEMBaseComponent {
 
     public static final String CORAL_POPOVER_IS_OPEN = "coral-popover.is-open";
 
+    private long openMarker = CoralEvents.UNMARKED;
+
     /**
      * Construct CoralPopOver wrapper for selector.
      * @param selector the selector to find the element to wrap it on.
@@ -43,6 +49,36 @@ public final class CoralPopOver extends AEMBaseComponent {
         super(element);
     }
 
+    /**
+     * Mark the buffered events, to be called before the action opening this popover.
+     * @return itself.
+     */
+    public CoralPopOver expectOpen() {
+        openMarker = CoralEvents.mark();
+        return this;
+    }
+
+    /**
+     * Wait on the coral-overlay:open event for this popover fired after {@link #expectOpen()},
+     * or if not marked for an already open one, fallback to polling if not received.
+     * @param <T> Component extending {@link BaseComponent}
+     * @return Instance of Current Component
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public <T extends BaseComponent> T waitVisible() {
+        final long marker = openMarker;
+        openMarker = CoralEvents.UNMARKED;
+        final boolean unmarked = marker == CoralEvents.UNMARKED;
+        if (CoralEvents.await(CoralEvents.OVERLAY_OPEN, unmarked ? CoralEvents.ANY : marker, getCssSelector(),
+                DEFAULT_WAIT_TIME, unmarked) == null) {
+            return super.waitVisible();
+        }
+        waitStable(element());
+        element().shouldBe(Condition.visible);
+        return (T) this;
+    }
+
     /**
      * @return a stream with all the coral popover currently opened.
      */
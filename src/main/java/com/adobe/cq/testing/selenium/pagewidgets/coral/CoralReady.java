@@ -17,10 +17,13 @@
 package com.adobe.cq.testing.selenium.pagewidgets.coral;
 
 import com.adobe.cq.testing.selenium.pagewidgets.Helpers;
+import com.codeborne.selenide.Configuration;
 import com.codeborne.selenide.Selenide;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+
 import static com.codeborne.selenide.Selenide.Wait;
 import static com.codeborne.selenide.Selenide.open;
 
@@ -55,11 +58,16 @@ public final class CoralReady {
     }
 
     public static void waitCoralReady(final String selector) {
+        waitCoralReady(selector, Duration.ofMillis(Configuration.timeout));
+    }
+
+    public static void waitCoralReady(final String selector, final Duration timeout) {
         LOG.info("waitCoralReady({})", selector);
-        Wait().until(webdriver -> CoralReady.assertCoralReadyCondition());
+        Wait().withTimeout(timeout).until(webdriver -> CoralReady.assertCoralReadyCondition());
         LOG.debug("CoralReady Precondition checked");
         Selenide.executeAsyncJavaScript(String.format(JS_CORAL_READY_SCRIPT, JS_CORAL_READY_CONDITION, selector));
         LOG.debug("CoralReady checked");
-        Helpers.waitDOMIdled(DOM_POLLING_INTERVAL);
+        Helpers.waitDOMIdled(DOM_POLLING_INTERVAL, timeout);
+        CoralEvents.install();
     }
 }
@@ -20,15 +20,22 @@ import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
 import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.ex.UIAssertionError;
 
+import java.time.Duration;
 import java.util.concurrent.TimeoutException;
 
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
 import static com.adobe.cq.testing.selenium.utils.ElementUtils.clickUntil;
+import static com.adobe.cq.testing.selenium.utils.ElementUtils.clickableClick;
 
 public final class CoralSelect extends AEMBaseComponent {
 
     private static final String SELECTOR_ITEM_ELEMENT = "coral-select-item";
     private static final String SELECTOR_BUTTON = "button";
+    private static final String SELECTOR_POPOVER = "coral-popover.is-open[focusonshow=\"coral-selectlist\"]";
+    // the popover may be opened without the event being seen, i.e. bridge installed in between
+    private static final Duration POPOVER_VISIBLE_TIMEOUT = Duration.ofMillis(500);
 
     /**
      * @param attribute the attribute value for this select.
@@ -60,11 +67,18 @@ public final class CoralSelect extends AEMBaseComponent {
     }
 
     /**
-     * Clicks the button to open the CoralSelectList
+     * Clicks the button to open the CoralSelectList, waiting on the coral-overlay:open event.
+     * Falls back to click until the popover is visible if the event is not received.
      */
     private void beforeSelect() {
         SelenideElement activeButton = element().find(SELECTOR_BUTTON);
         CoralPopOver popOver = popover();
+        final long marker = CoralEvents.mark();
+        clickableClick(activeButton);
+        if (CoralEvents.await(CoralEvents.OVERLAY_OPEN, marker, SELECTOR_POPOVER, DEFAULT_WAIT_TIME) != null
+                || isVisibleWithin(popOver.element(), POPOVER_VISIBLE_TIMEOUT)) {
+            return;
+        }
         try {
             clickUntil(activeButton, popOver.element(), Condition.visible, 10, 500);
         } catch (TimeoutException e) {
@@ -72,6 +86,15 @@ public final class CoralSelect extends AEMBaseComponent {
         }
     }
 
+    private static boolean isVisibleWithin(final SelenideElement element, final Duration timeout) {
+        try {
+            element.shouldBe(Condition.visible, timeout);
+            return true;
+        } catch (UIAssertionError e) {
+            return false;
+        }
+    }
+
     /**
      * Clicks an item by it's index.
      *
@@ -132,7 +155,7 @@ public final class CoralSelect extends AEMBaseComponent {
      * @return currently opened popover for selection.
      */
     public CoralPopOver popover() {
-        return new CoralPopOver("coral-popover.is-open[focusonshow=\"coral-selectlist\"]");
+        return new CoralPopOver(SELECTOR_POPOVER);
     }
 
     public CoralSelectList selectList() {
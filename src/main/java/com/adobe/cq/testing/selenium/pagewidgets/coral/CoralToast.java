@@ -18,10 +18,17 @@
 package com.adobe.cq.testing.selenium.pagewidgets.coral;
 
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.pagewidgets.common.BaseComponent;
+import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
 
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
+
 public class CoralToast extends AEMBaseComponent {
 
+  private static final long VANISH_TIMEOUT = 3 * DEFAULT_WAIT_TIME;
+
+  private long openMarker = CoralEvents.UNMARKED;
 
   /**
    * Construct the coral-toast object.
@@ -37,4 +44,50 @@ public class CoralToast extends AEMBaseComponent {
     return element().$("coral-toast-content");
   }
 
+  /**
+   * Mark the buffered events, to be called before the action displaying the toast.
+   * @param <T> type of CoralToast
+   * @return Instance of current {@link CoralToast}
+   */
+  @SuppressWarnings({"unchecked"})
+  public <T extends CoralToast> T expectOpen() {
+    openMarker = CoralEvents.mark();
+    return (T) this;
+  }
+
+  /**
+   * Wait on the coral-overlay:open event for the toast fired after {@link #expectOpen()},
+   * or if not marked for an already open one, fallback to polling if not received.
+   * @param <T> Component extending {@link BaseComponent}
+   * @return Instance of Current Component
+   */
+  @Override
+  @SuppressWarnings({"unchecked"})
+  public <T extends BaseComponent> T waitVisible() {
+    final long marker = openMarker;
+    openMarker = CoralEvents.UNMARKED;
+    final boolean unmarked = marker == CoralEvents.UNMARKED;
+    if (CoralEvents.await(CoralEvents.OVERLAY_OPEN, unmarked ? CoralEvents.ANY : marker, getCssSelector(),
+        DEFAULT_WAIT_TIME, unmarked) == null) {
+      return super.waitVisible();
+    }
+    element().shouldBe(Condition.visible);
+    return (T) this;
+  }
+
+  /**
+   * Wait on the coral-overlay:close event for the toast, fallback to polling if not received.
+   * @param <T> Component extending {@link BaseComponent}
+   * @return Instance of Current Component
+   */
+  @Override
+  @SuppressWarnings({"unchecked"})
+  public <T extends BaseComponent> T waitVanish() {
+    final long marker = CoralEvents.mark();
+    if (element().isDisplayed()) {
+      CoralEvents.await(CoralEvents.OVERLAY_CLOSE, marker, getCssSelector(), VANISH_TIMEOUT);
+    }
+    return super.waitVanish();
+  }
+
 }
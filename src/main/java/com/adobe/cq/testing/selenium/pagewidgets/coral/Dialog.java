@@ -17,15 +17,21 @@
 package com.adobe.cq.testing.selenium.pagewidgets.coral;
 
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.pagewidgets.common.BaseComponent;
+import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
 
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
 import static com.adobe.cq.testing.selenium.pagewidgets.coral.VariantAccessor.VariantType.*;
+import static com.adobe.cq.testing.selenium.utils.ElementUtils.waitStable;
 import static com.codeborne.selenide.Selenide.$;
 
 public class Dialog extends AEMBaseComponent {
 
     protected VariantAccessor variantAccessor;
 
+    private long openMarker = CoralEvents.UNMARKED;
+
     /**
      * Constructor for default coral dialog.
      */
@@ -51,6 +57,38 @@ public class Dialog extends AEMBaseComponent {
         variantAccessor = adaptTo(VariantAccessor.class);
     }
 
+    /**
+     * Mark the buffered events, to be called before the action opening this dialog.
+     * @param <T> type of Dialog
+     * @return Instance of current {@link Dialog}
+     */
+    @SuppressWarnings({"unchecked"})
+    public <T extends Dialog> T expectOpen() {
+        openMarker = CoralEvents.mark();
+        return (T) this;
+    }
+
+    /**
+     * Wait on the coral-overlay:open event for this dialog fired after {@link #expectOpen()},
+     * or if not marked for an already open one, fallback to polling if not received.
+     * @param <T> Component extending {@link BaseComponent}
+     * @return Instance of Current Component
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public <T extends BaseComponent> T waitVisible() {
+        final long marker = openMarker;
+        openMarker = CoralEvents.UNMARKED;
+        final boolean unmarked = marker == CoralEvents.UNMARKED;
+        if (CoralEvents.await(CoralEvents.OVERLAY_OPEN, unmarked ? CoralEvents.ANY : marker, getCssSelector(),
+                DEFAULT_WAIT_TIME, unmarked) == null) {
+            return super.waitVisible();
+        }
+        waitStable(element());
+        element().shouldBe(Condition.visible);
+        return (T) this;
+    }
+
     /**
      * @return the title for this dialog.
      */
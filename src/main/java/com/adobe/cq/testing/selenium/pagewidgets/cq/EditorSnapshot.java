@@ -0,0 +1,263 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.pagewidgets.cq;
+
+import com.codeborne.selenide.Selenide;
+import org.openqa.selenium.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot of the editables of the page editor, taken in one script call.
+ *
+ * For each editable or inspectable overlay it holds the path, type, selection state, overlay rectangle and data
+ * attributes, merged with the matching cq element of the content frame and the resource type known by the editor.
+ * The snapshot is not refreshed, take a new one after any interaction.
+ */
+public final class EditorSnapshot {
+
+    public static final String TYPE_EDITABLE = "Editable";
+    public static final String TYPE_INSPECTABLE = "Inspectable";
+
+    // JS script collecting the overlays and the content frame cq elements, merged by path
+    private static final String JS_SNAPSHOT = ""
+        + "var overlayWrapper = document.querySelector(arguments[0]), frame = document.querySelector(arguments[1]);\n"
+        + "var ns = window.Granite && window.Granite.author, result = {}, order = [];\n"
+        + "function data(el) { var d = {}; Object.keys(el.dataset).forEach(function(k) { d[k] = el.dataset[k]; }); return d; }\n"
+        + "function rect(el) { var r = el.getBoundingClientRect(); return [r.left, r.top, r.width, r.height]; }\n"
+        + "function entry(path) {\n"
+        + "  if (!result[path]) { result[path] = { path: path }; order.push(path); }\n"
+        + "  return result[path];\n"
+        + "}\n"
+        + "if (overlayWrapper) {\n"
+        + "  overlayWrapper.querySelectorAll('[data-type][data-path]').forEach(function(el) {\n"
+        + "    var e = entry(el.dataset.path);\n"
+        + "    e.type = el.dataset.type; e.selected = el.classList.contains('is-selected');\n"
+        + "    e.rect = rect(el); e.data = data(el);\n"
+        + "  });\n"
+        + "}\n"
+        + "var doc = null;\n"
+        + "try { doc = frame && frame.contentDocument; } catch (err) { doc = null; }\n"
+        + "if (doc) {\n"
+        + "  doc.querySelectorAll('cq[data-path]').forEach(function(el) {\n"
+        + "    var e = entry(el.dataset.path), target = el.parentElement;\n"
+        + "    e.content = data(el); e.contentRect = target ? rect(target) : null;\n"
+        + "  });\n"
+        + "}\n"
+        + "if (ns && ns.editables && ns.editables.find) {\n"
+        + "  order.forEach(function(path) {\n"
+        + "    var editable = ns.editables.find(path)[0];\n"
+        + "    if (editable) { result[path].resourceType = editable.type || null; }\n"
+        + "  });\n"
+        + "}\n"
+        + "return order.map(function(path) { return result[path]; });\n";
+
+    private final List<Editable> editables;
+
+    private EditorSnapshot(final List<Editable> items) {
+        editables = Collections.unmodifiableList(items);
+    }
+
+    /**
+     * @param overlayWrapperSelector selector of the overlay wrapper.
+     * @param contentFrameSelector selector of the content frame.
+     * @return a snapshot of the current editor state.
+     */
+    public static EditorSnapshot take(final String overlayWrapperSelector, final String contentFrameSelector) {
+        List<Map<String, Object>> entries = Selenide.executeJavaScript(JS_SNAPSHOT, overlayWrapperSelector, contentFrameSelector);
+        List<Editable> items = new ArrayList<>();
+        if (entries != null) {
+            entries.forEach(entry -> items.add(new Editable(entry)));
+        }
+        return new EditorSnapshot(items);
+    }
+
+    /**
+     * @return all the items, in the overlay order.
+     */
+    public List<Editable> getAll() {
+        return editables;
+    }
+
+    /**
+     * @return the editable overlays.
+     */
+    public List<Editable> getEditables() {
+        return ofType(TYPE_EDITABLE);
+    }
+
+    /**
+     * @return the inspectable overlays.
+     */
+    public List<Editable> getInspectables() {
+        return ofType(TYPE_INSPECTABLE);
+    }
+
+    private List<Editable> ofType(final String type) {
+        return editables.stream().filter(e -> type.equals(e.getType())).collect(Collectors.toList());
+    }
+
+    /**
+     * @param path resource path.
+     * @return the item at this path, if any.
+     */
+    public Optional<Editable> get(final String path) {
+        return editables.stream().filter(e -> path.equals(e.getPath())).findFirst();
+    }
+
+    /**
+     * @return the selected overlays.
+     */
+    public List<Editable> getSelected() {
+        return editables.stream().filter(Editable::isSelected).collect(Collectors.toList());
+    }
+
+    /**
+     * @param resourceType the component resource type.
+     * @return the items of this resource type.
+     */
+    public List<Editable> getByResourceType(final String resourceType) {
+        return editables.stream().filter(e -> resourceType.equals(e.getResourceType())).collect(Collectors.toList());
+    }
+
+    /**
+     * Editable as seen on the overlay and in the content frame.
+     */
+    public static final class Editable {
+
+        private final String path;
+        private final String type;
+        private final String resourceType;
+        private final boolean selected;
+        private final Rectangle overlayRect;
+        private final Rectangle contentRect;
+        private final Map<String, String> overlayData;
+        private final Map<String, String> contentData;
+
+        private Editable(final Map<String, Object> entry) {
+            path = (String) entry.get("path");
+            type = (String) entry.get("type");
+            resourceType = (String) entry.get("resourceType");
+            selected = Boolean.TRUE.equals(entry.get("selected"));
+            overlayRect = toRectangle(entry.get("rect"));
+            contentRect = toRectangle(entry.get("contentRect"));
+            overlayData = toData(entry.get("data"));
+            contentData = toData(entry.get("content"));
+        }
+
+        private static Rectangle toRectangle(final Object value) {
+            if (!(value instanceof List)) {
+                return null;
+            }
+            List<?> r = (List<?>) value;
+            return new Rectangle(toInt(r.get(0)), toInt(r.get(1)), toInt(r.get(3)), toInt(r.get(2)));
+        }
+
+        private static int toInt(final Object value) {
+            return value instanceof Number ? (int) Math.round(((Number) value).doubleValue()) : 0;
+        }
+
+        private static Map<String, String> toData(final Object value) {
+            Map<String, String> data = new LinkedHashMap<>();
+            if (value instanceof Map) {
+                ((Map<?, ?>) value).forEach((k, v) -> data.put(String.valueOf(k), v != null ? String.valueOf(v) : null));
+            }
+            return Collections.unmodifiableMap(data);
+        }
+
+        /**
+         * @return the resource path.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the overlay type, {@link #TYPE_EDITABLE} or {@link #TYPE_INSPECTABLE}, null if no overlay.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the component resource type as known by the editor, null if unknown.
+         */
+        public String getResourceType() {
+            return resourceType;
+        }
+
+        /**
+         * @return true if the overlay is selected.
+         */
+        public boolean isSelected() {
+            return selected;
+        }
+
+        /**
+         * @return true if an overlay is rendered for this path.
+         */
+        public boolean hasOverlay() {
+            return type != null;
+        }
+
+        /**
+         * @return true if the content frame has a cq element for this path.
+         */
+        public boolean isInContentFrame() {
+            return contentRect != null || !contentData.isEmpty();
+        }
+
+        /**
+         * @return the overlay rectangle, null if no overlay.
+         */
+        public Rectangle getOverlayRect() {
+            return overlayRect;
+        }
+
+        /**
+         * @return the rectangle of the component element in the content frame, null if none.
+         */
+        public Rectangle getContentRect() {
+            return contentRect;
+        }
+
+        /**
+         * @return the overlay data attributes, camel cased (i.e. path, type, text).
+         */
+        public Map<String, String> getOverlayData() {
+            return overlayData;
+        }
+
+        /**
+         * @return the content frame cq element data attributes, camel cased (i.e. path, config).
+         */
+        public Map<String, String> getContentData() {
+            return contentData;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s]%s", type, path, selected ? " selected" : "");
+        }
+    }
+}
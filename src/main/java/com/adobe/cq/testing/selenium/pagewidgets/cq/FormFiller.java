@@ -0,0 +1,234 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.pagewidgets.cq;
+
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.SelenideElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.codeborne.selenide.Selenide.$;
+
+/**
+ * Fill many form fields at once (i.e. page properties or a policy dialog).
+ *
+ * Field types are resolved in the browser from the field name (coral-checkbox, coral-select, coral-datepicker,
+ * coral-multifield, textfield / textarea), values are set and the change events fired in one script call.
+ * Fields which can't be set that way (i.e. foundation-autocomplete) or requested with {@link #withNativeInput(String...)}
+ * are then filled with native interactions.
+ */
+public final class FormFiller {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FormFiller.class);
+
+    public static final String TYPE_MISSING = "missing";
+    public static final String TYPE_NATIVE = "native";
+
+    private static final String FOUNDATION_AUTOCOMPLETE = "foundation-autocomplete";
+
+    private static final String JS_FILL = ""
+        + "var root = arguments[0] || document, values = arguments[1], nativeNames = arguments[2];\n"
+        + "var done = arguments[arguments.length - 1], result = {}, pending = [];\n"
+        + "function fire(el, types) { types.forEach(function(t) { el.dispatchEvent(new Event(t, { bubbles: true })); }); }\n"
+        + "function bool(v) { return v === true || v === 'true'; }\n"
+        + "function find(name) {\n"
+        + "  var mf = root.querySelector('coral-multifield[data-granite-coral-multifield-name=\"' + name + '\"]');\n"
+        + "  if (mf) { return mf; }\n"
+        + "  var all = root.querySelectorAll('[name=\"' + name + '\"]');\n"
+        + "  for (var i = 0; i < all.length; i++) {\n"
+        + "    if (!(all[i].tagName === 'INPUT' && all[i].type === 'hidden')) { return all[i]; }\n"
+        + "  }\n"
+        + "  return null;\n"
+        + "}\n"
+        + "function findOption(el, name, value) {\n"
+        + "  var group = root.querySelectorAll(el.tagName.toLowerCase() + '[name=\"' + name + '\"]');\n"
+        + "  for (var i = 0; i < group.length; i++) {\n"
+        + "    if (String(group[i].value) === String(value)) { return group[i]; }\n"
+        + "  }\n"
+        + "  return null;\n"
+        + "}\n"
+        + "function fillMultifield(mf, list) {\n"
+        + "  return new Promise(function(resolve) {\n"
+        + "    while (mf.items.length < list.length) { mf.items.add(document.createElement('coral-multifield-item')); }\n"
+        + "    while (mf.items.length > list.length) { mf.items.remove(mf.items.last()); }\n"
+        + "    var apply = function() {\n"
+        + "      mf.items.getAll().forEach(function(item, i) {\n"
+        + "        var input = item.querySelector('input:not([type=hidden]), textarea');\n"
+        + "        if (input) { input.value = String(list[i]); fire(input, ['input', 'change']); }\n"
+        + "      });\n"
+        + "      resolve();\n"
+        + "    };\n"
+        + "    if (window.Coral && Coral.commons && Coral.commons.ready) { Coral.commons.ready(mf, apply); } else { apply(); }\n"
+        + "  });\n"
+        + "}\n"
+        + "try {\n"
+        + "  Object.keys(values).forEach(function(name) {\n"
+        + "    var el = find(name), value = values[name];\n"
+        + "    if (!el) { result[name] = 'missing'; return; }\n"
+        + "    var tag = el.tagName.toLowerCase();\n"
+        + "    if (nativeNames.indexOf(name) >= 0) { result[name] = 'native'; return; }\n"
+        + "    if (tag === 'coral-radio' || (tag === 'input' && el.type === 'radio')) {\n"
+        + "      var option = findOption(el, name, value);\n"
+        + "      if (!option) { result[name] = 'missing'; return; }\n"
+        + "      option.checked = true; fire(option, ['input', 'change']); result[name] = 'radio';\n"
+        + "    } else if (tag === 'coral-checkbox' || tag === 'coral-switch') {\n"
+        + "      el.checked = bool(value); fire(el, ['change']); result[name] = tag;\n"
+        + "    } else if (tag === 'coral-select' || tag === 'coral-datepicker' || tag === 'coral-numberinput') {\n"
+        + "      el.value = String(value); fire(el, ['change']); result[name] = tag;\n"
+        + "    } else if (tag === 'coral-multifield') {\n"
+        + "      pending.push(fillMultifield(el, [].concat(value))); result[name] = tag;\n"
+        + "    } else if ((tag === 'input' && el.type !== 'file') || tag === 'textarea') {\n"
+        + "      if (el.type === 'checkbox') { el.checked = bool(value); } else { el.value = String(value); }\n"
+        + "      fire(el, ['input', 'change']); result[name] = 'textfield';\n"
+        + "    } else {\n"
+        + "      result[name] = 'native';\n"
+        + "    }\n"
+        + "  });\n"
+        + "  Promise.all(pending).then(function() { done(result); });\n"
+        + "} catch (err) {\n"
+        + "  done({ __error: String(err) });\n"
+        + "}\n";
+
+    private final SelenideElement root;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final Set<String> nativeFields = new HashSet<>();
+
+    /**
+     * Filler scoped on the whole document.
+     */
+    public FormFiller() {
+        this(null);
+    }
+
+    /**
+     * @param formRoot element in which the fields are looked up, null for the whole document.
+     */
+    public FormFiller(final SelenideElement formRoot) {
+        root = formRoot;
+    }
+
+    /**
+     * @param name field name (i.e. ./jcr:title), or multifield name.
+     * @param value String, Boolean, or a List of String for a multifield, the value of the option to check for a radio group.
+     * @return itself.
+     */
+    public FormFiller set(final String name, final Object value) {
+        values.put(name, value);
+        return this;
+    }
+
+    /**
+     * @param fieldValues field name to value map, see {@link #set(String, Object)}.
+     * @return itself.
+     */
+    public FormFiller setAll(final Map<String, ?> fieldValues) {
+        values.putAll(fieldValues);
+        return this;
+    }
+
+    /**
+     * @param field form field to set.
+     * @param value value to set.
+     * @return itself.
+     */
+    public FormFiller set(final FormField field, final Object value) {
+        return set(field.getName(), value);
+    }
+
+    /**
+     * @param names fields which need real input events (i.e. validation on keyup), filled with native interactions.
+     * @return itself.
+     */
+    public FormFiller withNativeInput(final String... names) {
+        nativeFields.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    /**
+     * Fill all the fields, one script for the fields which can be set in the browser, native interactions for the others.
+     *
+     * @return the resolved type for each field name.
+     * @throws IllegalArgumentException if any of the fields, or the radio option to check, can't be found.
+     */
+    public Map<String, String> fill() {
+        Map<String, String> resolved = new LinkedHashMap<>();
+        if (values.isEmpty()) {
+            return resolved;
+        }
+        Map<String, Object> output = Selenide.executeAsyncJavaScript(JS_FILL, root, values, new ArrayList<>(nativeFields));
+        if (output == null || output.containsKey("__error")) {
+            throw new IllegalStateException("Cannot fill the form due to " + (output != null ? output.get("__error") : "no result"));
+        }
+        output.forEach((name, type) -> resolved.put(name, String.valueOf(type)));
+
+        List<String> missing = new ArrayList<>();
+        resolved.forEach((name, type) -> {
+            if (TYPE_MISSING.equals(type)) {
+                missing.add(name);
+            } else if (TYPE_NATIVE.equals(type)) {
+                fillNative(name, values.get(name));
+            }
+        });
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Cannot find form fields " + missing);
+        }
+        LOG.info("Filled form fields {}", resolved);
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    private SelenideElement find(final String prefix, final String name) {
+        final String selector = prefix + new FormField(name);
+        return root != null ? root.$(selector) : $(selector);
+    }
+
+    private void fillNative(final String name, final Object value) {
+        final String text = String.valueOf(value);
+        SelenideElement autocomplete = find(FOUNDATION_AUTOCOMPLETE, name);
+        SelenideElement checkbox = find("coral-checkbox", name);
+        SelenideElement radio = find("input[type='radio']", name);
+        SelenideElement input = find("input:not([type='hidden'])", name);
+        SelenideElement textarea = find("textarea", name);
+        if (autocomplete.exists()) {
+            AutoCompleteField<Void> field = new AutoCompleteField<>(autocomplete, null, false);
+            field.clear();
+            field.sendKeys(text);
+        } else if (checkbox.exists()) {
+            checkbox.$("input").setSelected(Boolean.parseBoolean(text));
+        } else if (radio.exists()) {
+            SelenideElement option = find("input[type='radio'][value='" + text + "']", name);
+            if (!option.exists()) {
+                throw new IllegalArgumentException("Cannot find option " + text + " of radio group " + name);
+            }
+            option.setSelected(true);
+        } else if (input.exists()) {
+            input.setValue(text);
+        } else if (textarea.exists()) {
+            textarea.setValue(text);
+        } else {
+            throw new IllegalArgumentException("Cannot fill form field " + name + " with native interactions");
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class InlineEditor extends AEMBaseComponent {
 
     private static final String INLINEEDITOR_IDENTIFIER = "#InlineEditingUI";
     private static final String CONTENT_FRAME = "ContentFrame";
+    private static final String CONTENT_FRAME_SELECTOR = "#" + CONTENT_FRAME;
     private static final String TEXT_CONTENT_SELECTOR = ".text.cq-Editable-dom";
     private static final String TEXT_CONTENT_EDITABLE_SELECTOR = TEXT_CONTENT_SELECTOR + "[contenteditable]";
 
@@ -63,6 +64,23 @@ public class InlineEditor extends AEMBaseComponent {
 
     public RichTextToolbar getRichTextToolbar() { return richTextToolbar; }
 
+    /**
+     * Execute rich text commands in a single script, instead of toolbar clicks and native typing.
+     * @param commands the commands to execute.
+     * @return the toolbar state after the commands.
+     */
+    public RichTextToolbar.State execute(RichTextCommands commands) { return commands.execute(this); }
+
+    /**
+     * @return selector of the frame holding the edited content.
+     */
+    String getContentFrameSelector() { return CONTENT_FRAME_SELECTOR; }
+
+    /**
+     * @return selector of the text being edited, within the content frame.
+     */
+    String getEditableSelector() { return TEXT_CONTENT_EDITABLE_SELECTOR; }
+
     public String getTextContent() {
         return setOrGetTextContent(null);
     }
@@ -24,6 +24,8 @@ import com.adobe.cq.testing.selenium.pagewidgets.coral.Dialog;
 import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
 
+import java.util.Map;
+
 import static com.adobe.cq.testing.selenium.pagewidgets.Helpers.clickDialogAction;
 import static com.adobe.cq.testing.selenium.utils.ElementUtils.clickableClick;
 import static com.codeborne.selenide.Selenide.$;
@@ -85,6 +87,16 @@ public class PolicyDialog extends Dialog {
         return this;
     }
 
+    /**
+     * Fill several policy fields at once, see {@link FormFiller}.
+     * @param values field name (i.e ./jcr:title) to value map.
+     * @return itself.
+     */
+    public PolicyDialog fill(final Map<String, ?> values) {
+        new FormFiller(element()).setAll(values).fill();
+        return this;
+    }
+
     /**
      * @return the policy title field.
      */
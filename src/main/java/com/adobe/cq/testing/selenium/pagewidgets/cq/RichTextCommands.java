@@ -0,0 +1,223 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.pagewidgets.cq;
+
+import com.codeborne.selenide.Selenide;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequence of rich text editor commands executed in a single script.
+ *
+ * Formatting, justify, list, sub/superscript and undo actions are relayed as commands to the RTE editor kernel,
+ * the other toolbar actions (dialogs, find and replace, ...) are triggered on their toolbar buttons.
+ * Text is inserted at the caret with the browser editing commands and links go through the RTE kernel.
+ * The toolbar state is read back in the same call once the RTE updated it.
+ *
+ * <pre>
+ *   new RichTextCommands().selectAll().action(Action.FORMAT_BOLD).end().text(" more").execute(inlineEditor);
+ * </pre>
+ */
+public final class RichTextCommands {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RichTextCommands.class);
+
+    private static final String OP = "op";
+    private static final String VALUE = "value";
+
+    // RTE editor kernel commands executed by the plugins for their toolbar actions
+    private static final Map<RichTextToolbar.Action, String> KERNEL_COMMANDS;
+
+    static {
+        Map<RichTextToolbar.Action, String> kernelCommands = new EnumMap<>(RichTextToolbar.Action.class);
+        kernelCommands.put(RichTextToolbar.Action.FORMAT_BOLD, "bold");
+        kernelCommands.put(RichTextToolbar.Action.FORMAT_ITALIC, "italic");
+        kernelCommands.put(RichTextToolbar.Action.FORMAT_UNDERLINE, "underline");
+        kernelCommands.put(RichTextToolbar.Action.FORMAT_SUBSCRIPT, "subscript");
+        kernelCommands.put(RichTextToolbar.Action.FORMAT_SUPERSCRIPT, "superscript");
+        kernelCommands.put(RichTextToolbar.Action.JUSTIFY_LEFT, "justifyleft");
+        kernelCommands.put(RichTextToolbar.Action.JUSTIFY_CENTER, "justifycenter");
+        kernelCommands.put(RichTextToolbar.Action.JUSTIFY_RIGHT, "justifyright");
+        kernelCommands.put(RichTextToolbar.Action.JUSTIFY_JUSTIFY, "justifyfull");
+        kernelCommands.put(RichTextToolbar.Action.LISTS_UNORDERED, "insertunorderedlist");
+        kernelCommands.put(RichTextToolbar.Action.LISTS_ORDERED, "insertorderedlist");
+        kernelCommands.put(RichTextToolbar.Action.LISTS_OUTDENT, "outdent");
+        kernelCommands.put(RichTextToolbar.Action.LISTS_INDENT, "indent");
+        kernelCommands.put(RichTextToolbar.Action.UNDO, "undo");
+        kernelCommands.put(RichTextToolbar.Action.REDO, "redo");
+        KERNEL_COMMANDS = Collections.unmodifiableMap(kernelCommands);
+    }
+
+    // JS script running the commands then reading the toolbar state on the next animation frames
+    private static final String JS_EXECUTE = ""
+        + "var frameSelector = arguments[0], editableSelector = arguments[1], commands = arguments[2];\n"
+        + "var done = arguments[arguments.length - 1], errors = [];\n"
+        + "var doc = document;\n"
+        + "if (frameSelector) { var frame = document.querySelector(frameSelector); doc = frame && frame.contentDocument; }\n"
+        + "var editable = doc && doc.querySelector(editableSelector);\n"
+        + "if (!editable) { done({ errors: ['editable not found: ' + editableSelector] }); return; }\n"
+        + "function visible(el) { return el.getClientRects().length > 0; }\n"
+        + "var toolbar = [].filter.call(document.querySelectorAll('.rte-toolbar'), visible)[0];\n"
+        + "var jq = doc.defaultView.jQuery || window.jQuery;\n"
+        + "var rte = jq ? jq(editable).data('rteinstance') : null;\n"
+        + "function select(where) {\n"
+        + "  var range = doc.createRange(), selection = doc.getSelection();\n"
+        + "  range.selectNodeContents(editable);\n"
+        + "  if (where === 'end') { range.collapse(false); } else if (where === 'start') { range.collapse(true); }\n"
+        + "  selection.removeAllRanges(); selection.addRange(range);\n"
+        + "}\n"
+        + "editable.focus();\n"
+        + "commands.forEach(function(c) {\n"
+        + "  try {\n"
+        + "    if (c.op === 'select') { select(c.value); }\n"
+        + "    else if (c.op === 'text') { doc.execCommand('insertText', false, c.value); }\n"
+        + "    else if (c.op === 'command') {\n"
+        + "      if (!rte || !rte.editorKernel) { errors.push('no rte instance for ' + c.value); }\n"
+        + "      else { rte.editorKernel.relayCmd(c.value); }\n"
+        + "    } else if (c.op === 'action') {\n"
+        + "      var button = toolbar && toolbar.querySelector('[data-action=\"' + c.value + '\"]');\n"
+        + "      if (!button) { errors.push('no button ' + c.value); }\n"
+        + "      else if (button.disabled) { errors.push('disabled button ' + c.value); }\n"
+        + "      else { button.click(); }\n"
+        + "    } else if (c.op === 'link') {\n"
+        + "      if (!rte || !rte.editorKernel) { errors.push('no rte instance for link'); }\n"
+        + "      else { rte.editorKernel.relayCmd('modifylink', { url: c.value, attributes: c.attributes }); }\n"
+        + "    }\n"
+        + "  } catch (err) { errors.push(c.op + ' ' + c.value + ': ' + err); }\n"
+        + "});\n"
+        + "window.requestAnimationFrame(function() { window.requestAnimationFrame(function() {\n"
+        + "  var state = {};\n"
+        + "  if (toolbar) {\n"
+        + "    toolbar.querySelectorAll('[data-action]').forEach(function(b) {\n"
+        + "      state[b.getAttribute('data-action')] = { active: b.classList.contains('is-selected')\n"
+        + "        || b.getAttribute('aria-pressed') === 'true', enabled: !b.disabled };\n"
+        + "    });\n"
+        + "  }\n"
+        + "  done({ errors: errors, state: state, html: editable.innerHTML });\n"
+        + "}); });\n";
+
+    private final List<Map<String, Object>> commands = new ArrayList<>();
+
+    private RichTextCommands add(final String op, final Object value) {
+        Map<String, Object> command = new HashMap<>();
+        command.put(OP, op);
+        command.put(VALUE, value);
+        commands.add(command);
+        return this;
+    }
+
+    /**
+     * @return itself, with the whole content selected.
+     */
+    public RichTextCommands selectAll() {
+        return add("select", "all");
+    }
+
+    /**
+     * @return itself, with the caret moved to the end of the content.
+     */
+    public RichTextCommands end() {
+        return add("select", "end");
+    }
+
+    /**
+     * @return itself, with the caret moved to the start of the content.
+     */
+    public RichTextCommands start() {
+        return add("select", "start");
+    }
+
+    /**
+     * @param text text inserted at the caret, replacing the selection.
+     * @return itself.
+     */
+    public RichTextCommands text(final String text) {
+        return add("text", text);
+    }
+
+    /**
+     * Formatting, justify, lists and undo actions are relayed to the RTE kernel, the others click the toolbar button.
+     * @param action toolbar action to trigger (format, justify, lists, undo, ...).
+     * @return itself.
+     */
+    public RichTextCommands action(final RichTextToolbar.Action action) {
+        String kernelCommand = KERNEL_COMMANDS.get(action);
+        return kernelCommand != null ? add("command", kernelCommand) : add("action", action.getAction());
+    }
+
+    /**
+     * @param url link target applied on the current selection.
+     * @param target link target attribute, null for none.
+     * @return itself.
+     */
+    public RichTextCommands link(final String url, final String target) {
+        add("link", url);
+        Map<String, Object> attributes = new HashMap<>();
+        if (target != null) {
+            attributes.put("target", target);
+        }
+        commands.get(commands.size() - 1).put("attributes", attributes);
+        return this;
+    }
+
+    /**
+     * Execute the commands on the inline editor of the content frame.
+     * @param inlineEditor the opened inline editor.
+     * @return the toolbar state after the commands.
+     */
+    public RichTextToolbar.State execute(final InlineEditor inlineEditor) {
+        return execute(inlineEditor.getContentFrameSelector(), inlineEditor.getEditableSelector());
+    }
+
+    /**
+     * Execute the commands on the editable of a rich text dialog.
+     * @param dialog the opened dialog.
+     * @return the toolbar state after the commands.
+     */
+    public RichTextToolbar.State execute(final RichTextDialog dialog) {
+        return execute(null, dialog.getCssSelector() + " " + RichTextDialog.EDITABLE);
+    }
+
+    /**
+     * The commands are cleared once sent, the same instance can then build the next sequence.
+     * @param frameSelector selector of the frame containing the editable, null if in the current document.
+     * @param editableSelector selector of the contenteditable element.
+     * @return the toolbar state after the commands.
+     * @throws IllegalStateException if any of the command couldn't be executed.
+     */
+    public RichTextToolbar.State execute(final String frameSelector, final String editableSelector) {
+        List<Map<String, Object>> sequence = new ArrayList<>(commands);
+        commands.clear();
+        Map<String, Object> result = Selenide.executeAsyncJavaScript(JS_EXECUTE, frameSelector, editableSelector, sequence);
+        if (result == null) {
+            throw new IllegalStateException("No result executing rich text commands");
+        }
+        List<?> errors = (List<?>) result.get("errors");
+        if (errors != null && !errors.isEmpty()) {
+            throw new IllegalStateException("Cannot execute rich text commands: " + errors);
+        }
+        LOG.info("Executed {} rich text commands", sequence.size());
+        return RichTextToolbar.State.of(result);
+    }
+}
@@ -23,7 +23,7 @@ import com.codeborne.selenide.SelenideElement;
 public class RichTextDialog extends Dialog {
 
     private static final String CSS_SELECTOR = "coral-dialog";
-    private static final String EDITABLE = ".cq-RichText-editable";
+    static final String EDITABLE = ".cq-RichText-editable";
     private static final String SOURCE_CODE_EDITOR = ".rte-sourceEditor";
 
     public RichTextDialog() {
@@ -53,6 +53,13 @@ public class RichTextDialog extends Dialog {
         return toolbar;
     }
 
+    /**
+     * Execute rich text commands in a single script, instead of toolbar clicks and native typing.
+     * @param commands the commands to execute.
+     * @return the toolbar state after the commands.
+     */
+    public RichTextToolbar.State execute(RichTextCommands commands) { return commands.execute(this); }
+
     public RichTextDialog clickCancel() { return super.clickDefault(); }
     public RichTextDialog clickDone() { return super.clickPrimary(); }
 }
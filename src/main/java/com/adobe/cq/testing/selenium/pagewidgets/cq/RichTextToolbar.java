@@ -18,8 +18,13 @@ package com.adobe.cq.testing.selenium.pagewidgets.cq;
 
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
 import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.Selenide;
 import com.codeborne.selenide.SelenideElement;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.adobe.cq.testing.selenium.utils.ElementUtils.clickableClick;
 import static com.codeborne.selenide.Selenide.$$;
 
@@ -27,6 +32,15 @@ public class RichTextToolbar extends AEMBaseComponent {
 
     private static final String CSS_SELECTOR = ".rte-toolbar";
 
+    // JS script reading the state of all the toolbar buttons at once
+    private static final String JS_STATE = ""
+        + "var state = {};\n"
+        + "arguments[0].querySelectorAll('[data-action]').forEach(function(b) {\n"
+        + "  state[b.getAttribute('data-action')] = { active: b.classList.contains('is-selected')\n"
+        + "    || b.getAttribute('aria-pressed') === 'true', enabled: !b.disabled };\n"
+        + "});\n"
+        + "return { state: state };\n";
+
     public RichTextToolbar() {
         super($$(CSS_SELECTOR).filterBy(Condition.visible).first());
     }
@@ -117,6 +131,14 @@ public class RichTextToolbar extends AEMBaseComponent {
         return this;
     }
 
+    /**
+     * @return the state of all the toolbar buttons, read in one script call.
+     */
+    public State readState() {
+        Map<String, Object> result = Selenide.executeJavaScript(JS_STATE, element());
+        return State.of(result);
+    }
+
     /**
      * provides the button for a specific action {@link Action}
      * @param action Action object for which clickable buttons is require
@@ -128,4 +150,55 @@ public class RichTextToolbar extends AEMBaseComponent {
         return button;
     }
 
+    /**
+     * State of the toolbar buttons (and edited content when known) at a given time.
+     */
+    public static final class State {
+
+        private final Map<String, Map<String, Object>> buttons;
+        private final String html;
+
+        private State(final Map<String, Map<String, Object>> buttonStates, final String content) {
+            buttons = buttonStates;
+            html = content;
+        }
+
+        @SuppressWarnings("unchecked")
+        static State of(final Map<String, Object> result) {
+            Map<String, Map<String, Object>> buttonStates = new HashMap<>();
+            if (result != null && result.get("state") instanceof Map) {
+                buttonStates.putAll((Map<String, Map<String, Object>>) result.get("state"));
+            }
+            return new State(buttonStates, result != null ? (String) result.get("html") : null);
+        }
+
+        /**
+         * @param action the action to check.
+         * @return true if the button is active (i.e. bold for a bold selection).
+         */
+        public boolean isActive(final Action action) {
+            return Boolean.TRUE.equals(buttons.getOrDefault(action.getAction(), Collections.emptyMap()).get("active"));
+        }
+
+        /**
+         * @param action the action to check.
+         * @return true if the button exists and is enabled.
+         */
+        public boolean isEnabled(final Action action) {
+            return Boolean.TRUE.equals(buttons.getOrDefault(action.getAction(), Collections.emptyMap()).get("enabled"));
+        }
+
+        /**
+         * @return the edited html after the commands, null if read from the toolbar only.
+         */
+        public String getHtml() {
+            return html;
+        }
+
+        @Override
+        public String toString() {
+            return buttons.toString();
+        }
+    }
+
 }
@@ -155,8 +155,8 @@ public class TimelinePanel extends AEMBaseComponent {
    * @return filter list button.
    */
   public CoralSelectList filter() {
+    CoralPopOver popOver = CoralPopOver.firstOpened().expectOpen();
     clickableClick(filter);
-    CoralPopOver popOver = CoralPopOver.firstOpened();
     popOver.waitVisible();
     return new CoralSelectList(popOver.element());
   }
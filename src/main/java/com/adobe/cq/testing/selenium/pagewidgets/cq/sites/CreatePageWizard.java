@@ -100,4 +100,13 @@ public class CreatePageWizard extends Wizard {
     return CONFIRM_DIALOG;
   }
 
+  /**
+   * Open the wizard directly by url.
+   * @param parentPath the parent page in which the page is created.
+   * @return the page object for this wizard.
+   */
+  public static CreatePageWizard openOn(final String parentPath) {
+    return new CreatePageWizard().open(CREATE_WIZARD_URL + parentPath);
+  }
+
 }
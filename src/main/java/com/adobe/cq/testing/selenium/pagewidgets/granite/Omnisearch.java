@@ -19,7 +19,7 @@ package com.adobe.cq.testing.selenium.pagewidgets.granite;
 import com.adobe.cq.testing.selenium.pagewidgets.Helpers;
 import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
 import com.adobe.cq.testing.selenium.Constants;
-import com.adobe.cq.testing.selenium.pagewidgets.common.AEMBaseComponent;
+import com.adobe.cq.testing.selenium.utils.ActionCompletion;
 import com.codeborne.selenide.CollectionCondition;
 import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.ElementsCollection;
@@ -29,7 +29,6 @@ import org.openqa.selenium.By;
 
 import java.util.concurrent.TimeoutException;
 
-import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
 import static com.adobe.cq.testing.selenium.pagewidgets.Helpers.isElementTopMost;
 import static com.adobe.cq.testing.selenium.pagewidgets.Helpers.waitForElementAnimationFinished;
 import static com.adobe.cq.testing.selenium.pagewidgets.I18N.geti18nString;
@@ -46,8 +45,13 @@ public final class Omnisearch extends AEMBaseComponent {
 
     private static final String BUTTON_GRANITE_OMNISEARCH_TYPEAHEAD_CLOSE = "button.granite-omnisearch-typeahead-close";
     private static final String DIV_GRANITE_OMNISEARCH_TYPEAHEAD = "div.granite-omnisearch-typeahead";
+    private static final String CORAL_OVERLAY_TYPEAHEAD = "coral-overlay[target='.granite-omnisearch-typeahead']";
+    private static final String TYPEAHEAD_SUGGESTIONS = CORAL_OVERLAY_TYPEAHEAD
+        + " button[data-granite-omnisearch-typeahead-suggestion-value]";
+    private static final long SUGGESTIONS_QUIET_PERIOD = 250;
 
     private final String actionBarItemPrefix;
+    private ActionCompletion suggestionsCompletion;
 
     /**
      * Default constructor.
@@ -55,6 +59,17 @@ public final class Omnisearch extends AEMBaseComponent {
     public Omnisearch() {
         super("granite-omnisearch-overlay");
         actionBarItemPrefix = ".granite-omnisearch-overlay coral-actionbar coral-actionbar-item ";
+        suggestionsCompletion = () -> Omnisearch::waitSuggestions;
+    }
+
+    /**
+     * @param completion how to detect the suggestion list is ready, defaults to the suggestion request being done and
+     *      the overlay content not changing anymore.
+     * @return itself.
+     */
+    public Omnisearch withSuggestionsCompletion(final ActionCompletion completion) {
+        suggestionsCompletion = completion;
+        return this;
     }
 
     /**
@@ -224,10 +239,18 @@ public final class Omnisearch extends AEMBaseComponent {
      */
     public void showSuggestions(final String searchText) {
         searchField().setValue(searchText);
-        $("coral-overlay[target='.granite-omnisearch-typeahead']").should(
-            Constants.EXISTS_ENABLED_VISIBLE);
+        $(CORAL_OVERLAY_TYPEAHEAD).should(Constants.EXISTS_ENABLED_VISIBLE);
         // On fresh instances of AEM the suggestion list is not completely ready after showing the overlay above
-        Selenide.sleep(DEFAULT_WAIT_TIME);
+        suggestionsCompletion.prepare().run();
+    }
+
+    private static void waitSuggestions() {
+        // the overlay may be quiet while the suggestion request is still in flight
+        Helpers.waitNetworkIdled(SUGGESTIONS_QUIET_PERIOD);
+        if (!Helpers.waitDOMQuiet($(CORAL_OVERLAY_TYPEAHEAD), SUGGESTIONS_QUIET_PERIOD)) {
+            // still rendering after the quiet wait, at least one suggestion has to be there
+            $$(TYPEAHEAD_SUGGESTIONS).shouldHave(CollectionCondition.sizeGreaterThan(0));
+        }
     }
 
     /**
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.pagewidgets.Helpers;
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.ElementsCollection;
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.SelenideElement;
+
+import static com.codeborne.selenide.Selenide.Wait;
+
+/**
+ * Strategy used by widgets to know when an interaction they triggered is complete.
+ *
+ * {@link #prepare()} is called before the action to capture any state needed (i.e. a collection size),
+ * the returned waiter is run once the action is performed.
+ */
+@FunctionalInterface
+public interface ActionCompletion {
+
+    /**
+     * @return the waiter to run after the action, blocking until the action is considered complete.
+     */
+    Runnable prepare();
+
+    /**
+     * @param action the interaction to perform and wait for.
+     */
+    default void perform(final Runnable action) {
+        final Runnable waiter = prepare();
+        action.run();
+        waiter.run();
+    }
+
+    /**
+     * @return a completion which doesn't wait at all.
+     */
+    static ActionCompletion none() {
+        return () -> () -> { };
+    }
+
+    /**
+     * Legacy behavior, prefer any of the signal based completion.
+     * @param delay fixed delay in milliseconds.
+     * @return a completion which sleeps the given delay.
+     */
+    static ActionCompletion delay(final long delay) {
+        return () -> () -> Selenide.sleep(delay);
+    }
+
+    /**
+     * @param element the element to check.
+     * @param condition the condition the element should fulfill.
+     * @return a completion waiting for the element to fulfill the condition.
+     */
+    static ActionCompletion condition(final SelenideElement element, final Condition condition) {
+        return () -> () -> element.should(condition);
+    }
+
+    /**
+     * @param collection the collection expected to change, i.e. items of a coral-multifield.
+     * @return a completion waiting for the collection size to be different from the one before the action.
+     */
+    static ActionCompletion sizeChange(final ElementsCollection collection) {
+        return () -> {
+            final int before = collection.size();
+            return () -> Wait().until(webDriver -> collection.size() != before);
+        };
+    }
+
+    /**
+     * @param element the element expected to move / resize after the action.
+     * @return a completion waiting for the element bounding box to be the same on consecutive animation frames.
+     */
+    static ActionCompletion stable(final SelenideElement element) {
+        return () -> () -> ElementUtils.waitStable(element);
+    }
+
+    /**
+     * @param element root of the observed subtree.
+     * @param quietPeriod period in milliseconds without any DOM mutation to consider it completed.
+     * @return a completion waiting for the DOM under the element to stop changing.
+     */
+    static ActionCompletion domQuiet(final SelenideElement element, final long quietPeriod) {
+        return () -> () -> Helpers.waitDOMQuiet(element, quietPeriod);
+    }
+}
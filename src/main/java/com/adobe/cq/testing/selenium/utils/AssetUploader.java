@@ -0,0 +1,322 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQAssetsClient;
+import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.client.assets.dto.InitiateUploadFile;
+import com.adobe.cq.testing.client.assets.dto.InitiateUploadResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingHttpResponse;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_RETRY_DELAY;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_TIMEOUT;
+
+/**
+ * Upload the files of a directory as DAM assets, concurrently, then wait for their processing.
+ *
+ * Files are streamed from disk, either in a multipart request to the create asset servlet or, when enabled and
+ * supported by the instance, with the direct binary upload protocol. The processing is then polled with one
+ * query per poll for all the assets instead of one request per asset.
+ */
+public final class AssetUploader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssetUploader.class);
+
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final String STATE_PROCESSED = "processed";
+    private static final String STATE_FAILED = "failed";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final CQClient client;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private boolean directBinaryUpload;
+    private Duration timeout = Duration.ofMillis(DEFAULT_TIMEOUT);
+    private Duration pollInterval = Duration.ofMillis(DEFAULT_RETRY_DELAY);
+
+    /**
+     * @param client client allowed to write in the DAM folders.
+     */
+    public AssetUploader(final CQClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param threads maximum number of concurrent uploads, defaults to 4.
+     * @return itself.
+     */
+    public AssetUploader withParallelism(final int threads) {
+        this.parallelism = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * @param enabled use the direct binary upload protocol when the instance supports it.
+     * @return itself.
+     */
+    public AssetUploader withDirectBinaryUpload(final boolean enabled) {
+        this.directBinaryUpload = enabled;
+        return this;
+    }
+
+    /**
+     * @param processingTimeout maximum time to wait for the processing of all the assets.
+     * @param interval time between two polls.
+     * @return itself.
+     */
+    public AssetUploader withProcessingTimeout(final Duration processingTimeout, final Duration interval) {
+        this.timeout = processingTimeout;
+        this.pollInterval = interval;
+        return this;
+    }
+
+    /**
+     * Upload the regular files of a directory, sub directories are ignored.
+     * @param directory local directory.
+     * @param folderPath existing DAM folder.
+     * @return the created asset paths.
+     * @throws ClientException if an upload fails.
+     * @throws IOException if the directory cannot be listed.
+     * @throws InterruptedException if interrupted while uploading.
+     */
+    public List<String> upload(final Path directory, final String folderPath)
+            throws ClientException, IOException, InterruptedException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        return upload(files, folderPath);
+    }
+
+    /**
+     * @param files local files.
+     * @param folderPath existing DAM folder.
+     * @return the created asset paths, in the files order.
+     * @throws ClientException if an upload fails.
+     * @throws InterruptedException if interrupted while uploading.
+     */
+    public List<String> upload(final List<Path> files, final String folderPath) throws ClientException, InterruptedException {
+        if (files.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        boolean direct = directBinaryUpload && client.adaptTo(CQAssetsClient.class).isDirectBinaryAccessSupported();
+        List<Callable<String>> tasks = new ArrayList<>();
+        try (CloseableHttpClient binaryClient = direct ? HttpClients.createDefault() : null) {
+            for (Path file : files) {
+                tasks.add(() -> direct ? uploadDirect(binaryClient, file, folderPath) : uploadMultipart(file, folderPath));
+            }
+            List<String> paths = ConcurrencyHelper.run(parallelism, tasks, "Asset upload failed");
+            LOGGER.info("Uploaded {} assets to {} in {} ms", paths.size(), folderPath,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return paths;
+        } catch (IOException e) {
+            throw new ClientException("Asset upload failed", e);
+        }
+    }
+
+    private String uploadMultipart(final Path file, final String folderPath) throws ClientException {
+        String fileName = file.getFileName().toString();
+        SlingHttpResponse created = client.doPost(folderPath + ".createasset.html", MultipartEntityBuilder.create()
+            .addBinaryBody("file", file.toFile(), contentType(file), fileName)
+            .addTextBody("fileName", fileName)
+            .addTextBody("_charset_", "utf-8")
+            .build(), HttpStatus.SC_OK, HttpStatus.SC_CREATED);
+        return createdPath(created, folderPath, fileName);
+    }
+
+    private String uploadDirect(final CloseableHttpClient binaryClient, final Path file, final String folderPath)
+            throws ClientException, IOException {
+        String fileName = file.getFileName().toString();
+        long fileSize = Files.size(file);
+        SlingHttpResponse initiated = client.doPost(folderPath + ".initiateUpload.json", FormEntityBuilder.create()
+            .addParameter("fileName", fileName)
+            .addParameter("fileSize", String.valueOf(fileSize))
+            .build(), HttpStatus.SC_OK, HttpStatus.SC_CREATED);
+        InitiateUploadResponse response = MAPPER.readValue(initiated.getContent(), InitiateUploadResponse.class);
+        if (response.getFiles() == null || response.getFiles().size() != 1) {
+            throw new ClientException("Unexpected initiate upload response for " + fileName + ": " + response);
+        }
+        InitiateUploadFile upload = response.getFiles().get(0);
+        List<String> uris = upload.getUploadURIs();
+        long partSize = partSize(upload, fileSize);
+        for (int i = 0; i < uris.size() && i * partSize < fileSize; i++) {
+            long offset = i * partSize;
+            long length = Math.min(partSize, fileSize - offset);
+            try (InputStream input = Files.newInputStream(file);
+                 InputStream part = new BoundedInputStream(skipped(input, offset), length)) {
+                HttpPut put = new HttpPut(uris.get(i));
+                put.setEntity(new InputStreamEntity(part, length, contentType(file)));
+                try (CloseableHttpResponse putResponse = binaryClient.execute(put)) {
+                    int status = putResponse.getStatusLine().getStatusCode();
+                    if (status >= HttpStatus.SC_MULTIPLE_CHOICES) {
+                        throw new ClientException("Unable to upload part " + i + " of " + fileName + ": " + status);
+                    }
+                }
+            }
+        }
+        SlingHttpResponse completed = client.doPost(response.getCompleteURI(), FormEntityBuilder.create()
+            .addParameter("fileName", fileName)
+            .addParameter("uploadToken", upload.getUploadToken())
+            .addParameter("mimeType", upload.getMimeType() != null ? upload.getMimeType() : contentType(file).getMimeType())
+            .addParameter("fileSize", String.valueOf(fileSize))
+            .build(), HttpStatus.SC_OK, HttpStatus.SC_CREATED);
+        return createdPath(completed, folderPath, fileName);
+    }
+
+    /**
+     * Smallest part size spreading the file over the upload URIs, within the bounds given by the instance.
+     */
+    private static long partSize(final InitiateUploadFile upload, final long fileSize) throws ClientException {
+        int parts = Math.max(1, upload.getUploadURIs().size());
+        long partSize = Math.max(upload.getMinPartSize(), (fileSize + parts - 1) / parts);
+        if (upload.getMaxPartSize() > 0 && partSize > upload.getMaxPartSize()) {
+            throw new ClientException("Cannot upload " + upload.getFileName() + " of " + fileSize + " bytes in " + parts
+                + " parts of at most " + upload.getMaxPartSize() + " bytes");
+        }
+        return partSize;
+    }
+
+    /**
+     * The instance may rename the asset (i.e. invalid characters or name clash), prefer the path it reports.
+     */
+    private static String createdPath(final SlingHttpResponse response, final String folderPath, final String fileName) {
+        String path = response.getSlingPath();
+        if (path == null || path.isEmpty()) {
+            LOGGER.debug("No created path reported for {}, assuming it kept its file name", fileName);
+            return folderPath + "/" + fileName;
+        }
+        return path;
+    }
+
+    private static InputStream skipped(final InputStream input, final long offset) throws IOException {
+        long remaining = offset;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Cannot skip to " + offset);
+            }
+            remaining -= skipped;
+        }
+        return input;
+    }
+
+    private static ContentType contentType(final Path file) {
+        try {
+            String mimeType = Files.probeContentType(file);
+            return mimeType != null ? ContentType.create(mimeType) : ContentType.APPLICATION_OCTET_STREAM;
+        } catch (IOException e) {
+            return ContentType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * Wait for the processing of all the assets, polling their state with one query per folder.
+     * @param assetPaths the uploaded assets.
+     * @return the final state of each asset, processed or failed.
+     * @throws ClientException if a poll fails.
+     * @throws TimeoutException if some assets are still processing after the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Map<String, String> waitProcessed(final Collection<String> assetPaths)
+            throws ClientException, TimeoutException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        Map<String, String> states = new LinkedHashMap<>();
+        Map<String, List<String>> pendingByFolder = assetPaths.stream()
+            .collect(Collectors.groupingBy(p -> p.substring(0, p.lastIndexOf('/')), LinkedHashMap::new, Collectors.toList()));
+        int polls = 0;
+        while (!pendingByFolder.isEmpty()) {
+            for (Map.Entry<String, List<String>> folder : new ArrayList<>(pendingByFolder.entrySet())) {
+                Map<String, String> folderStates = queryStates(folder.getKey());
+                folder.getValue().removeIf(path -> {
+                    String state = folderStates.get(path);
+                    if (STATE_PROCESSED.equals(state) || STATE_FAILED.equals(state)) {
+                        states.put(path, state);
+                        return true;
+                    }
+                    return false;
+                });
+                if (folder.getValue().isEmpty()) {
+                    pendingByFolder.remove(folder.getKey());
+                }
+            }
+            polls++;
+            if (!pendingByFolder.isEmpty()) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("Assets still processing after " + timeout.toMillis() + " ms: "
+                        + pendingByFolder.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+                }
+                Thread.sleep(pollInterval.toMillis());
+            }
+        }
+        LOGGER.info("{} assets processed after {} polls in {} ms", states.size(), polls,
+            Duration.ofNanos(System.nanoTime() - start).toMillis());
+        states.forEach((path, state) -> {
+            if (STATE_FAILED.equals(state)) {
+                LOGGER.warn("Processing failed for {}", path);
+            }
+        });
+        return states;
+    }
+
+    private Map<String, String> queryStates(final String folderPath) throws ClientException {
+        List<NameValuePair> query = new ArrayList<>();
+        query.add(new BasicNameValuePair("path", folderPath));
+        query.add(new BasicNameValuePair("path.flat", "true"));
+        query.add(new BasicNameValuePair("type", "dam:Asset"));
+        query.add(new BasicNameValuePair("p.limit", "-1"));
+        query.add(new BasicNameValuePair("p.hits", "full"));
+        query.add(new BasicNameValuePair("p.nodedepth", "1"));
+        Map<String, String> states = new LinkedHashMap<>();
+        for (JsonNode hit : QueryBuilderHelper.query(client, query)) {
+            states.put(hit.path("jcr:path").asText(), hit.path("jcr:content").path("dam:assetState").asText(null));
+        }
+        return states;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Remove the /var/audit trails of disposed content roots in batch.
+ *
+ * The existing trails of all the added roots are listed with one QueryBuilder request (per 50 trails), then removed
+ * with one Sling delete request, instead of probing and deleting each audit root of each content root.
+ * Roots can be added by several builders and flushed once, i.e. at the end of the test run as done by the
+ * TestContentExtension when {@value #DEFERRED_PROPERTY} is true.
+ */
+public final class AuditCleanup {
+
+    public static final String DEFERRED_PROPERTY = "sel.audit.deferred";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditCleanup.class);
+
+    private static final String AUDIT_BASEPATH = "/var/audit";
+
+    private final SlingClient client;
+    private final Set<String> roots = new LinkedHashSet<>();
+    private int requests;
+    private int requestsSaved;
+
+    /**
+     * @param client client allowed to read and delete under /var/audit.
+     */
+    public AuditCleanup(final SlingClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param contentRoots content roots whose audit trails are to be removed on {@link #flush()}.
+     * @return itself.
+     */
+    public synchronized AuditCleanup add(final Collection<String> contentRoots) {
+        roots.addAll(contentRoots);
+        return this;
+    }
+
+    /**
+     * List and remove the audit trails of the added roots.
+     * @return the removed audit trail paths.
+     * @throws ClientException if the listing fails.
+     */
+    public synchronized List<String> flush() throws ClientException {
+        if (roots.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> candidates = new ArrayList<>();
+        TestContentBuilder.AUDIT_ROOTS.forEach(audit -> roots.forEach(root -> candidates.add(audit + root)));
+        List<String> existing = list(candidates);
+        if (!existing.isEmpty()) {
+            FormEntityBuilder form = FormEntityBuilder.create().addParameter(":operation", "delete");
+            existing.forEach(path -> form.addParameter(":applyTo", path));
+            await().ignoreExceptions().untilAsserted(() -> client.doPost(AUDIT_BASEPATH, form.build(), HttpStatus.SC_OK));
+            requests++;
+        }
+        // one existence probe per candidate and one delete per existing trail otherwise
+        int saved = candidates.size() + existing.size() - (existing.isEmpty() ? 0 : 1)
+            - QueryBuilderHelper.batchCount(candidates.size());
+        requestsSaved += saved;
+        LOGGER.info("Removed {} audit trails of {} roots, {} requests saved", existing.size(), roots.size(), saved);
+        roots.clear();
+        return existing;
+    }
+
+    /**
+     * @return the number of requests sent.
+     */
+    public int getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * @return the number of requests saved compared to probing and deleting each audit trail.
+     */
+    public int getRequestsSaved() {
+        return requestsSaved;
+    }
+
+    private List<String> list(final List<String> candidates) throws ClientException {
+        List<String> existing = new ArrayList<>();
+        List<NameValuePair> parameters = new ArrayList<>();
+        parameters.add(new BasicNameValuePair("p.hits", "selective"));
+        parameters.add(new BasicNameValuePair("p.properties", "jcr:path"));
+        for (JsonNode hit : QueryBuilderHelper.queryPaths(client, candidates, parameters)) {
+            existing.add(hit.path("jcr:path").asText());
+        }
+        requests += QueryBuilderHelper.batchCount(candidates.size());
+        return existing;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQSecurityClient;
+import com.adobe.cq.testing.client.security.Authorizable;
+import com.adobe.cq.testing.client.security.Group;
+import com.adobe.cq.testing.client.security.User;
+import org.apache.http.HttpStatus;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Create many users and groups for permission tests, and set their memberships in batch.
+ *
+ * Users and groups are created concurrently by a bounded pool. Each group is resolved once, then all its new members
+ * are added in a single request per group. Removal mirrors it: one request per group drops the memberships, then the
+ * authorizables are deleted with batched Sling delete requests.
+ *
+ * <pre>
+ *   AuthorizableProvisioner provisioner = new AuthorizableProvisioner(securityClient, label);
+ *   List&lt;User&gt; users = provisioner.createUsers(ids, password);
+ *   provisioner.addMembers(Collections.singletonMap("content-authors", users));
+ *   ...
+ *   provisioner.removeAll();
+ * </pre>
+ */
+public final class AuthorizableProvisioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizableProvisioner.class);
+
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int DELETE_BATCH_SIZE = 50;
+    private static final String HOME_ROOT = "/home";
+
+    private final CQSecurityClient client;
+    private final String intermediatePath;
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final List<Authorizable> created = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Set<Authorizable>> memberships = new LinkedHashMap<>();
+    private int parallelism = DEFAULT_PARALLELISM;
+    private String impersonator;
+
+    /**
+     * @param client security client, with the permissions to manage users and groups.
+     * @param intermediatePath intermediate path of the created authorizables under /home/users and /home/groups.
+     */
+    public AuthorizableProvisioner(final CQSecurityClient client, final String intermediatePath) {
+        this.client = client;
+        this.intermediatePath = intermediatePath;
+    }
+
+    /**
+     * @param threads maximum number of concurrent requests, defaults to 4.
+     * @return itself.
+     */
+    public AuthorizableProvisioner withParallelism(final int threads) {
+        this.parallelism = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * @param userId user allowed to impersonate the created users, null for none.
+     * @return itself.
+     */
+    public AuthorizableProvisioner withImpersonator(final String userId) {
+        this.impersonator = userId;
+        return this;
+    }
+
+    /**
+     * @param ids ids of the users to create.
+     * @param password password of all the users.
+     * @return the created users, in the order of the ids.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public List<User> createUsers(final List<String> ids, final String password) throws ClientException, InterruptedException {
+        final User[] impersonators = impersonator != null ? new User[] { new User(client, impersonator) } : null;
+        List<Callable<User>> tasks = new ArrayList<>();
+        for (String id : ids) {
+            tasks.add(() -> {
+                User user = client.createUser(id, password, intermediatePath, null, null, HttpStatus.SC_CREATED);
+                created.add(user);
+                LOGGER.info("Created user {} at path {}", user.getId(), user.getHomePath());
+                if (impersonators != null) {
+                    user.addImpersonators(impersonators);
+                }
+                return user;
+            });
+        }
+        return run(tasks);
+    }
+
+    /**
+     * @param ids ids of the groups to create.
+     * @return the created groups, in the order of the ids.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public List<Group> createGroups(final List<String> ids) throws ClientException, InterruptedException {
+        List<Callable<Group>> tasks = new ArrayList<>();
+        for (String id : ids) {
+            tasks.add(() -> {
+                Group group = client.createGroup(id, intermediatePath, null, null, null);
+                created.add(group);
+                groups.put(group.getId(), group);
+                LOGGER.info("Created group {} at path {}", group.getId(), group.getHomePath());
+                return group;
+            });
+        }
+        return run(tasks);
+    }
+
+    /**
+     * Add the members of each group in a single request per group, the groups being resolved only once.
+     * @param members members to add, by group id.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public void addMembers(final Map<String, ? extends Collection<? extends Authorizable>> members)
+            throws ClientException, InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        members.forEach((groupId, groupMembers) -> {
+            if (groupMembers.isEmpty()) {
+                return;
+            }
+            Authorizable[] authorizables = groupMembers.toArray(new Authorizable[0]);
+            tasks.add(() -> {
+                Group group = resolve(groupId);
+                await().ignoreExceptions().untilAsserted(() -> group.addMembers(authorizables));
+                LOGGER.info("Added {} members to group {}", authorizables.length, groupId);
+                return null;
+            });
+            synchronized (memberships) {
+                memberships.computeIfAbsent(groupId, k -> new LinkedHashSet<>()).addAll(groupMembers);
+            }
+        });
+        run(tasks);
+    }
+
+    /**
+     * Remove the members of each group in a single request per group, a group already deleted (404) counts as done.
+     * @param members members to remove, by group id.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public void removeMembers(final Map<String, ? extends Collection<? extends Authorizable>> members)
+            throws ClientException, InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        members.forEach((groupId, groupMembers) -> {
+            if (groupMembers.isEmpty()) {
+                return;
+            }
+            Authorizable[] authorizables = groupMembers.toArray(new Authorizable[0]);
+            tasks.add(() -> {
+                Group group = resolve(groupId);
+                await().ignoreExceptions().untilAsserted(
+                    () -> group.removeMembers(authorizables, HttpStatus.SC_OK, HttpStatus.SC_NOT_FOUND));
+                LOGGER.info("Removed {} members from group {}", authorizables.length, groupId);
+                return null;
+            });
+            synchronized (memberships) {
+                Set<Authorizable> tracked = memberships.get(groupId);
+                if (tracked != null) {
+                    tracked.removeAll(groupMembers);
+                }
+            }
+        });
+        run(tasks);
+    }
+
+    /**
+     * Delete the authorizables with Sling delete requests of up to 50 home paths each.
+     * Their memberships are no longer tracked but not removed, see {@link #removeMembers(Map)}.
+     * @param authorizables users or groups to delete.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public void delete(final Collection<? extends Authorizable> authorizables) throws ClientException, InterruptedException {
+        List<String> homes = new ArrayList<>();
+        authorizables.forEach(authorizable -> homes.add(authorizable.getHomePath()));
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int first = 0; first < homes.size(); first += DELETE_BATCH_SIZE) {
+            FormEntityBuilder form = FormEntityBuilder.create().addParameter(":operation", "delete");
+            homes.subList(first, Math.min(homes.size(), first + DELETE_BATCH_SIZE)).forEach(home -> form.addParameter(":applyTo", home));
+            tasks.add(() -> {
+                await().ignoreExceptions().untilAsserted(() -> client.doPost(HOME_ROOT, form.build(), HttpStatus.SC_OK));
+                return null;
+            });
+        }
+        run(tasks);
+        created.removeAll(authorizables);
+        authorizables.forEach(authorizable -> groups.remove(authorizable.getId(), authorizable));
+        synchronized (memberships) {
+            memberships.values().forEach(members -> members.removeAll(authorizables));
+        }
+        LOGGER.info("Deleted {} authorizables", homes.size());
+    }
+
+    /**
+     * Remove all the memberships added by this provisioner, then delete all the users and groups it created.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public void removeAll() throws ClientException, InterruptedException {
+        Map<String, List<Authorizable>> added = new LinkedHashMap<>();
+        synchronized (memberships) {
+            memberships.forEach((groupId, members) -> added.put(groupId, new ArrayList<>(members)));
+        }
+        removeMembers(added);
+        delete(new ArrayList<>(created));
+    }
+
+    /**
+     * @return the users and groups created and not deleted yet.
+     */
+    public List<Authorizable> getCreated() {
+        synchronized (created) {
+            return Collections.unmodifiableList(new ArrayList<>(created));
+        }
+    }
+
+    private Group resolve(final String groupId) throws ClientException {
+        Group group = groups.get(groupId);
+        if (group == null) {
+            group = client.getManager().getGroup(groupId);
+            groups.put(groupId, group);
+        }
+        return group;
+    }
+
+    private <T> List<T> run(final List<Callable<T>> tasks) throws ClientException, InterruptedException {
+        return ConcurrencyHelper.run(parallelism, tasks, "Authorizable provisioning failed");
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.Constants;
+import com.adobe.cq.testing.selenium.pageobject.granite.LoginPage;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pre-warmed Chrome user data directory, copied for each local browser session.
+ *
+ * The template is either provided ready to use, or created once per JVM by browsing the warm-up urls
+ * (i.e. editor and console pages) so that clientlibs, Coral assets and local storage preferences are already there.
+ * Each session then starts from its own copy, placed on a tmpfs (/dev/shm) when available to make the copy cheap.
+ *
+ * Before browsing, the warm-up logs in on each instance through the Granite login form, using the warm-up user
+ * (admin by default), so that the pages cached are the authenticated ones and not the login redirect.
+ * The cookies are cleared once the pages are browsed, and cookie stores are not copied to the sessions,
+ * so that each session still logs in as its own test user.
+ * IMS logins are not supported by the warm-up, provide a ready to use template in that case.
+ */
+public final class ChromeProfileTemplate {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChromeProfileTemplate.class);
+
+    public static final String PROFILE_TEMPLATE_PROPERTY = "sel.jup.profile.template";
+    public static final String PROFILE_ROOT_PROPERTY = "sel.jup.profile.root";
+    public static final String WARMUP_URLS_PROPERTY = "sel.jup.profile.warmup.urls";
+    public static final String WARMUP_USER_PROPERTY = "sel.jup.profile.warmup.user";
+    public static final String WARMUP_PASSWORD_PROPERTY = "sel.jup.profile.warmup.password";
+
+    private static final String LOGIN_PAGE_PATH = "/libs/granite/core/content/login.html";
+    private static final Duration LOGIN_TIMEOUT = Duration.ofMillis(Constants.DEFAULT_TIMEOUT);
+
+    private static final String TMPFS_ROOT = "/dev/shm";
+    // Files Chrome uses to lock a profile to one process, never copied
+    private static final List<String> LOCK_FILES = Arrays.asList("SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile");
+    // Cookie stores, never copied so that no login token of the warm-up user can leak into a session
+    private static final List<String> COOKIE_FILES = Arrays.asList("Cookies", "Cookies-journal");
+
+    private static boolean warmed = false;
+
+    private ChromeProfileTemplate() {
+    }
+
+    /**
+     * @return true if a profile template is configured.
+     */
+    public static boolean isEnabled() {
+        return StringUtils.isNotBlank(System.getProperty(PROFILE_TEMPLATE_PROPERTY));
+    }
+
+    /**
+     * @return the template folder, warmed up if needed.
+     */
+    public static synchronized Path getTemplate() {
+        Path template = Paths.get(System.getProperty(PROFILE_TEMPLATE_PROPERTY));
+        List<String> urls = getWarmupUrls();
+        if (!warmed && !urls.isEmpty() && !Files.isDirectory(template)) {
+            warmUp(template, urls);
+        }
+        warmed = true;
+        return template;
+    }
+
+    private static List<String> getWarmupUrls() {
+        return Stream.of(StringUtils.split(System.getProperty(WARMUP_URLS_PROPERTY, ""), ','))
+                .map(String::trim).filter(StringUtils::isNotEmpty).collect(Collectors.toList());
+    }
+
+    private static void warmUp(final Path template, final List<String> urls) {
+        LOG.info("Warming up Chrome profile template {} with {}", template, urls);
+        Path staging = null;
+        try {
+            // Built aside and renamed once complete, so that a failed warm-up is never reused as the template
+            Path parent = template.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            staging = Files.createTempDirectory(parent, template.getFileName() + "-warmup-");
+            browse(staging, urls);
+            Files.move(staging, template, StandardCopyOption.ATOMIC_MOVE);
+            staging = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create Chrome profile template " + template, e);
+        } finally {
+            if (staging != null) {
+                FileUtils.deleteQuietly(staging.toFile());
+            }
+        }
+    }
+
+    private static void browse(final Path userDataDir, final List<String> urls) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new", "--user-data-dir=" + userDataDir.toAbsolutePath());
+        WebDriverManager wdm = WebDriverManager.chromedriver().capabilities(options);
+        WebDriver driver = wdm.create();
+        try {
+            Set<String> origins = new LinkedHashSet<>();
+            urls.forEach(url -> origins.add(getOrigin(url)));
+            origins.forEach(origin -> login(driver, origin));
+            urls.forEach(driver::get);
+            // Sessions must not start authenticated as the warm-up user, LoginPage.loginAs would skip the login
+            origins.forEach(origin -> {
+                driver.get(origin + LOGIN_PAGE_PATH);
+                driver.manage().deleteAllCookies();
+            });
+        } finally {
+            wdm.quit();
+        }
+    }
+
+    private static String getOrigin(final String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    private static void login(final WebDriver driver, final String origin) {
+        driver.get(origin + LOGIN_PAGE_PATH);
+        driver.findElement(By.id("username")).sendKeys(System.getProperty(WARMUP_USER_PROPERTY, Constants.DEFAULT_USER));
+        driver.findElement(By.id("password")).sendKeys(System.getProperty(WARMUP_PASSWORD_PROPERTY, Constants.DEFAULT_PASSWORD));
+        driver.findElement(By.id("submit-button")).click();
+        new WebDriverWait(driver, LOGIN_TIMEOUT)
+                .withMessage("Warm-up login failed on " + origin)
+                .until(d -> d.manage().getCookieNamed(LoginPage.LOGIN_TOKEN) != null);
+    }
+
+    /**
+     * Copy the template for a new browser session.
+     * @return the session user data directory.
+     */
+    public static Path newSessionProfile() {
+        Path template = getTemplate();
+        String root = System.getProperty(PROFILE_ROOT_PROPERTY,
+                Files.isWritable(Paths.get(TMPFS_ROOT)) ? TMPFS_ROOT : System.getProperty("java.io.tmpdir"));
+        try {
+            Path profile = Files.createTempDirectory(Paths.get(root), "chrome-profile-");
+            if (Files.isDirectory(template)) {
+                try (Stream<Path> files = Files.walk(template)) {
+                    files.filter(ChromeProfileTemplate::isCopied)
+                            .forEach(file -> copy(file, profile.resolve(template.relativize(file).toString())));
+                }
+            } else {
+                LOG.warn("Chrome profile template {} not found, starting with an empty profile", template);
+            }
+            LOG.info("Chrome session profile {}", profile);
+            return profile;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create Chrome session profile", e);
+        }
+    }
+
+    private static boolean isCopied(final Path file) {
+        String name = file.getFileName().toString();
+        return !LOCK_FILES.contains(name) && !COOKIE_FILES.contains(name);
+    }
+
+    private static void copy(final Path source, final Path target) {
+        try {
+            if (Files.isDirectory(source)) {
+                Files.createDirectories(target);
+            } else {
+                Files.copy(source, target);
+            }
+        } catch (IOException e) {
+            // Some cache entries can be transient, the profile remains usable without them
+            LOG.debug("Cannot copy profile file {} due to {}", source, e.getMessage());
+        }
+    }
+
+    /**
+     * @param profile session user data directory to remove.
+     */
+    public static void dispose(final Path profile) {
+        if (profile != null) {
+            FileUtils.deleteQuietly(profile.toFile());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import org.apache.sling.testing.clients.ClientException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bounded pool shared by the content helpers to run their requests concurrently.
+ */
+final class ConcurrencyHelper {
+
+    private ConcurrencyHelper() {
+    }
+
+    /**
+     * Run the tasks on at most the given number of threads and wait for all of them.
+     * @param parallelism maximum number of concurrent tasks.
+     * @param tasks tasks to run.
+     * @param failure message of the exception wrapping a task failure which is not a {@link ClientException}.
+     * @param <T> result type.
+     * @return the results, in the tasks order.
+     * @throws ClientException the first task failure, in the tasks order.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    static <T> List<T> run(final int parallelism, final List<? extends Callable<T>> tasks, final String failure)
+            throws ClientException, InterruptedException {
+        List<T> results = new ArrayList<>();
+        if (tasks.isEmpty()) {
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ClientException) {
+                throw (ClientException) e.getCause();
+            }
+            throw new ClientException(failure, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+import org.apache.sling.testing.clients.SlingHttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_RETRY_DELAY;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_TIMEOUT;
+
+/**
+ * Expectations on the repository state, checked together with as few requests as possible.
+ *
+ * The expected nodes are grouped under common ancestors, each group being read with one depth limited json request
+ * ({@code <ancestor>.<depth>.json}), then all the expectations are evaluated locally. When waiting, only the groups
+ * of the unsatisfied expectations are read again. A group with too many nodes to render at once is split per child
+ * of its ancestor.
+ *
+ * <pre>
+ *   new ContentAssertions(client)
+ *       .exists(pagePath)
+ *       .hasProperty(pagePath + "/jcr:content", "jcr:title", "New title")
+ *       .notExists(pagePath + "/jcr:content/root/container/text")
+ *       .awaitSatisfied();
+ * </pre>
+ */
+public final class ContentAssertions {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentAssertions.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int DEFAULT_MAX_DEPTH = 3;
+    // ancestors above /content/site would render whole trees
+    private static final int MIN_ANCESTOR_LEVEL = 2;
+
+    private final SlingClient client;
+    private final List<Expectation> expectations = new ArrayList<>();
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+    private Duration timeout = Duration.ofMillis(DEFAULT_TIMEOUT);
+    private Duration pollInterval = Duration.ofMillis(DEFAULT_RETRY_DELAY);
+    private int requests;
+
+    /**
+     * @param client client allowed to read the paths.
+     */
+    public ContentAssertions(final SlingClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param depth maximum depth of the json requests below a common ancestor, defaults to 3.
+     * @return itself.
+     */
+    public ContentAssertions withMaxDepth(final int depth) {
+        this.maxDepth = Math.max(0, depth);
+        return this;
+    }
+
+    /**
+     * @param maxWait maximum time to wait for all the expectations.
+     * @param interval delay between two polls.
+     * @return itself.
+     */
+    public ContentAssertions withTimeout(final Duration maxWait, final Duration interval) {
+        this.timeout = maxWait;
+        this.pollInterval = interval;
+        return this;
+    }
+
+    /**
+     * @param path node path.
+     * @return itself, expecting the node to exist.
+     */
+    public ContentAssertions exists(final String path) {
+        return expect(path, "exists", node -> node != null, node -> "missing");
+    }
+
+    /**
+     * @param path node path.
+     * @return itself, expecting the node not to exist.
+     */
+    public ContentAssertions notExists(final String path) {
+        return expect(path, "doesn't exist", node -> node == null, node -> "present");
+    }
+
+    /**
+     * @param path node path.
+     * @param name property name, possibly relative i.e. jcr:content/jcr:title.
+     * @return itself, expecting the property to be set.
+     */
+    public ContentAssertions hasProperty(final String path, final String name) {
+        return property(path, name, "is set", value -> value != null);
+    }
+
+    /**
+     * @param path node path.
+     * @param name property name, possibly relative i.e. jcr:content/jcr:title.
+     * @param expected expected value, compared as strings, a collection or an array for multi-valued properties.
+     * @return itself, expecting the property to have this value.
+     */
+    public ContentAssertions hasProperty(final String path, final String name, final Object expected) {
+        List<String> expectedValues = toStrings(expected);
+        String description = "is " + (expectedValues.size() == 1 ? expectedValues.get(0) : expectedValues);
+        return property(path, name, description, value -> value != null && expectedValues.equals(toStrings(value)));
+    }
+
+    /**
+     * @param path node path.
+     * @param name property name, possibly relative i.e. jcr:content/jcr:title.
+     * @return itself, expecting the property not to be set, or the node not to exist.
+     */
+    public ContentAssertions lacksProperty(final String path, final String name) {
+        String[] split = split(path, name);
+        return expect(split[0], split[1] + " is not set", node -> node == null || !node.has(split[1]),
+            node -> String.valueOf(node.get(split[1])));
+    }
+
+    /**
+     * Check all the expectations once.
+     * @throws ClientException if a request fails.
+     * @throws AssertionError listing all the unsatisfied expectations.
+     */
+    public void verify() throws ClientException {
+        List<Expectation> failed = evaluate(expectations);
+        if (!failed.isEmpty()) {
+            throw new AssertionError(describe(failed));
+        }
+    }
+
+    /**
+     * Check the expectations until they are all satisfied, reading again only the unsatisfied ones.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws AssertionError listing the expectations still unsatisfied after the timeout.
+     */
+    public void awaitSatisfied() throws ClientException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        List<Expectation> pending = evaluate(expectations);
+        int polls = 1;
+        while (!pending.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("After " + timeout.toMillis() + " ms, " + describe(pending));
+            }
+            Thread.sleep(pollInterval.toMillis());
+            pending = evaluate(pending);
+            polls++;
+        }
+        LOGGER.info("{} expectations satisfied after {} polls and {} requests in {} ms", expectations.size(), polls,
+            requests, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * @return the number of json requests sent.
+     */
+    public int getRequestCount() {
+        return requests;
+    }
+
+    private ContentAssertions property(final String path, final String name, final String description,
+                                       final Predicate<JsonNode> check) {
+        String[] split = split(path, name);
+        return expect(split[0], split[1] + " " + description, node -> node != null && check.test(node.get(split[1])),
+            node -> node == null ? "missing node" : String.valueOf(node.get(split[1])));
+    }
+
+    private ContentAssertions expect(final String path, final String description, final Predicate<JsonNode> check,
+                                     final Function<JsonNode, String> actual) {
+        expectations.add(new Expectation(normalize(path), description, check, actual));
+        return this;
+    }
+
+    private List<Expectation> evaluate(final List<Expectation> toCheck) throws ClientException {
+        Map<String, JsonNode> nodes = new LinkedHashMap<>();
+        List<String> paths = toCheck.stream().map(e -> e.path).collect(Collectors.toList());
+        for (Map.Entry<String, List<String>> group : plan(paths).entrySet()) {
+            read(group.getKey(), group.getValue(), nodes);
+        }
+        List<Expectation> failed = new ArrayList<>();
+        for (Expectation expectation : toCheck) {
+            expectation.last = nodes.get(expectation.path);
+            if (!expectation.check.test(expectation.last)) {
+                failed.add(expectation);
+            }
+        }
+        return failed;
+    }
+
+    // common ancestor -> node paths read through it
+    Map<String, List<String>> plan(final Collection<String> nodePaths) {
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String path : new TreeSet<>(nodePaths)) {
+            boolean merged = false;
+            for (Map.Entry<String, List<String>> group : new ArrayList<>(groups.entrySet())) {
+                String ancestor = commonAncestor(group.getKey(), path);
+                List<String> paths = new ArrayList<>(group.getValue());
+                paths.add(path);
+                if (level(ancestor) >= MIN_ANCESTOR_LEVEL && depth(ancestor, paths) <= maxDepth) {
+                    groups.remove(group.getKey());
+                    groups.merge(ancestor, paths, (a, b) -> {
+                        a.addAll(b);
+                        return a;
+                    });
+                    merged = true;
+                    break;
+                }
+            }
+            if (!merged) {
+                groups.computeIfAbsent(path, k -> new ArrayList<>()).add(path);
+            }
+        }
+        return groups;
+    }
+
+    private void read(final String ancestor, final List<String> paths, final Map<String, JsonNode> nodes)
+            throws ClientException {
+        int depth = depth(ancestor, paths);
+        SlingHttpResponse response = client.doGet(ancestor + (depth > 0 ? "." + depth : "") + ".json",
+            HttpStatus.SC_OK, HttpStatus.SC_NOT_FOUND, HttpStatus.SC_MULTIPLE_CHOICES);
+        requests++;
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+            return;
+        }
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_MULTIPLE_CHOICES) {
+            // too many nodes below the ancestor, each child subtree is read on its own
+            for (Map.Entry<String, List<String>> group : split(ancestor, paths).entrySet()) {
+                read(group.getKey(), group.getValue(), nodes);
+            }
+            return;
+        }
+        JsonNode tree;
+        try {
+            tree = MAPPER.readTree(response.getContent());
+        } catch (IOException e) {
+            throw new ClientException("Cannot parse the json of " + ancestor, e);
+        }
+        for (String path : paths) {
+            JsonNode node = tree;
+            String relative = path.substring(ancestor.length());
+            for (String segment : relative.isEmpty() ? new String[0] : relative.substring(1).split("/")) {
+                node = node != null && node.path(segment).isObject() ? node.get(segment) : null;
+            }
+            if (node != null) {
+                nodes.put(path, node);
+            }
+        }
+    }
+
+    // child of the ancestor -> node paths below it, keyed by their deepest common ancestor
+    private static Map<String, List<String>> split(final String ancestor, final List<String> paths) {
+        String prefix = "/".equals(ancestor) ? ancestor : ancestor + "/";
+        Map<String, List<String>> byChild = new LinkedHashMap<>();
+        for (String path : paths) {
+            String child = path.equals(ancestor) ? ancestor
+                : prefix + path.substring(prefix.length()).split("/")[0];
+            byChild.computeIfAbsent(child, k -> new ArrayList<>()).add(path);
+        }
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        byChild.values().forEach(group -> groups.merge(group.stream().reduce(ContentAssertions::commonAncestor)
+            .orElse(ancestor), group, (a, b) -> {
+                a.addAll(b);
+                return a;
+            }));
+        return groups;
+    }
+
+    private static String describe(final List<Expectation> failed) {
+        return failed.size() + " unsatisfied expectations:\n" + failed.stream()
+            .map(e -> e.path + " " + e.description + ", but was " + e.actual.apply(e.last))
+            .collect(Collectors.joining("\n"));
+    }
+
+    private static List<String> toStrings(final Object value) {
+        List<String> values = new ArrayList<>();
+        if (value instanceof JsonNode && ((JsonNode) value).isArray()) {
+            ((JsonNode) value).forEach(item -> values.add(item.asText()));
+        } else if (value instanceof JsonNode) {
+            values.add(((JsonNode) value).asText());
+        } else if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(item -> values.add(String.valueOf(item)));
+        } else if (value instanceof Object[]) {
+            Arrays.stream((Object[]) value).forEach(item -> values.add(String.valueOf(item)));
+        } else {
+            values.add(String.valueOf(value));
+        }
+        return values;
+    }
+
+    private static String[] split(final String path, final String name) {
+        int slash = name.lastIndexOf('/');
+        return slash > 0 ? new String[] { path + "/" + name.substring(0, slash), name.substring(slash + 1) }
+            : new String[] { path, name };
+    }
+
+    private static String normalize(final String path) {
+        String normalized = path.replaceAll("/+", "/");
+        return normalized.length() > 1 && normalized.endsWith("/")
+            ? normalized.substring(0, normalized.length() - 1) : normalized;
+    }
+
+    private static String commonAncestor(final String first, final String second) {
+        String[] a = first.split("/");
+        String[] b = second.split("/");
+        StringBuilder ancestor = new StringBuilder();
+        for (int i = 1; i < Math.min(a.length, b.length) && a[i].equals(b[i]); i++) {
+            ancestor.append('/').append(a[i]);
+        }
+        return ancestor.length() > 0 ? ancestor.toString() : "/";
+    }
+
+    private static int level(final String path) {
+        return "/".equals(path) ? 0 : path.split("/").length - 1;
+    }
+
+    private static int depth(final String ancestor, final List<String> paths) {
+        return paths.stream().mapToInt(path -> level(path) - level(ancestor)).max().orElse(0);
+    }
+
+    private static final class Expectation {
+        private final String path;
+        private final String description;
+        private final Predicate<JsonNode> check;
+        private final Function<JsonNode, String> actual;
+        private JsonNode last;
+
+        private Expectation(final String path, final String description, final Predicate<JsonNode> check,
+                            final Function<JsonNode, String> actual) {
+            this.path = path;
+            this.description = description;
+            this.check = check;
+            this.actual = actual;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.http.HttpStatus;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generate large page trees or DAM folder trees for scale tests of the consoles, on top of a {@link TestContentBuilder}.
+ *
+ * The tree is described by its fan-out per level, i.e. {@code 100, 100} is 100 pages with 100 child pages each.
+ * It is created with Sling import requests of up to {@link #withBatchSize(int) batch size} nodes, sent in parallel
+ * by a bounded pool, level by level only where a subtree doesn't fit in one batch.
+ *
+ * <pre>
+ *   ContentGenerator.Generated pages = new ContentGenerator(builder).generatePages("scale", 100, 100);
+ *   ...
+ *   new ContentGenerator(builder).delete(pages);
+ * </pre>
+ */
+public final class ContentGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentGenerator.class);
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final String PAGE_RESOURCE_TYPE = "wcm/foundation/components/page";
+
+    private final TestContentBuilder builder;
+    private final CQClient client;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * @param builder test content builder providing the client, the roots and the page template.
+     */
+    public ContentGenerator(final TestContentBuilder builder) {
+        this.builder = builder;
+        this.client = builder.getClient();
+    }
+
+    /**
+     * @param threads maximum number of concurrent requests, defaults to 4.
+     * @return itself.
+     */
+    public ContentGenerator withParallelism(final int threads) {
+        this.parallelism = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * @param nodes maximum number of pages or folders per import request, defaults to 500.
+     * @return itself.
+     */
+    public ContentGenerator withBatchSize(final int nodes) {
+        this.batchSize = Math.max(1, nodes);
+        return this;
+    }
+
+    /**
+     * Generate a page tree under the content root of the builder.
+     * @param name name of the root page.
+     * @param fanOut number of child pages per level.
+     * @return the generated tree.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public Generated generatePages(final String name, final int... fanOut) throws ClientException, InterruptedException {
+        return generatePages(builder.getContentRootPath(), name, fanOut);
+    }
+
+    /**
+     * @param parentPath existing parent path.
+     * @param name name of the root page.
+     * @param fanOut number of child pages per level.
+     * @return the generated tree.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public Generated generatePages(final String parentPath, final String name, final int... fanOut)
+            throws ClientException, InterruptedException {
+        return generate(Kind.PAGE, parentPath, name, fanOut);
+    }
+
+    /**
+     * Generate a DAM folder tree under the DAM root of the builder.
+     * @param name name of the root folder.
+     * @param fanOut number of child folders per level.
+     * @return the generated tree.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public Generated generateDamFolders(final String name, final int... fanOut) throws ClientException, InterruptedException {
+        return generateDamFolders(builder.getDamRootPath(), name, fanOut);
+    }
+
+    /**
+     * @param parentPath existing parent path.
+     * @param name name of the root folder.
+     * @param fanOut number of child folders per level.
+     * @return the generated tree.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public Generated generateDamFolders(final String parentPath, final String name, final int... fanOut)
+            throws ClientException, InterruptedException {
+        return generate(Kind.FOLDER, parentPath, name, fanOut);
+    }
+
+    /**
+     * Delete a generated tree, its first level subtrees in parallel batches then its root.
+     * @param generated the generated tree.
+     * @return the deleted tree, with the teardown duration.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public Generated delete(final Generated generated) throws ClientException, InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger requests = new AtomicInteger();
+        int[] fanOut = generated.fanOut;
+        List<Callable<Void>> tasks = new ArrayList<>();
+        if (fanOut.length > 0) {
+            int childrenPerRequest = Math.max(1, batchSize / subtreeSize(fanOut, 1));
+            for (int first = 0; first < fanOut[0]; first += childrenPerRequest) {
+                FormEntityBuilder form = FormEntityBuilder.create().addParameter(":operation", "delete");
+                for (int i = first; i < Math.min(fanOut[0], first + childrenPerRequest); i++) {
+                    form.addParameter(":applyTo", generated.kind.childName(i));
+                }
+                tasks.add(() -> {
+                    client.doPost(generated.rootPath, form.build(), HttpStatus.SC_OK);
+                    requests.incrementAndGet();
+                    return null;
+                });
+            }
+        }
+        run(tasks);
+        client.deletePath(generated.rootPath, HttpStatus.SC_OK);
+        requests.incrementAndGet();
+        Generated deleted = new Generated(generated.kind, generated.rootPath, fanOut, requests.get(), System.nanoTime() - start);
+        LOGGER.info("Deleted {}", deleted);
+        return deleted;
+    }
+
+    private Generated generate(final Kind kind, final String parentPath, final String name, final int... fanOut)
+            throws ClientException, InterruptedException {
+        if (parentPath == null) {
+            throw new IllegalStateException("No parent path, build the test content first");
+        }
+        long start = System.nanoTime();
+        AtomicInteger requests = new AtomicInteger();
+        String rootPath = parentPath + "/" + name;
+        // the root alone first, or the whole tree if it fits in a batch
+        final boolean rootOnly = subtreeSize(fanOut, 0) > batchSize;
+        importJson(parentPath, generator -> {
+            generator.writeFieldName(name);
+            writeNode(generator, kind, name, fanOut, rootOnly ? fanOut.length : 0);
+        });
+        requests.incrementAndGet();
+
+        List<String> parents = new ArrayList<>();
+        parents.add(rootPath);
+        boolean complete = !rootOnly;
+        for (int level = 0; !complete && level < fanOut.length; level++) {
+            final int depth = level;
+            int childSize = subtreeSize(fanOut, depth + 1);
+            // whole subtrees when a child one fits in a batch, otherwise the children alone and the next level after
+            boolean lastLevel = childSize <= batchSize;
+            int childrenPerRequest = lastLevel ? batchSize / childSize : batchSize;
+            List<Callable<Void>> tasks = new ArrayList<>();
+            List<String> nextParents = new ArrayList<>();
+            for (String parent : parents) {
+                for (int first = 0; first < fanOut[depth]; first += childrenPerRequest) {
+                    final int from = first;
+                    final int to = Math.min(fanOut[depth], first + childrenPerRequest);
+                    tasks.add(() -> {
+                        importJson(parent, generator -> {
+                            for (int i = from; i < to; i++) {
+                                generator.writeFieldName(kind.childName(i));
+                                writeNode(generator, kind, kind.childTitle(i), fanOut, lastLevel ? depth + 1 : fanOut.length);
+                            }
+                        });
+                        requests.incrementAndGet();
+                        return null;
+                    });
+                }
+                if (!lastLevel) {
+                    for (int i = 0; i < fanOut[depth]; i++) {
+                        nextParents.add(parent + "/" + kind.childName(i));
+                    }
+                }
+            }
+            run(tasks);
+            complete = lastLevel;
+            parents = nextParents;
+        }
+        Generated generated = new Generated(kind, rootPath, fanOut, requests.get(), System.nanoTime() - start);
+        LOGGER.info("Generated {}", generated);
+        return generated;
+    }
+
+    /**
+     * @return the number of pages or folders of a subtree whose root is at the given level.
+     */
+    private static int subtreeSize(final int[] fanOut, final int level) {
+        long size = 1;
+        for (int i = fanOut.length - 1; i >= level; i--) {
+            size = 1 + fanOut[i] * size;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    private void writeNode(final JsonGenerator generator, final Kind kind, final String title, final int[] fanOut,
+                           final int level) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("jcr:primaryType", kind.primaryType);
+        generator.writeObjectFieldStart("jcr:content");
+        generator.writeStringField("jcr:primaryType", kind.contentType);
+        generator.writeStringField("jcr:title", title);
+        if (kind == Kind.PAGE) {
+            generator.writeStringField("sling:resourceType", PAGE_RESOURCE_TYPE);
+            if (builder.getDefaultPageTemplatePath() != null) {
+                generator.writeStringField("cq:template", builder.getDefaultPageTemplatePath());
+            }
+        }
+        generator.writeEndObject();
+        if (level < fanOut.length) {
+            for (int i = 0; i < fanOut[level]; i++) {
+                generator.writeFieldName(kind.childName(i));
+                writeNode(generator, kind, kind.childTitle(i), fanOut, level + 1);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void importJson(final String parentPath, final JsonWriter writer) throws ClientException {
+        StringWriter content = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(content)) {
+            generator.writeStartObject();
+            writer.write(generator);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // no :name, the children are merged into the existing parent
+        client.doPost(parentPath, FormEntityBuilder.create()
+            .addParameter(":operation", "import")
+            .addParameter(":contentType", "json")
+            .addParameter(":content", content.toString())
+            .build(), HttpStatus.SC_CREATED);
+    }
+
+    private void run(final List<Callable<Void>> tasks) throws ClientException, InterruptedException {
+        ConcurrencyHelper.run(parallelism, tasks, "Content generation failed");
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private enum Kind {
+        PAGE("cq:Page", "cq:PageContent", "page", "Page"),
+        FOLDER("sling:OrderedFolder", "nt:unstructured", "folder", "Folder");
+
+        private final String primaryType;
+        private final String contentType;
+        private final String namePrefix;
+        private final String titlePrefix;
+
+        Kind(final String primaryType, final String contentType, final String namePrefix, final String titlePrefix) {
+            this.primaryType = primaryType;
+            this.contentType = contentType;
+            this.namePrefix = namePrefix;
+            this.titlePrefix = titlePrefix;
+        }
+
+        String childName(final int index) {
+            return namePrefix + "-" + index;
+        }
+
+        String childTitle(final int index) {
+            return titlePrefix + " " + index;
+        }
+    }
+
+    /**
+     * A generated tree, with the throughput of its generation or deletion.
+     */
+    public static final class Generated {
+
+        private final Kind kind;
+        private final String rootPath;
+        private final int[] fanOut;
+        private final int requests;
+        private final long nanos;
+
+        private Generated(final Kind kind, final String rootPath, final int[] fanOut, final int requests, final long nanos) {
+            this.kind = kind;
+            this.rootPath = rootPath;
+            this.fanOut = fanOut.clone();
+            this.requests = requests;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return path of the root page or folder.
+         */
+        public String getRootPath() {
+            return rootPath;
+        }
+
+        /**
+         * @param indexes child index per level, i.e. 3, 7 for the 8th child of the 4th child of the root.
+         * @return the path of that page or folder.
+         */
+        public String getPath(final int... indexes) {
+            StringBuilder path = new StringBuilder(rootPath);
+            Arrays.stream(indexes).forEach(i -> path.append('/').append(kind.childName(i)));
+            return path.toString();
+        }
+
+        /**
+         * @return number of pages or folders, root included, their jcr:content nodes aren't counted.
+         */
+        public int getNodes() {
+            return subtreeSize(fanOut, 0);
+        }
+
+        /**
+         * @return number of requests sent.
+         */
+        public int getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return the time it took.
+         */
+        public Duration getDuration() {
+            return Duration.ofNanos(nanos);
+        }
+
+        /**
+         * @return the throughput in pages or folders per second.
+         */
+        public double getNodesPerSecond() {
+            return nanos > 0 ? getNodes() * 1e9 / nanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d nodes, %d requests in %d ms (%.0f nodes/s)",
+                rootPath, getNodes(), requests, getDuration().toMillis(), getNodesPerSecond());
+        }
+    }
+}
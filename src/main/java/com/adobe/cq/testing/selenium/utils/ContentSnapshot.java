@@ -0,0 +1,303 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingHttpResponse;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JSON export of content roots, restored in place after each test instead of rebuilding them.
+ *
+ * Each root is rendered once with its {@code .infinity.json}, and the {@code jcr:lastModified} / {@code cq:lastModified}
+ * of all its descendants are recorded with a single QueryBuilder request. {@link #restore()} runs the same request
+ * again: the direct children of a root containing an added, removed or modified node are replaced by their export,
+ * the children added by the test are deleted.
+ *
+ * The JSON rendering only gives the length of binary properties, so the children holding binaries (files, assets)
+ * are copied under {@value #BACKUP_PATH} instead, copied back when changed and removed by {@link #dispose()}.
+ *
+ * Only changes stamping a last modified date are detected.
+ * The root nodes themselves are not restored, changes to their own properties are not detected.
+ */
+public final class ContentSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentSnapshot.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String JCR_PATH = "jcr:path";
+    private static final String[] STAMPS = { "jcr:lastModified", "cq:lastModified" };
+    private static final int DELETE_BATCH_SIZE = 50;
+    private static final String BACKUP_PATH = "/tmp/contentsnapshots";
+    private static final Set<String> BINARY_TYPES = new HashSet<>(Arrays.asList("nt:file", "nt:resource", "dam:Asset"));
+
+    private final CQClient client;
+    private final Map<String, Root> roots = new LinkedHashMap<>();
+    private String backupPath;
+    private int backupCount;
+    private int restoredUnits;
+    private int requests;
+
+    private ContentSnapshot(final CQClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param client client with read and write access to the roots.
+     * @param rootPaths paths of the roots to capture.
+     * @return the snapshot of the roots.
+     * @throws ClientException if a request fails.
+     */
+    public static ContentSnapshot capture(final CQClient client, final List<String> rootPaths) throws ClientException {
+        ContentSnapshot snapshot = new ContentSnapshot(client);
+        try {
+            for (String rootPath : rootPaths) {
+                Root root = new Root(rootPath, snapshot.export(rootPath));
+                snapshot.roots.put(rootPath, root);
+                snapshot.backup(root);
+                root.stamps = snapshot.stamps(rootPath);
+                LOGGER.info("Captured {} ({} nodes, {} backed up)", rootPath, root.stamps.size(), root.backups.size());
+            }
+        } catch (ClientException e) {
+            snapshot.dispose();
+            throw e;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Restore the children of the roots changed since the capture or the previous restore.
+     * @return the paths of the restored or deleted children.
+     * @throws ClientException if a request fails.
+     */
+    public List<String> restore() throws ClientException {
+        List<String> restored = new ArrayList<>();
+        for (Root root : roots.values()) {
+            Map<String, String> current = stamps(root.path);
+            Set<String> changed = changedChildren(root, current);
+            if (changed.isEmpty()) {
+                continue;
+            }
+            List<String> added = new ArrayList<>();
+            for (String child : changed) {
+                JsonNode export = root.export.get(child);
+                if (root.backups.containsKey(child)) {
+                    copy(root.backups.get(child), root.path + "/" + child);
+                } else if (export != null && export.isObject()) {
+                    replace(root.path, child, export);
+                } else {
+                    added.add(root.path + "/" + child);
+                }
+                restored.add(root.path + "/" + child);
+            }
+            delete(root.path, added);
+            root.stamps = stamps(root.path);
+        }
+        restoredUnits += restored.size();
+        if (!restored.isEmpty()) {
+            LOGGER.info("Restored {}", restored);
+        }
+        return restored;
+    }
+
+    /**
+     * Remove the copies of the children holding binaries, the snapshot cannot be restored anymore.
+     * @throws ClientException if the copies cannot be removed.
+     */
+    public void dispose() throws ClientException {
+        if (backupPath != null) {
+            client.doPost(backupPath, FormEntityBuilder.create().addParameter(":operation", "delete").build(),
+                HttpStatus.SC_OK, HttpStatus.SC_NOT_FOUND);
+            requests++;
+            backupPath = null;
+        }
+        roots.values().forEach(root -> root.backups.clear());
+    }
+
+    /**
+     * @return the number of children restored or deleted since the capture.
+     */
+    public int getRestoredCount() {
+        return restoredUnits;
+    }
+
+    /**
+     * @return the number of requests sent since the capture.
+     */
+    public int getRequestCount() {
+        return requests;
+    }
+
+    private JsonNode export(final String path) throws ClientException {
+        SlingHttpResponse response = client.doGet(path + ".infinity.json", HttpStatus.SC_OK, HttpStatus.SC_MULTIPLE_CHOICES);
+        requests++;
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
+            return read(response);
+        }
+        // too many nodes to render at once, export each child separately, down to the subtrees small enough
+        ObjectNode export = (ObjectNode) read(client.doGet(path + ".1.json", HttpStatus.SC_OK));
+        requests++;
+        List<String> children = new ArrayList<>();
+        export.fields().forEachRemaining(field -> {
+            if (field.getValue().isObject()) {
+                children.add(field.getKey());
+            }
+        });
+        for (String child : children) {
+            export.set(child, export(path + "/" + child));
+        }
+        return export;
+    }
+
+    private void backup(final Root root) throws ClientException {
+        Iterator<Map.Entry<String, JsonNode>> children = root.export.fields();
+        while (children.hasNext()) {
+            Map.Entry<String, JsonNode> child = children.next();
+            if (!child.getValue().isObject() || !holdsBinaries(child.getValue())) {
+                continue;
+            }
+            if (backupPath == null) {
+                backupPath = BACKUP_PATH + "/" + UUID.randomUUID();
+                client.doPost(backupPath, FormEntityBuilder.create().addParameter("jcr:primaryType", "sling:Folder").build(),
+                    HttpStatus.SC_CREATED);
+                requests++;
+            }
+            String backup = backupPath + "/" + backupCount++;
+            copy(root.path + "/" + child.getKey(), backup);
+            root.backups.put(child.getKey(), backup);
+        }
+    }
+
+    private Map<String, String> stamps(final String rootPath) throws ClientException {
+        List<NameValuePair> parameters = new ArrayList<>();
+        parameters.add(new BasicNameValuePair("path", rootPath));
+        parameters.add(new BasicNameValuePair("p.limit", "-1"));
+        parameters.add(new BasicNameValuePair("p.hits", "selective"));
+        parameters.add(new BasicNameValuePair("p.properties", JCR_PATH + " " + String.join(" ", STAMPS)));
+        JsonNode hits = QueryBuilderHelper.query(client, parameters);
+        requests++;
+        Map<String, String> stamps = new LinkedHashMap<>();
+        for (JsonNode hit : hits) {
+            StringBuilder stamp = new StringBuilder();
+            for (String property : STAMPS) {
+                stamp.append(hit.path(property).asText()).append('|');
+            }
+            stamps.put(hit.path(JCR_PATH).asText(), stamp.toString());
+        }
+        return stamps;
+    }
+
+    private static Set<String> changedChildren(final Root root, final Map<String, String> current) {
+        Set<String> changed = new LinkedHashSet<>();
+        Set<String> paths = new LinkedHashSet<>(root.stamps.keySet());
+        paths.addAll(current.keySet());
+        for (String path : paths) {
+            if (!Objects.equals(root.stamps.get(path), current.get(path)) && path.startsWith(root.path + "/")) {
+                String relative = path.substring(root.path.length() + 1);
+                changed.add(relative.contains("/") ? relative.substring(0, relative.indexOf('/')) : relative);
+            }
+        }
+        return changed;
+    }
+
+    private void replace(final String rootPath, final String child, final JsonNode export) throws ClientException {
+        client.doPost(rootPath, FormEntityBuilder.create()
+            .addParameter(":operation", "import")
+            .addParameter(":contentType", "json")
+            .addParameter(":name", child)
+            .addParameter(":replace", "true")
+            .addParameter(":content", export.toString())
+            .build(), HttpStatus.SC_CREATED);
+        requests++;
+    }
+
+    private void copy(final String source, final String destination) throws ClientException {
+        client.doPost(source, FormEntityBuilder.create()
+            .addParameter(":operation", "copy")
+            .addParameter(":dest", destination)
+            .addParameter(":replace", "true")
+            .build(), HttpStatus.SC_OK, HttpStatus.SC_CREATED);
+        requests++;
+    }
+
+    private void delete(final String rootPath, final List<String> paths) throws ClientException {
+        for (int first = 0; first < paths.size(); first += DELETE_BATCH_SIZE) {
+            FormEntityBuilder form = FormEntityBuilder.create().addParameter(":operation", "delete");
+            paths.subList(first, Math.min(paths.size(), first + DELETE_BATCH_SIZE)).forEach(path -> form.addParameter(":applyTo", path));
+            client.doPost(rootPath, form.build(), HttpStatus.SC_OK);
+            requests++;
+        }
+    }
+
+    // binary properties are rendered as ":name": length, which the import would not turn back into binaries
+    private static boolean holdsBinaries(final JsonNode node) {
+        if (BINARY_TYPES.contains(node.path("jcr:primaryType").asText())) {
+            return true;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().startsWith(":") || field.getValue().isObject() && holdsBinaries(field.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JsonNode read(final SlingHttpResponse response) throws ClientException {
+        try {
+            return MAPPER.readTree(response.getContent());
+        } catch (IOException e) {
+            throw new ClientException("Cannot parse the JSON response", e);
+        }
+    }
+
+    private static final class Root {
+        private final String path;
+        private final JsonNode export;
+        private final Map<String, String> backups = new LinkedHashMap<>();
+        private Map<String, String> stamps = Collections.emptyMap();
+
+        private Root(final String path, final JsonNode export) {
+            this.path = path;
+            this.export = export;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.adobe.cq.testing.selenium.Constants.CONTENT_DAM;
+import static com.adobe.cq.testing.selenium.Constants.CONTENT_ROOT;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_PASSWORD;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_RETRY_DELAY;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_SMALL_SIZE;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_TIMEOUT;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_USER;
+import static com.adobe.cq.testing.selenium.Constants.HOME_GROUPS;
+import static com.adobe.cq.testing.selenium.Constants.HOME_USERS;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Remove the test content left over by runs that never reached {@link TestContentBuilder#dispose()}.
+ *
+ * The {prefix}_[randomSuffix] labels are listed with one query per root. Under /conf, /content, /content/dam and
+ * /content/cq:tags only the nodes stamped with the {@value TestContentBuilder#MARKER_PROPERTY} property of their own
+ * label are considered. The /home/users and /home/groups folders cannot be stamped, they are only considered when
+ * prefixes are given, and must then be named exactly {prefix}_[randomSuffix].
+ *
+ * A label is stale when all its dated nodes were created before the maximum age, labels without any dated node are
+ * left alone. The stale nodes are then deleted per root in batched requests, with bounded parallelism and retries,
+ * along with their /var/audit trails.
+ *
+ * It can run standalone, {@code java ... ContentSweeper http://localhost:4502/ admin admin}, or at suite start
+ * with the {@link com.adobe.cq.testing.selenium.junit.extensions.ContentSweeperExtension}, which only reports
+ * unless {@value #ENABLED_PROPERTY} is set.
+ */
+public final class ContentSweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentSweeper.class);
+
+    public static final String MAX_AGE_PROPERTY = "sel.sweep.maxAge";
+    public static final String DRY_RUN_PROPERTY = "sel.sweep.dryRun";
+    /**
+     * System property allowing the {@link com.adobe.cq.testing.selenium.junit.extensions.ContentSweeperExtension}
+     * to delete, it only reports otherwise.
+     */
+    public static final String ENABLED_PROPERTY = "sel.sweep.enabled";
+
+    private static final List<String> MARKED_ROOTS = Collections.unmodifiableList(Arrays.asList(
+        "/conf", CONTENT_ROOT, CONTENT_DAM, "/content/cq:tags"));
+    private static final List<String> HOME_ROOTS = Collections.unmodifiableList(Arrays.asList(
+        HOME_USERS.replaceAll("/$", ""), HOME_GROUPS.replaceAll("/$", "")));
+    private static final List<String> AUDITED_ROOTS = Arrays.asList("/conf", CONTENT_ROOT, CONTENT_DAM);
+    private static final String SUFFIX = "_[a-z]{" + DEFAULT_SMALL_SIZE + "}";
+    private static final Pattern LABEL = Pattern.compile("^(.+" + SUFFIX + ")$", Pattern.CASE_INSENSITIVE);
+    private static final String AUDIT_ROOT = "/var/audit";
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofDays(1);
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int DELETE_BATCH_SIZE = 50;
+
+    private final CQClient client;
+    private Duration maxAge = DEFAULT_MAX_AGE;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private boolean dryRun;
+    private List<String> prefixes = Collections.emptyList();
+
+    /**
+     * @param client client allowed to delete under all the roots.
+     */
+    public ContentSweeper(final CQClient client) {
+        this.client = client;
+        String age = System.getProperty(MAX_AGE_PROPERTY);
+        if (age != null && !age.isEmpty()) {
+            this.maxAge = Duration.parse(age);
+        }
+        this.dryRun = Boolean.parseBoolean(System.getProperty(DRY_RUN_PROPERTY, "false"));
+    }
+
+    /**
+     * @param age labels created since less than this are kept, defaults to one day or {@value #MAX_AGE_PROPERTY}
+     *            as an ISO-8601 duration (i.e. PT6H).
+     * @return itself.
+     */
+    public ContentSweeper withMaxAge(final Duration age) {
+        this.maxAge = age;
+        return this;
+    }
+
+    /**
+     * @param threads maximum number of concurrent delete requests, defaults to 4.
+     * @return itself.
+     */
+    public ContentSweeper withParallelism(final int threads) {
+        this.parallelism = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * @param enabled only report what would be removed.
+     * @return itself.
+     */
+    public ContentSweeper withDryRun(final boolean enabled) {
+        this.dryRun = enabled;
+        return this;
+    }
+
+    /**
+     * @param labelPrefixes only sweep the labels made of one of these prefixes (case insensitive), i.e. the test names,
+     *                      followed by the random suffix. Required to sweep the users and groups.
+     * @return itself.
+     */
+    public ContentSweeper withPrefixes(final String... labelPrefixes) {
+        this.prefixes = Arrays.stream(labelPrefixes).map(p -> p.toLowerCase(Locale.ENGLISH)).collect(Collectors.toList());
+        return this;
+    }
+
+    /**
+     * Discover and delete the stale labels.
+     * @return what was removed, or would be on a dry run.
+     * @throws ClientException if a root cannot be queried.
+     * @throws InterruptedException if interrupted while deleting.
+     */
+    public Report sweep() throws ClientException, InterruptedException {
+        long start = System.nanoTime();
+        Instant limit = Instant.now().minus(maxAge);
+        // label -> path per root, and the newest creation date of the label
+        Map<String, Map<String, List<String>>> pathsByLabel = new TreeMap<>();
+        Map<String, Instant> newest = new LinkedHashMap<>();
+        List<String> roots = new ArrayList<>(MARKED_ROOTS);
+        if (!prefixes.isEmpty()) {
+            roots.addAll(HOME_ROOTS);
+        }
+        for (String root : roots) {
+            boolean marked = MARKED_ROOTS.contains(root);
+            for (JsonNode hit : query(root, marked)) {
+                String path = hit.path("jcr:path").asText();
+                String label = label(path.substring(path.lastIndexOf('/') + 1),
+                    marked ? hit.path(TestContentBuilder.MARKER_PROPERTY).asText(null) : null, marked);
+                if (label == null) {
+                    continue;
+                }
+                pathsByLabel.computeIfAbsent(label, l -> new LinkedHashMap<>())
+                    .computeIfAbsent(root, r -> new ArrayList<>()).add(path);
+                Instant created = QueryBuilderHelper.parseDate(hit.path("jcr:created").asText(null));
+                if (created != null && (newest.get(label) == null || created.isAfter(newest.get(label)))) {
+                    newest.put(label, created);
+                }
+            }
+        }
+
+        Report report = new Report(dryRun);
+        Map<String, List<String>> staleByRoot = new LinkedHashMap<>();
+        pathsByLabel.forEach((label, paths) -> {
+            Instant created = newest.get(label);
+            if (created == null || created.isAfter(limit)) {
+                report.kept.add(label);
+                return;
+            }
+            paths.forEach((root, rootPaths) -> staleByRoot.computeIfAbsent(root, r -> new ArrayList<>()).addAll(rootPaths));
+        });
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        staleByRoot.forEach((root, paths) -> {
+            report.removed.put(root, paths);
+            for (int i = 0; i < paths.size(); i += DELETE_BATCH_SIZE) {
+                List<String> batch = paths.subList(i, Math.min(paths.size(), i + DELETE_BATCH_SIZE));
+                List<String> audits = AUDITED_ROOTS.contains(root) ? auditPaths(batch) : Collections.emptyList();
+                tasks.add(() -> {
+                    delete(root, batch, report);
+                    if (!audits.isEmpty()) {
+                        delete(AUDIT_ROOT, audits, report);
+                    }
+                    return null;
+                });
+            }
+        });
+        if (!dryRun) {
+            run(tasks);
+        }
+        report.nanos = System.nanoTime() - start;
+        LOGGER.info("{}", report);
+        return report;
+    }
+
+    /**
+     * @param name node name.
+     * @param marker the marker property value, null for unmarked nodes.
+     * @param marked true if the node must carry the marker of its own label.
+     * @return the lower case label of a sweepable node, null if it must be left alone.
+     */
+    private String label(final String name, final String marker, final boolean marked) {
+        String lower = name.toLowerCase(Locale.ENGLISH);
+        if (marked) {
+            // the conf, tag and content roots are named after the label, lower cased or not
+            if (marker == null || !lower.equals(marker.toLowerCase(Locale.ENGLISH)) || !LABEL.matcher(name).matches()) {
+                return null;
+            }
+            return prefixes.isEmpty() || hasPrefix(lower) ? lower : null;
+        }
+        return !prefixes.isEmpty() && hasPrefix(lower) ? lower : null;
+    }
+
+    private boolean hasPrefix(final String label) {
+        return prefixes.stream().anyMatch(p -> label.matches(Pattern.quote(p) + SUFFIX));
+    }
+
+    private JsonNode query(final String root, final boolean marked) throws ClientException {
+        List<NameValuePair> query = new ArrayList<>();
+        query.add(new BasicNameValuePair("path", root));
+        query.add(new BasicNameValuePair("path.flat", "true"));
+        query.add(new BasicNameValuePair("nodename", "*_*"));
+        if (marked) {
+            query.add(new BasicNameValuePair("property", TestContentBuilder.MARKER_PROPERTY));
+            query.add(new BasicNameValuePair("property.operation", "exists"));
+        }
+        query.add(new BasicNameValuePair("p.limit", "-1"));
+        query.add(new BasicNameValuePair("p.hits", "selective"));
+        query.add(new BasicNameValuePair("p.properties", "jcr:path jcr:created " + TestContentBuilder.MARKER_PROPERTY));
+        return QueryBuilderHelper.query(client, query);
+    }
+
+    private static List<String> auditPaths(final List<String> paths) {
+        List<String> audits = new ArrayList<>();
+        TestContentBuilder.AUDIT_ROOTS.forEach(audit -> paths.forEach(path -> audits.add(audit + path)));
+        return audits;
+    }
+
+    private void delete(final String parent, final List<String> paths, final Report report) {
+        FormEntityBuilder form = FormEntityBuilder.create().addParameter(":operation", "delete");
+        paths.forEach(path -> form.addParameter(":applyTo", path));
+        try {
+            // missing :applyTo paths are ignored by the Sling delete operation
+            await().atMost(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS)
+                .pollDelay(0, TimeUnit.MILLISECONDS)
+                .pollInterval(DEFAULT_RETRY_DELAY, TimeUnit.MILLISECONDS)
+                .ignoreExceptions()
+                .until(() -> {
+                    client.doPost(parent, form.build(), HttpStatus.SC_OK);
+                    return true;
+                });
+        } catch (RuntimeException e) {
+            LOGGER.error("Cannot delete {}", paths, e);
+            synchronized (report.failed) {
+                report.failed.addAll(paths);
+            }
+        }
+    }
+
+    private void run(final List<Callable<Void>> tasks) throws InterruptedException {
+        try {
+            // the deletions report their own failures, all the tasks are done when this returns anyway
+            ConcurrencyHelper.run(parallelism, tasks, "Sweep task failed");
+        } catch (ClientException e) {
+            LOGGER.error("Sweep task failed", e);
+        }
+    }
+
+    /**
+     * Sweep an instance, arguments are the url, user and password (defaulting to the local admin). The report is
+     * logged, paths that could not be deleted fail the sweep so that a scheduled run ends with an error.
+     * @param args url, user and password.
+     * @throws Exception if the sweep fails or some paths could not be deleted.
+     */
+    public static void main(final String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:4502/";
+        String user = args.length > 1 ? args[1] : DEFAULT_USER;
+        String password = args.length > 2 ? args[2] : DEFAULT_PASSWORD;
+        Report report = new ContentSweeper(CQClient.Builder.create(URI.create(url), user, password).build()).sweep();
+        LOGGER.info("{}", report.describe());
+        if (!report.getFailed().isEmpty()) {
+            throw new IllegalStateException("Cannot delete " + report.getFailed());
+        }
+    }
+
+    /**
+     * Outcome of a sweep.
+     */
+    public static final class Report {
+
+        private final boolean dryRun;
+        private final Map<String, List<String>> removed = new LinkedHashMap<>();
+        private final List<String> kept = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+        private long nanos;
+
+        private Report(final boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        /**
+         * @return the removed paths per root, or the ones to remove on a dry run.
+         */
+        public Map<String, List<String>> getRemoved() {
+            return Collections.unmodifiableMap(removed);
+        }
+
+        /**
+         * @return the labels kept, too recent or without creation date.
+         */
+        public List<String> getKept() {
+            return Collections.unmodifiableList(kept);
+        }
+
+        /**
+         * @return the paths which couldn't be deleted.
+         */
+        public List<String> getFailed() {
+            return Collections.unmodifiableList(failed);
+        }
+
+        /**
+         * @return the sweep duration.
+         */
+        public Duration getDuration() {
+            return Duration.ofNanos(nanos);
+        }
+
+        /**
+         * @return the summary followed by one line per removed path.
+         */
+        public String describe() {
+            StringBuilder description = new StringBuilder(toString());
+            removed.forEach((root, paths) -> paths.forEach(path -> description.append('\n')
+                .append(failed.contains(path) ? "  FAILED " : "  ").append(path)));
+            return description.toString();
+        }
+
+        @Override
+        public String toString() {
+            int count = removed.values().stream().mapToInt(List::size).sum();
+            return String.format("Swept %d paths under %d roots%s in %d ms, %d failed, %d labels kept",
+                count, removed.size(), dryRun ? " (dry run)" : "", getDuration().toMillis(), failed.size(), kept.size());
+        }
+    }
+}
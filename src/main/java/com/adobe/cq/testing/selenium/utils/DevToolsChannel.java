@@ -0,0 +1,291 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import org.awaitility.core.ConditionTimeoutException;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_TIMEOUT;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Optional Chrome DevTools Protocol channel attached to the current session.
+ *
+ * Used for high frequency operations which would otherwise need many WebDriver round-trips or polling:
+ * network idle tracking from Network.* events, console log streaming and the affinity / impersonation cookies set.
+ * Only the browser agnostic {@link Command} / {@link Event} API is used, so it doesn't depend on a CDP version.
+ *
+ * Enabled with the system property {@value #CDP_ENABLED_PROPERTY}, the framework falls back to the classic
+ * WebDriver implementation when no channel is available for the current thread.
+ */
+public final class DevToolsChannel implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DevToolsChannel.class);
+
+    public static final String CDP_ENABLED_PROPERTY = "sel.cdp.enabled";
+
+    private static final ThreadLocal<DevToolsChannel> CURRENT = new ThreadLocal<>();
+    private static final String[] IGNORED_URLS = new String[] {"/pulse.data.json", "/token.json"};
+    private static final String[] IGNORED_TYPES = new String[] {"WebSocket", "EventSource"};
+    private static final Duration NETWORK_POLLING = Duration.ofMillis(25);
+
+    private final DevTools devTools;
+    private final Map<String, String> inflightRequests = new ConcurrentHashMap<>();
+    private final AtomicLong lastNetworkActivity = new AtomicLong(System.currentTimeMillis());
+    private final List<String> consoleEntries = Collections.synchronizedList(new ArrayList<>());
+    private Logger consoleLogger = LOG;
+
+    private DevToolsChannel(final DevTools tools) {
+        devTools = tools;
+    }
+
+    /**
+     * @return true if the channel is requested by configuration.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(CDP_ENABLED_PROPERTY);
+    }
+
+    /**
+     * Open a channel for the driver and bind it to the current thread.
+     * @param driver the session driver, augmented if remote.
+     * @return the opened channel or empty if the driver doesn't support it.
+     */
+    public static Optional<DevToolsChannel> open(final WebDriver driver) {
+        DevToolsChannel channel = null;
+        try {
+            WebDriver augmented = driver instanceof HasDevTools ? driver : new Augmenter().augment(driver);
+            if (augmented instanceof HasDevTools) {
+                Optional<DevTools> devTools = ((HasDevTools) augmented).maybeGetDevTools();
+                if (devTools.isPresent()) {
+                    devTools.get().createSessionIfThereIsNotOne();
+                    channel = new DevToolsChannel(devTools.get());
+                    channel.trackNetwork();
+                    CURRENT.set(channel);
+                    LOG.info("DevTools channel opened");
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("DevTools channel not available, using WebDriver only: {}", e.getMessage());
+        }
+        return Optional.ofNullable(channel);
+    }
+
+    /**
+     * @return the channel bound to the current thread, if any.
+     */
+    public static Optional<DevToolsChannel> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * @param method CDP method, i.e. Network.enable.
+     * @param params CDP parameters.
+     * @return the CDP result.
+     */
+    public Map<String, Object> send(final String method, final Map<String, Object> params) {
+        return devTools.send(new Command<Map<String, Object>>(method, params, Json.MAP_TYPE));
+    }
+
+    private void listen(final String method, final Consumer<Map<String, Object>> handler) {
+        devTools.addListener(new Event<Map<String, Object>>(method, input -> input.read(Json.MAP_TYPE)), handler);
+    }
+
+    private static boolean isIgnored(final String value, final String... patterns) {
+        if (value == null) {
+            return false;
+        }
+        for (String pattern : patterns) {
+            if (value.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void trackNetwork() {
+        listen("Network.requestWillBeSent", params -> {
+            Object request = params.get("request");
+            String url = request instanceof Map ? String.valueOf(((Map<?, ?>) request).get("url")) : null;
+            if (!isIgnored(url, IGNORED_URLS) && !isIgnored((String) params.get("type"), IGNORED_TYPES)) {
+                inflightRequests.put(String.valueOf(params.get("requestId")), String.valueOf(url));
+            }
+            lastNetworkActivity.set(System.currentTimeMillis());
+        });
+        listen("Network.loadingFinished", params -> requestDone(params));
+        listen("Network.loadingFailed", params -> requestDone(params));
+        send("Network.enable", Collections.emptyMap());
+    }
+
+    private void requestDone(final Map<String, Object> params) {
+        inflightRequests.remove(String.valueOf(params.get("requestId")));
+        lastNetworkActivity.set(System.currentTimeMillis());
+    }
+
+    /**
+     * @return number of requests currently in flight, as tracked from the Network events.
+     */
+    public int getInflightRequests() {
+        return inflightRequests.size();
+    }
+
+    /**
+     * Same as {@link #waitNetworkIdled(long, Duration)} with the default timeout.
+     * @param quietPeriod quiet period in milliseconds.
+     * @return true if idled before the default timeout.
+     */
+    public boolean waitNetworkIdled(final long quietPeriod) {
+        return waitNetworkIdled(quietPeriod, Duration.ofMillis(DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * Await no request is in flight and no network activity happened during the quiet period.
+     * Evaluated on pushed events only, no WebDriver call is done.
+     * @param quietPeriod quiet period in milliseconds.
+     * @param timeout maximum time to wait.
+     * @return true if idled before the timeout.
+     */
+    public boolean waitNetworkIdled(final long quietPeriod, final Duration timeout) {
+        LOG.info("waitNetworkIdled (DevTools) with quiet period={}ms, timeout={}", quietPeriod, timeout);
+        try {
+            await().pollInSameThread().pollDelay(Duration.ZERO).pollInterval(NETWORK_POLLING).atMost(timeout)
+                    .until(() -> inflightRequests.isEmpty()
+                            && System.currentTimeMillis() - lastNetworkActivity.get() >= quietPeriod);
+            return true;
+        } catch (ConditionTimeoutException e) {
+            LOG.warn("Network not idled, pending requests {}", inflightRequests.values());
+            return false;
+        }
+    }
+
+    /**
+     * Stream the browser console to the logger as it happens, instead of dumping the logs at the end of the test.
+     * @param logger logger to write the console entries to.
+     */
+    public void streamConsole(final Logger logger) {
+        consoleLogger = logger;
+        listen("Runtime.consoleAPICalled", params -> {
+            StringBuilder message = new StringBuilder();
+            Object args = params.get("args");
+            if (args instanceof List) {
+                ((List<?>) args).forEach(arg -> {
+                    Map<?, ?> remoteObject = (Map<?, ?>) arg;
+                    Object value = remoteObject.containsKey("value") ? remoteObject.get("value") : remoteObject.get("description");
+                    message.append(value).append(' ');
+                });
+            }
+            console(String.valueOf(params.get("type")), message.toString().trim());
+        });
+        listen("Log.entryAdded", params -> {
+            Map<?, ?> entry = (Map<?, ?>) params.get("entry");
+            console(String.valueOf(entry.get("level")), entry.get("text") + " " + entry.get("url"));
+        });
+        send("Runtime.enable", Collections.emptyMap());
+        send("Log.enable", Collections.emptyMap());
+    }
+
+    private void console(final String level, final String message) {
+        String entry = String.format("[browser %s] %s", level, message);
+        consoleEntries.add(entry);
+        if ("error".equals(level)) {
+            consoleLogger.error(entry);
+        } else {
+            consoleLogger.info(entry);
+        }
+    }
+
+    /**
+     * @return true if the console is streamed, see {@link #streamConsole(Logger)}.
+     */
+    public boolean isConsoleStreamed() {
+        return consoleLogger != LOG;
+    }
+
+    /**
+     * @return all the console entries received so far.
+     */
+    public List<String> getConsoleEntries() {
+        synchronized (consoleEntries) {
+            return new ArrayList<>(consoleEntries);
+        }
+    }
+
+    /**
+     * Set many cookies in one call, regardless of the current page domain. A cookie replaces the one with the same
+     * name, domain and path.
+     * @param url the url the cookies are associated with when they don't define a domain.
+     * @param cookies cookies to set.
+     */
+    public void setCookies(final String url, final Collection<Cookie> cookies) {
+        List<Map<String, Object>> cookieParams = new ArrayList<>();
+        cookies.forEach(cookie -> {
+            Map<String, Object> param = new HashMap<>();
+            param.put("name", cookie.getName());
+            param.put("value", cookie.getValue());
+            param.put("path", cookie.getPath());
+            param.put("secure", cookie.isSecure());
+            param.put("httpOnly", cookie.isHttpOnly());
+            if (cookie.getDomain() != null) {
+                param.put("domain", cookie.getDomain());
+            } else {
+                param.put("url", url);
+            }
+            if (cookie.getExpiry() != null) {
+                param.put("expires", cookie.getExpiry().getTime() / 1000);
+            }
+            cookieParams.add(param);
+        });
+        Map<String, Object> params = new HashMap<>();
+        params.put("cookies", cookieParams);
+        send("Network.setCookies", params);
+    }
+
+    /**
+     * Close the channel and unbind it from the current thread.
+     */
+    @Override
+    public void close() {
+        CURRENT.remove();
+        try {
+            devTools.clearListeners();
+            devTools.close();
+        } catch (RuntimeException e) {
+            LOG.debug("Error while closing DevTools channel {}", e.getMessage());
+        }
+    }
+}
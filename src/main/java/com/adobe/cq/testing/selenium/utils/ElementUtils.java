@@ -38,12 +38,35 @@ public final class ElementUtils {
 
     private static final Logger LOG = LoggerFactory.getLogger(ElementUtils.class);
 
-    public static final long DEFAULT_DELAY_BEFORE = 250;
+    /**
+     * Default delay before a click: none, clicks wait for the element to stop moving instead. A fixed delay is set
+     * with {@link #setDelayBefore(long)} or the {@value #DELAY_BEFORE_PROPERTY} system property.
+     */
+    public static final long DEFAULT_DELAY_BEFORE = 0;
+    public static final String DELAY_BEFORE_PROPERTY = "sel.click.delayBefore";
     private static final String MSG_ERR_CLICK_UNTIL = "Clicking on %s didn’t fullfill the expected condition %s for %s";
     private static final long SHORT_TIMEOUT = 2000;
-    private static long delayBefore = DEFAULT_DELAY_BEFORE;
+    private static long delayBefore = Long.getLong(DELAY_BEFORE_PROPERTY, DEFAULT_DELAY_BEFORE);
     private static int DEFAULT_TIMEOUT = 4000;
 
+    // JS script resolving once the element bounding box is the same on two consecutive animation frames
+    private static final String JS_ELEMENT_STABLE = ""
+            + "var element = arguments[0], deadline = Date.now() + arguments[1], done = arguments[arguments.length - 1];\n"
+            + "var last = null;\n"
+            + "function check() {\n"
+            + "  if (!element.isConnected) { done(false); return; }\n"
+            + "  var r = element.getBoundingClientRect();\n"
+            + "  if (last && r.top === last.top && r.left === last.left && r.width === last.width && r.height === last.height) {\n"
+            + "    done(true);\n"
+            + "  } else if (Date.now() > deadline) {\n"
+            + "    done(false);\n"
+            + "  } else {\n"
+            + "    last = r;\n"
+            + "    requestAnimationFrame(check);\n"
+            + "  }\n"
+            + "}\n"
+            + "requestAnimationFrame(check);\n";
+
     private ElementUtils() {
     }
 
@@ -55,19 +78,55 @@ public final class ElementUtils {
         clickableClick(element, delayBefore);
     }
 
+    /**
+     * Wait the element is clickable and either not moving anymore or the given delay elapsed, then click on it.
+     * @param element to be clicked
+     * @param delay fixed delay in millisec before the click, 0 to wait for the element to be stable instead
+     */
     public static void clickableClick(final SelenideElement element, final long delay) {
         Condition clickable = and("can be clicked", Condition.visible, Condition.enabled);
         element.shouldBe(clickable);
-        delayBefore(delay);
+        if (delay > 0) {
+            delayBefore(delay);
+        } else {
+            waitStable(element);
+        }
         actions().moveToElement(element).click().perform();
     }
 
+    /**
+     * @param element to be clicked
+     * @param completion the strategy to know when the click action is completed
+     */
+    public static void clickableClick(final SelenideElement element, final ActionCompletion completion) {
+        completion.perform(() -> clickableClick(element));
+    }
+
+    /**
+     * Await that the element bounding box doesn't change between two animation frames.
+     * Non blocking if the element is removed meanwhile or if it keeps on moving after a short timeout.
+     * @param element the element to check
+     * @return true if the element has been detected stable
+     */
+    public static boolean waitStable(final SelenideElement element) {
+        boolean stable = false;
+        try {
+            stable = Boolean.TRUE.equals(Selenide.executeAsyncJavaScript(JS_ELEMENT_STABLE, element, SHORT_TIMEOUT));
+        } catch (JavascriptException | StaleElementReferenceException e) {
+            LOG.debug("Cannot check element stability due to {}", e.getMessage());
+        }
+        if (!stable) {
+            LOG.info("Element {} not detected as stable", element);
+        }
+        return stable;
+    }
+
     /**
      * @param element to be clicked until
      * @param conditionalElement the element to be checked
      * @param expectedCondition the condition to be fulfilled for the conditional element
      * @param maxRetries the max number of retries
-     * @param pacing the pacing in millisec
+     * @param pacing the pacing in millisec between two attempts (not applied before the first one)
      * @throws TimeoutException if element is not visible before Timeout
      */
     public static void clickUntil(final SelenideElement element, final SelenideElement conditionalElement,
@@ -78,7 +137,9 @@ public final class ElementUtils {
         while (!passed && (retries < maxRetries)) {
             try {
                 if (!passed) {
-                    Selenide.sleep(pacing);
+                    if (retries > 0) {
+                        Selenide.sleep(pacing);
+                    }
                     element.should(exist);
                     try {
                         actions().moveToElement(element).click().perform();
@@ -86,14 +147,17 @@ public final class ElementUtils {
                         LOG.warn("Error on click action: " + ex.getMessage());
                     }
                 }
-                if (conditionalElement.has(expectedCondition)) passed = true;
-                try {
-                    await().pollInSameThread()
-                            .timeout(Duration.ofMillis(SHORT_TIMEOUT))
-                            .until(() -> conditionalElement.has(expectedCondition));
+                if (conditionalElement.has(expectedCondition)) {
                     passed = true;
-                } catch (ConditionTimeoutException ex) {
-                    LOG.info("ConditionTimeout " + expectedCondition);
+                } else {
+                    try {
+                        await().pollInSameThread()
+                                .timeout(Duration.ofMillis(SHORT_TIMEOUT))
+                                .until(() -> conditionalElement.has(expectedCondition));
+                        passed = true;
+                    } catch (ConditionTimeoutException ex) {
+                        LOG.info("ConditionTimeout " + expectedCondition);
+                    }
                 }
             } catch (JavascriptException e) {
                 LOG.error("Error due to {}", e.getMessage());
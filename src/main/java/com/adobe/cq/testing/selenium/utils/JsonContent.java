@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Rewrite JSON content trees before importing them, token by token so the fixture is never held as a tree.
+ *
+ * Placeholders are replaced in the property names and string values, the keys are matched longest first
+ * so a path placeholder wins over a shorter one it contains.
+ */
+public final class JsonContent {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonContent() {
+    }
+
+    /**
+     * @param json the JSON content, closed when read.
+     * @param replacements placeholder to value map.
+     * @return the compact JSON with the placeholders replaced.
+     * @throws IOException if the content isn't valid JSON.
+     */
+    public static String substitute(final InputStream json, final Map<String, String> replacements) throws IOException {
+        String[] keys = replacements.keySet().stream()
+            .sorted((a, b) -> Integer.compare(b.length(), a.length()))
+            .toArray(String[]::new);
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = replacements.get(keys[i]);
+        }
+        StringWriter output = new StringWriter();
+        try (JsonParser parser = FACTORY.createParser(json); JsonGenerator generator = FACTORY.createGenerator(output)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    generator.writeFieldName(StringUtils.replaceEach(parser.getCurrentName(), keys, values));
+                } else if (token == JsonToken.VALUE_STRING) {
+                    generator.writeString(StringUtils.replaceEach(parser.getText(), keys, values));
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        return output.toString();
+    }
+}
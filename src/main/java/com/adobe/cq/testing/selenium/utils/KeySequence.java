@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.codeborne.selenide.Selenide;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.interactions.Actions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_WAIT_TIME;
+import static com.codeborne.selenide.Selenide.actions;
+
+/**
+ * Keyboard sequence builder, sending many keys as a single W3C Actions payload.
+ *
+ * Unlike {@link KeyboardShortCuts} there is no delay between keys. When the next keys depend on a focus or selection
+ * change caused by the previous ones, {@link #awaitFocus()} or {@link #awaitSelection()} splits the payload and
+ * waits for the matching browser event instead of a fixed delay.
+ *
+ * <pre>
+ *   KeySequence.create().press(Keys.ARROW_DOWN, 20).awaitFocus().chord(Keys.SHIFT, Keys.TAB).perform();
+ * </pre>
+ */
+public final class KeySequence {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeySequence.class);
+
+    // JS script installing once the focus / selection counters and returning their current values
+    private static final String JS_MARK = ""
+        + "if (!window.__itKeySequence) {\n"
+        + "  var state = window.__itKeySequence = { focus: 0, selection: 0, waiters: [] };\n"
+        + "  var notify = function() { state.waiters = state.waiters.filter(function(w) { return !w(); }); };\n"
+        + "  document.addEventListener('focusin', function() { state.focus++; notify(); }, true);\n"
+        + "  document.addEventListener('selectionchange', function() { state.selection++; notify(); }, true);\n"
+        + "}\n"
+        + "return window.__itKeySequence[arguments[0]];\n";
+
+    // JS script resolving when the counter moved from the marked value, or false after the timeout
+    private static final String JS_AWAIT = ""
+        + "var kind = arguments[0], since = arguments[1], timeout = arguments[2];\n"
+        + "var done = arguments[arguments.length - 1], state = window.__itKeySequence;\n"
+        + "if (!state) { done(false); return; }\n"
+        + "if (state[kind] > since) { done(true); return; }\n"
+        + "var timer = null;\n"
+        + "var waiter = function() {\n"
+        + "  if (state[kind] > since) { clearTimeout(timer); done(true); return true; }\n"
+        + "  return false;\n"
+        + "};\n"
+        + "state.waiters.push(waiter);\n"
+        + "timer = setTimeout(function() {\n"
+        + "  state.waiters = state.waiters.filter(function(w) { return w !== waiter; });\n"
+        + "  done(false);\n"
+        + "}, timeout);\n";
+
+    private static final String FOCUS = "focus";
+    private static final String SELECTION = "selection";
+
+    private final List<UnaryOperator<Actions>> pending = new ArrayList<>();
+    private final List<Runnable> steps = new ArrayList<>();
+    private long awaitTimeout = DEFAULT_WAIT_TIME;
+
+    private KeySequence() {
+    }
+
+    /**
+     * @return a new empty sequence.
+     */
+    public static KeySequence create() {
+        return new KeySequence();
+    }
+
+    /**
+     * @param timeout maximum time in milliseconds to wait for a focus / selection change.
+     * @return itself.
+     */
+    public KeySequence withAwaitTimeout(final long timeout) {
+        awaitTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * @param keys keys or text to send one after the other.
+     * @return itself.
+     */
+    public KeySequence press(final CharSequence... keys) {
+        pending.add(actions -> actions.sendKeys(keys));
+        return this;
+    }
+
+    /**
+     * @param key key to press.
+     * @param times number of times the key is pressed.
+     * @return itself.
+     */
+    public KeySequence press(final CharSequence key, final int times) {
+        for (int i = 0; i < times; i++) {
+            press(key);
+        }
+        return this;
+    }
+
+    /**
+     * @param modifier modifier key held, i.e. {@link Keys#SHIFT}.
+     * @param keys keys pressed while the modifier is held.
+     * @return itself.
+     */
+    public KeySequence chord(final Keys modifier, final CharSequence... keys) {
+        pending.add(actions -> actions.keyDown(modifier).sendKeys(keys).keyUp(modifier));
+        return this;
+    }
+
+    /**
+     * Explicit pause, part of the Actions payload.
+     * @param delay delay in milliseconds.
+     * @return itself.
+     */
+    public KeySequence pause(final long delay) {
+        pending.add(actions -> actions.pause(Duration.ofMillis(delay)));
+        return this;
+    }
+
+    /**
+     * Send the keys added so far, then wait for a focusin event before the next keys.
+     * @return itself.
+     */
+    public KeySequence awaitFocus() {
+        return awaitChange(FOCUS);
+    }
+
+    /**
+     * Send the keys added so far, then wait for a selectionchange event before the next keys.
+     * @return itself.
+     */
+    public KeySequence awaitSelection() {
+        return awaitChange(SELECTION);
+    }
+
+    private KeySequence awaitChange(final String kind) {
+        final Runnable chain = flush();
+        final long timeout = awaitTimeout;
+        steps.add(() -> {
+            Object marked = Selenide.executeJavaScript(JS_MARK, kind);
+            chain.run();
+            if (!Boolean.TRUE.equals(Selenide.executeAsyncJavaScript(JS_AWAIT, kind, marked, timeout))) {
+                LOG.info("No {} change observed within {}ms", kind, timeout);
+            }
+        });
+        return this;
+    }
+
+    private Runnable flush() {
+        final List<UnaryOperator<Actions>> chain = new ArrayList<>(pending);
+        pending.clear();
+        return () -> {
+            if (!chain.isEmpty()) {
+                Actions actions = actions();
+                for (UnaryOperator<Actions> action : chain) {
+                    actions = action.apply(actions);
+                }
+                actions.perform();
+            }
+        };
+    }
+
+    /**
+     * Perform the whole sequence, one Actions payload per segment between awaits.
+     */
+    public void perform() {
+        steps.add(flush());
+        steps.forEach(Runnable::run);
+        steps.clear();
+    }
+}
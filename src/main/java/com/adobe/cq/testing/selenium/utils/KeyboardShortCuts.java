@@ -24,6 +24,7 @@ import static com.codeborne.selenide.Selenide.actions;
 
 /**
  * Define commons Keyboard Shortcuts which would add a small delay before doing the action.
+ * To send many keys, prefer {@link KeySequence} which sends them at once and waits for focus changes only when needed.
  */
 public final class KeyboardShortCuts {
 
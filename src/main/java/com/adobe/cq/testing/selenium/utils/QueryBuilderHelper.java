@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Query builder requests shared by the content helpers, one request per query or per batch of exact paths.
+ */
+final class QueryBuilderHelper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryBuilderHelper.class);
+
+    static final String QUERY_PATH = "/bin/querybuilder.json";
+
+    /**
+     * Number of OR-ed path predicates per request, keeps the query string of a batch well below the URL limits.
+     */
+    static final int BATCH_SIZE = 50;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Sling json date format, i.e. Mon Oct 19 2026 10:00:00 GMT+0200
+    private static final String ECMA_DATE_FORMAT = "EEE MMM dd yyyy HH:mm:ss 'GMT'Z";
+
+    private QueryBuilderHelper() {
+    }
+
+    /**
+     * @param client client used for the request.
+     * @param parameters query builder predicates and options.
+     * @return the hits of the query.
+     * @throws ClientException if the request fails or its result cannot be read.
+     */
+    static JsonNode query(final SlingClient client, final List<NameValuePair> parameters) throws ClientException {
+        String content = client.doGet(QUERY_PATH, parameters, HttpStatus.SC_OK).getContent();
+        try {
+            return MAPPER.readTree(content).path("hits");
+        } catch (IOException e) {
+            throw new ClientException("Cannot read the query result", e);
+        }
+    }
+
+    /**
+     * Query the nodes at the given paths, by batches of {@link #BATCH_SIZE} exact path predicates.
+     * @param client client used for the requests.
+     * @param paths exact paths of the nodes.
+     * @param parameters options added to each batch, i.e. p.hits.
+     * @return the hits of all the batches, missing nodes are not part of it.
+     * @throws ClientException if a request fails or its result cannot be read.
+     */
+    static List<JsonNode> queryPaths(final SlingClient client, final List<String> paths,
+                                     final List<NameValuePair> parameters) throws ClientException {
+        List<JsonNode> hits = new ArrayList<>();
+        for (int first = 0; first < paths.size(); first += BATCH_SIZE) {
+            List<NameValuePair> query = new ArrayList<>();
+            query.add(new BasicNameValuePair("group.p.or", "true"));
+            List<String> batch = paths.subList(first, Math.min(paths.size(), first + BATCH_SIZE));
+            for (int i = 0; i < batch.size(); i++) {
+                query.add(new BasicNameValuePair("group." + (i + 1) + "_path", batch.get(i)));
+                query.add(new BasicNameValuePair("group." + (i + 1) + "_path.exact", "true"));
+            }
+            query.add(new BasicNameValuePair("p.limit", "-1"));
+            query.addAll(parameters);
+            query(client, query).forEach(hits::add);
+        }
+        return hits;
+    }
+
+    /**
+     * @param size number of paths.
+     * @return the number of requests {@link #queryPaths} sends for them.
+     */
+    static int batchCount(final int size) {
+        return (size + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    /**
+     * @param value date property as rendered in query hits, ISO 8601 or Sling json format.
+     * @return the instant or null if absent or not parseable.
+     */
+    static Instant parseDate(final String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return new SimpleDateFormat(ECMA_DATE_FORMAT, Locale.US).parse(value).toInstant();
+            } catch (ParseException ex) {
+                LOGGER.debug("Unknown date format {}", value);
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_TIMEOUT;
+
+/**
+ * Wait for many paths to be replicated to, or removed from, a publish instance.
+ *
+ * All the pending paths are checked with a single QueryBuilder request on publish (per 50 paths), polled with an
+ * exponential backoff. A path counts as published once it exists with a replication or modification date different
+ * from the one seen when it was tracked, so republishing existing content is detected as well.
+ * The latencies are measured from the tracking to the poll seeing the change.
+ *
+ * <pre>
+ *   ReplicationWaiter waiter = new ReplicationWaiter(publishClient).track(paths);
+ *   // publish the pages
+ *   Map&lt;String, Duration&gt; latencies = waiter.awaitPublished();
+ * </pre>
+ */
+public final class ReplicationWaiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationWaiter.class);
+
+    private static final String JCR_CONTENT = "jcr:content";
+    private static final Duration DEFAULT_INITIAL_DELAY = Duration.ofMillis(250);
+    private static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(5);
+
+    private final SlingClient client;
+    private final Map<String, Tracked> tracked = new LinkedHashMap<>();
+    private Duration timeout = Duration.ofMillis(DEFAULT_TIMEOUT);
+    private Duration initialDelay = DEFAULT_INITIAL_DELAY;
+    private Duration maxDelay = DEFAULT_MAX_DELAY;
+    private int requests;
+
+    /**
+     * @param publishClient client of the publish instance, allowed to query the paths.
+     */
+    public ReplicationWaiter(final SlingClient publishClient) {
+        this.client = publishClient;
+    }
+
+    /**
+     * @param maxWait maximum time to wait for all the paths, defaults to 30 seconds.
+     * @return itself.
+     */
+    public ReplicationWaiter withTimeout(final Duration maxWait) {
+        this.timeout = maxWait;
+        return this;
+    }
+
+    /**
+     * @param initial delay before the second poll, doubled after each poll.
+     * @param max maximum delay between two polls.
+     * @return itself.
+     */
+    public ReplicationWaiter withBackoff(final Duration initial, final Duration max) {
+        this.initialDelay = initial;
+        this.maxDelay = max;
+        return this;
+    }
+
+    /**
+     * Record the current publish state of the paths, to call right before triggering their (de)activation.
+     * @param paths content paths.
+     * @return itself.
+     * @throws ClientException if the query fails.
+     */
+    public ReplicationWaiter track(final Collection<String> paths) throws ClientException {
+        Map<String, String> stamps = query(paths);
+        long now = System.nanoTime();
+        paths.forEach(path -> tracked.put(path, new Tracked(stamps.get(path), now)));
+        return this;
+    }
+
+    /**
+     * @param paths content paths.
+     * @return itself.
+     * @throws ClientException if the query fails.
+     */
+    public ReplicationWaiter track(final String... paths) throws ClientException {
+        return track(Arrays.asList(paths));
+    }
+
+    /**
+     * Wait for all the tracked paths to be published, then stop tracking them.
+     * @return the replication latency of each path.
+     * @throws ClientException if a poll fails.
+     * @throws TimeoutException if some paths are still not published after the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Map<String, Duration> awaitPublished() throws ClientException, TimeoutException, InterruptedException {
+        return await(true);
+    }
+
+    /**
+     * Wait for all the tracked paths to be removed from publish, then stop tracking them.
+     * @return the removal latency of each path.
+     * @throws ClientException if a poll fails.
+     * @throws TimeoutException if some paths are still on publish after the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Map<String, Duration> awaitRemoved() throws ClientException, TimeoutException, InterruptedException {
+        return await(false);
+    }
+
+    /**
+     * @return the number of query requests sent to publish.
+     */
+    public int getRequestCount() {
+        return requests;
+    }
+
+    private Map<String, Duration> await(final boolean published)
+            throws ClientException, TimeoutException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        Map<String, Duration> latencies = new LinkedHashMap<>();
+        List<String> pending = new ArrayList<>(tracked.keySet());
+        long delay = initialDelay.toMillis();
+        int polls = 0;
+        while (!pending.isEmpty()) {
+            Map<String, String> stamps = query(pending);
+            long now = System.nanoTime();
+            polls++;
+            pending.removeIf(path -> {
+                Tracked baseline = tracked.get(path);
+                String stamp = stamps.get(path);
+                boolean done = published ? stamp != null && !Objects.equals(stamp, baseline.stamp) : stamp == null;
+                if (done) {
+                    latencies.put(path, Duration.ofNanos(now - baseline.since));
+                    tracked.remove(path);
+                }
+                return done;
+            });
+            if (!pending.isEmpty()) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException(String.format("Still %s after %d ms: %s",
+                        published ? "not published" : "published", timeout.toMillis(), pending));
+                }
+                Thread.sleep(Math.min(delay, Math.max(0, (deadline - System.nanoTime()) / 1_000_000)));
+                delay = Math.min(delay * 2, maxDelay.toMillis());
+            }
+        }
+        LOGGER.info("{} paths {} after {} polls, slowest in {} ms", latencies.size(), published ? "published" : "removed",
+            polls, latencies.values().stream().mapToLong(Duration::toMillis).max().orElse(0));
+        return latencies;
+    }
+
+    private Map<String, String> query(final Collection<String> paths) throws ClientException {
+        Map<String, String> stamps = new LinkedHashMap<>();
+        List<String> all = new ArrayList<>(paths);
+        List<NameValuePair> parameters = new ArrayList<>();
+        parameters.add(new BasicNameValuePair("p.hits", "full"));
+        parameters.add(new BasicNameValuePair("p.nodedepth", "1"));
+        for (JsonNode hit : QueryBuilderHelper.queryPaths(client, all, parameters)) {
+            stamps.put(hit.path("jcr:path").asText(), stamp(hit));
+        }
+        requests += QueryBuilderHelper.batchCount(all.size());
+        return stamps;
+    }
+
+    // replication then modification dates, of the content node for pages and assets
+    private static String stamp(final JsonNode hit) {
+        JsonNode content = hit.path(JCR_CONTENT);
+        return String.join("|", content.path("cq:lastReplicated").asText(), content.path("cq:lastModified").asText(),
+            hit.path("cq:lastReplicated").asText(), hit.path("jcr:lastModified").asText());
+    }
+
+    private static final class Tracked {
+        private final String stamp;
+        private final long since;
+
+        private Tracked(final String stamp, final long since) {
+            this.stamp = stamp;
+            this.since = since;
+        }
+    }
+}
@@ -17,22 +17,28 @@
 package com.adobe.cq.testing.selenium.utils;
 
 import com.adobe.cq.testing.client.*;
-import com.adobe.cq.testing.client.security.Authorizable;
-import com.adobe.cq.testing.client.security.CQAuthorizableManager;
 import com.adobe.cq.testing.client.security.Group;
 import com.adobe.cq.testing.client.security.User;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.cookie.Cookie;
 import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.apache.sling.testing.clients.util.ResourceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeoutException;
 
 import static com.adobe.cq.testing.selenium.Constants.*;
@@ -54,19 +60,35 @@ import static org.awaitility.Awaitility.await;
  * (*) **Note**: /conf can include a default page template, content fragment structure model,
  * and content fragment template. Call the related **enable** methods.
  *
+ * Whole JSON trees can also be imported in one request each, see [importContent](#importContent-java.lang.String-java.lang.String-java.io.InputStream-java.util.Map-).
+ *
  * A [TestContentBuilder.dispose()](#dispose--) method is used to cleanup all those paths, as well as the associated /var/audit/... .
  */
 public final class TestContentBuilder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TestContentBuilder.class);
 
+    /**
+     * Property set to the label on the generated config, DAM, content and tag roots, only such roots are removed
+     * by the {@link ContentSweeper}.
+     */
+    public static final String MARKER_PROPERTY = "selTestContentLabel";
+
     private static final String VAR_AUDIT_BASEPATH = "/var/audit/";
     private static final String VAR_AUDIT_WCM = VAR_AUDIT_BASEPATH + "com.day.cq.wcm.core.page";
     private static final String VAR_AUDIT_DAM = VAR_AUDIT_BASEPATH + "com.day.cq.dam";
     private static final String VAR_AUDIT_REPLICATION = VAR_AUDIT_BASEPATH + "com.day.cq.replication";
+    // audit trails kept per content path, also swept by the ContentSweeper
+    static final List<String> AUDIT_ROOTS = Collections.unmodifiableList(
+        Arrays.asList(VAR_AUDIT_DAM, VAR_AUDIT_WCM, VAR_AUDIT_REPLICATION));
     private static final String CLEANING_MSG = "Cleaning {}";
     private static final String CLEANING_TAG_MSG = "Cleaning Tag {}";
 
+    private static final String CONF_ROOT = "/conf";
+    private static final String SITE_FIXTURE = "com/adobe/cq/testing/junit/rules/site.json";
+    private static final String TEMPLATE_FIXTURE = "com/adobe/cq/testing/junit/rules/template.json";
+    private static final String FIXTURE_SITE_NAME = "test-site";
+
     private static final String DEFAULT_PAGE_TEMPLATE_TITLE = "Simple-Template";
     private static final String DEFAULT_PAGE_TEMPLATE_DESCRIPTION = "A Simple Template for IT tests";
 
@@ -89,11 +111,15 @@ public final class TestContentBuilder {
 
     private String defaultUserName;
     private List<String> defaultGroups;
-    private List<Group> groupsInternal;
+    private List<Group> groupsInternal = new ArrayList<>();
     private String defaultPassword;
     private User defaultUser;
     private CQClient userClient;
     private String impersonator;
+    private AuthorizableProvisioner provisioner;
+    private AuditCleanup sharedAuditCleanup;
+
+    private final List<String> importedPaths = new ArrayList<>();
 
     private boolean withEmptyTemplateEnabled;
     private boolean withDefaultPoliciesEnabled;
@@ -179,6 +205,16 @@ public final class TestContentBuilder {
         return this;
     }
 
+    /**
+     * @param auditCleanup cleanup collecting the audit trails of the disposed roots, flushed by the caller
+     *                     i.e. once at the end of the test run.
+     * @return itself.
+     */
+    public TestContentBuilder withAuditCleanup(final AuditCleanup auditCleanup) {
+        this.sharedAuditCleanup = auditCleanup;
+        return this;
+    }
+
     public TestContentBuilder withImpersonator(final String impersonator) {
         this.impersonator = impersonator;
         return this;
@@ -194,30 +230,42 @@ public final class TestContentBuilder {
      */
     @SuppressWarnings("java:S2139")
     public void dispose() throws TestContentBuilderException {
+        List<String> disposedRoots = new ArrayList<>();
         try {
+            for (int i = importedPaths.size() - 1; i >= 0; i--) {
+                String importedPath = importedPaths.get(i);
+                LOGGER.info(CLEANING_MSG, importedPath);
+                deletePathRetries(importedPath);
+                disposedRoots.add(importedPath);
+            }
+            importedPaths.clear();
             if (cqConfigPath != null) {
                 LOGGER.info(CLEANING_MSG, cqConfigPath);
                 client.deletePageWithRetry(cqConfigPath, true, false, DEFAULT_TIMEOUT, DEFAULT_RETRY_DELAY, HttpStatus.SC_OK);
-                cleanupAudit(cqConfigPath);
+                disposedRoots.add(cqConfigPath);
             }
             if (damRootPath != null) {
                 LOGGER.info(CLEANING_MSG, damRootPath);
                 client.deletePageWithRetry(damRootPath, true, false, DEFAULT_TIMEOUT, DEFAULT_RETRY_DELAY, HttpStatus.SC_OK);
-                cleanupAudit(damRootPath);
+                disposedRoots.add(damRootPath);
             }
             if (contentRootPath != null) {
                 LOGGER.info(CLEANING_MSG, contentRootPath);
                 client.deletePageWithRetry(contentRootPath, true, false, DEFAULT_TIMEOUT, DEFAULT_RETRY_DELAY, HttpStatus.SC_OK);
-                cleanupAudit(contentRootPath);
+                disposedRoots.add(contentRootPath);
             }
+            cleanupAudit(disposedRoots);
             if (parentTag != null) {
                 LOGGER.info(CLEANING_TAG_MSG, parentTag);
                 TagClient tagClient = client.adaptTo(TagClient.class);
                 tagClient.deleteTag(parentTag);
             }
-            if (defaultUser != null) {
+            if (defaultUser != null || provisioner != null || !groupsInternal.isEmpty()) {
+                // memberships first, removing members from an already deleted group would fail
+                if (provisioner != null) {
+                    provisioner.removeAll();
+                }
                 deleteGroups();
-                deleteUser(defaultUser, defaultGroups.toArray(new String[0]));
                 deletePathRetries(HOME_USERS + getLabel());
                 deletePathRetries(HOME_GROUPS + getLabel());
             }
@@ -233,24 +281,32 @@ public final class TestContentBuilder {
 
     private void deletePathRetries(final String path) {
         LOGGER.info("Delete {} with retries", path);
+        // already missing counts as deleted
         await().ignoreExceptions().until(() -> {
-            client.deletePath(path);
+            client.deletePath(path, HttpStatus.SC_OK, HttpStatus.SC_NOT_FOUND);
             return true;
         });
     }
 
     public void cleanupAudit(final String path) {
-        String[] audits = new String[] {VAR_AUDIT_DAM, VAR_AUDIT_WCM, VAR_AUDIT_REPLICATION};
-        Arrays.stream(audits).forEach(s -> {
-            String auditPath = s + path;
-            try {
-                if (client.exists(auditPath)) {
-                    await().untilAsserted(() -> client.deletePath(auditPath, HttpStatus.SC_OK));
-                }
-            } catch (ClientException e) {
-                LOGGER.error(e.getMessage(), e);
-            }
-        });
+        cleanupAudit(Collections.singletonList(path));
+    }
+
+    /**
+     * Remove the /var/audit trails of the content roots with one listing and one delete request,
+     * or defer it to the shared {@link AuditCleanup}, see [withAuditCleanup](#withAuditCleanup-com.adobe.cq.testing.selenium.utils.AuditCleanup-).
+     * @param paths content roots.
+     */
+    public void cleanupAudit(final List<String> paths) {
+        if (sharedAuditCleanup != null) {
+            sharedAuditCleanup.add(paths);
+            return;
+        }
+        try {
+            new AuditCleanup(client).add(paths).flush();
+        } catch (ClientException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
     }
 
     /**
@@ -270,6 +326,141 @@ public final class TestContentBuilder {
         createDefaultUser();
     }
 
+    /**
+     * Import a JSON content tree as the {@code name} child of {@code parentPath}, in a single Sling import request.
+     * An existing node at that path is replaced.
+     *
+     * The placeholders ${label}, ${contentRoot}, ${damRoot}, ${confRoot}, ${template} and ${tagRoot} are replaced
+     * with the generated values while streaming the content, so are the additional replacements.
+     * Trees imported outside of the generated roots are deleted on {@link #dispose()}.
+     *
+     * @param parentPath existing parent node.
+     * @param name name of the imported root node.
+     * @param json JSON content, closed when read.
+     * @param replacements additional placeholder to value map.
+     * @return the imported root path.
+     * @throws ClientException if the import fails.
+     * @throws IOException if the content isn't valid JSON.
+     */
+    public String importContent(final String parentPath, final String name, final InputStream json,
+                                final Map<String, String> replacements) throws ClientException, IOException {
+        Map<String, String> allReplacements = getPlaceholders();
+        allReplacements.putAll(replacements);
+        String content = JsonContent.substitute(json, allReplacements);
+        String path = parentPath.replaceAll("/$", "") + "/" + name;
+        client.doPost(parentPath, FormEntityBuilder.create()
+            .addParameter(":operation", "import")
+            .addParameter(":contentType", "json")
+            .addParameter(":name", name)
+            .addParameter(":replace", "true")
+            .addParameter(":content", content)
+            .build(), HttpStatus.SC_CREATED);
+        if (!isGeneratedRoot(path)) {
+            importedPaths.add(path);
+        }
+        LOGGER.info("Imported {} ({} chars)", path, content.length());
+        return path;
+    }
+
+    /**
+     * See [importContent](#importContent-java.lang.String-java.lang.String-java.io.InputStream-java.util.Map-).
+     * @param parentPath existing parent node.
+     * @param name name of the imported root node.
+     * @param json JSON content, closed when read.
+     * @return the imported root path.
+     * @throws ClientException if the import fails.
+     * @throws IOException if the content isn't valid JSON.
+     */
+    public String importContent(final String parentPath, final String name, final InputStream json)
+            throws ClientException, IOException {
+        return importContent(parentPath, name, json, Collections.emptyMap());
+    }
+
+    /**
+     * See [importContent](#importContent-java.lang.String-java.lang.String-java.io.InputStream-java.util.Map-).
+     * @param parentPath existing parent node.
+     * @param name name of the imported root node.
+     * @param resource classpath resource of the JSON content.
+     * @param replacements additional placeholder to value map.
+     * @return the imported root path.
+     * @throws ClientException if the import fails.
+     * @throws IOException if the resource is missing or isn't valid JSON.
+     */
+    public String importResource(final String parentPath, final String name, final String resource,
+                                 final Map<String, String> replacements) throws ClientException, IOException {
+        InputStream json = ResourceUtil.getResourceAsStream(resource);
+        if (json == null) {
+            throw new IOException("Resource not found " + resource);
+        }
+        return importContent(parentPath, name, json, replacements);
+    }
+
+    /**
+     * Import the bundled test site: its templates under /conf/{label}-site and its root page
+     * under the content root (or /content if not built), two requests in total.
+     * @return the imported site root page path.
+     * @throws ClientException if an import fails.
+     * @throws IOException if a fixture cannot be read.
+     */
+    public String importFixtureSite() throws ClientException, IOException {
+        String siteName = label.toLowerCase() + "-site";
+        String parentPath = contentRootPath != null ? contentRootPath : CONTENT_ROOT;
+        Map<String, String> replacements = new HashMap<>();
+        replacements.put(CONF_ROOT + "/" + FIXTURE_SITE_NAME, CONF_ROOT + "/" + siteName);
+        replacements.put(CONTENT_ROOT + "/" + FIXTURE_SITE_NAME, parentPath + "/" + siteName);
+        importResource(CONF_ROOT, siteName, TEMPLATE_FIXTURE, replacements);
+        return importResource(parentPath, siteName, SITE_FIXTURE, replacements);
+    }
+
+    /**
+     * Upload the files of a directory to the DAM root concurrently and wait for their processing,
+     * see {@link AssetUploader} to tune the parallelism, the upload protocol or the timeout.
+     * @param directory local directory, sub directories are ignored.
+     * @return the created asset paths.
+     * @throws ClientException if an upload or a status poll fails.
+     * @throws IOException if the directory cannot be listed.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws TimeoutException if some assets are still processing after the timeout.
+     */
+    public List<String> uploadAssets(final Path directory)
+            throws ClientException, IOException, InterruptedException, TimeoutException {
+        AssetUploader uploader = new AssetUploader(client);
+        List<String> assets = uploader.upload(directory, damRootPath);
+        uploader.waitProcessed(assets);
+        return assets;
+    }
+
+    private Map<String, String> getPlaceholders() {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("${label}", label);
+        placeholders.put("${contentRoot}", contentRootPath);
+        placeholders.put("${damRoot}", damRootPath);
+        placeholders.put("${confRoot}", cqConfigPath);
+        placeholders.put("${template}", pageTemplatePath);
+        placeholders.put("${tagRoot}", parentTag);
+        placeholders.values().removeIf(Objects::isNull);
+        return placeholders;
+    }
+
+    /**
+     * @return the generated config, DAM, content and tag roots, followed by the trees imported outside of them.
+     */
+    public List<String> getRootPaths() {
+        List<String> roots = new ArrayList<>();
+        Arrays.asList(cqConfigPath, damRootPath, contentRootPath, parentTag).forEach(root -> {
+            if (root != null) {
+                roots.add(root);
+            }
+        });
+        roots.addAll(importedPaths);
+        return roots;
+    }
+
+    private boolean isGeneratedRoot(final String path) {
+        return Arrays.asList(cqConfigPath, damRootPath, contentRootPath).stream()
+            .anyMatch(root -> root != null && path.startsWith(root + "/"));
+    }
+
     private void allowImsUserImpersonator() {
         String imsUser = System.getenv("IMS_USER");
         if (imsUser != null) {
@@ -285,6 +476,7 @@ public final class TestContentBuilder {
                 HttpStatus.SC_CREATED
         ).getSlingPath();
         client.setPageProperty(damRootPath, PROP_CQ_CONF, getConfigPath());
+        mark(damRootPath);
     }
 
     private void createContentRoot() throws ClientException {
@@ -296,6 +488,11 @@ public final class TestContentBuilder {
         ).getSlingPath();
         client.setPageProperty(contentRootPath, PROP_CQ_CONF, getConfigPath());
         client.setPageProperty(contentRootPath, PROP_CQ_ALLOWED_TEMPLATES, pageTemplatePath);
+        mark(contentRootPath);
+    }
+
+    private void mark(final String rootPath) throws ClientException {
+        client.doPost(rootPath, FormEntityBuilder.create().addParameter(MARKER_PROPERTY, label).build(), HttpStatus.SC_OK);
     }
 
 
@@ -308,27 +505,45 @@ public final class TestContentBuilder {
 
     public User createUniqueUser(final String username, final String password, final String... groups)
             throws ClientException, InterruptedException {
-        CQSecurityClient sClient = getCqSecurityClient();
-        User newUser = sClient.createUser(
-                username + "_" + randomSmallText(),
-                password,
-                getLabel(),
-                null,
-                null,
-                HttpStatus.SC_CREATED
-        );
-        LOGGER.info("Created user {} at path {}", newUser.getId(), newUser.getHomePath());
-        final CQAuthorizableManager manager = sClient.getManager();
+        return createUniqueUsers(username, 1, password, groups).get(0);
+    }
+
+    /**
+     * Create users named {username}_[randomSuffix] concurrently, then add them all to each group in one request per group.
+     * They are removed on {@link #dispose()}, see {@link #getAuthorizableProvisioner()} for other memberships.
+     * @param username prefix of the user ids.
+     * @param count number of users to create.
+     * @param password password of all the users.
+     * @param groups ids of the groups the users are added to.
+     * @return the created users.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public List<User> createUniqueUsers(final String username, final int count, final String password, final String... groups)
+            throws ClientException, InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(username + "_" + randomSmallText());
+        }
+        AuthorizableProvisioner authorizables = getAuthorizableProvisioner();
+        List<User> users = authorizables.createUsers(ids, password);
+        Map<String, List<User>> members = new LinkedHashMap<>();
         for (String groupName : groups) {
-            final Group group = manager.getGroup(groupName);
-            await().ignoreExceptions().untilAsserted(() -> group.addMember(newUser));
-            LOGGER.info("added {} to group {}", newUser.getId(), group.getId());
+            members.put(groupName, users);
         }
-        if (impersonator != null) {
-            User[] impersonators = { new User(sClient, this.impersonator) };
-            newUser.addImpersonators(impersonators);
+        authorizables.addMembers(members);
+        return users;
+    }
+
+    /**
+     * @return provisioner creating users and groups under the label intermediate path, cleaned up on {@link #dispose()}.
+     * @throws ClientException if the security client cannot be created.
+     */
+    public AuthorizableProvisioner getAuthorizableProvisioner() throws ClientException {
+        if (provisioner == null) {
+            provisioner = new AuthorizableProvisioner(getCqSecurityClient(), getLabel()).withImpersonator(impersonator);
         }
-        return newUser;
+        return provisioner;
     }
 
 
@@ -355,12 +570,14 @@ public final class TestContentBuilder {
         cqConfig = configManagerClient.create(label, cqConfigCapabilities);
         cqConfigPath = cqConfig.getPath();
         cqConfig.setWcmTemplatesPermissions();
+        mark(cqConfigPath);
         LOGGER.info("Created Config {}", cqConfigPath);
     }
 
     private void createDefaultTags() throws ClientException {
         TagClient tagClient = client.adaptTo(TagClient.class);
         parentTag = tagClient.createTag(label, label.toLowerCase(), null, null).getSlingPath();
+        mark(parentTag);
         LOGGER.info("Created Tag root namespace under {}", parentTag);
     }
 
@@ -413,22 +630,53 @@ public final class TestContentBuilder {
         return group;
     }
 
+    /**
+     * Create groups named {groupPrefix}_[randomSuffix] concurrently, they are removed on {@link #dispose()}.
+     * @param groupPrefix prefix of the group ids.
+     * @param count number of groups to create.
+     * @return the created groups.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public List<Group> createGroups(final String groupPrefix, final int count) throws ClientException, InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(groupPrefix + "_" + randomSmallText());
+        }
+        return getAuthorizableProvisioner().createGroups(ids);
+    }
+
+    /**
+     * Remove the users from each group in one request per group, then delete them in batch.
+     * @param users users to delete.
+     * @param groups ids of the groups to remove them from.
+     * @throws ClientException if a request fails.
+     * @throws InterruptedException if interrupted while waiting for the requests.
+     */
+    public void deleteUsers(final List<User> users, final String... groups) throws ClientException, InterruptedException {
+        LOGGER.info("Removing {} users from groups: {}", users.size(), groups);
+        Map<String, List<User>> members = new LinkedHashMap<>();
+        for (String groupName : groups) {
+            members.put(groupName, users);
+        }
+        AuthorizableProvisioner authorizables = getAuthorizableProvisioner();
+        authorizables.removeMembers(members);
+        authorizables.delete(users);
+    }
+
     public void deleteUser(final User user, final String... groups) throws ClientException {
         if (user != null) {
-            LOGGER.info("Removing user: {} from groups:  {}", user.getHomePath(), groups);
-            final CQAuthorizableManager manager = getCqSecurityClient().getManager();
-            for (String groupName: groups) {
-                Group group = manager.getGroup(groupName);
-                await().ignoreExceptions().untilAsserted(() -> group.removeMembers(new Authorizable[] { user }, HttpStatus.SC_OK));
+            try {
+                deleteUsers(Collections.singletonList(user), groups);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while deleting user " + user.getId(), e);
             }
-
-            LOGGER.info("Deleting user:  {}", user.getHomePath());
-            await().ignoreExceptions().untilAsserted(() -> user.delete());
         }
     }
 
     private void deleteGroups() {
-        groupsInternal.forEach(internalGroup -> await().ignoreExceptions().untilAsserted(() -> internalGroup.delete(HttpStatus.SC_OK)));
+        groupsInternal.forEach(internalGroup -> await().ignoreExceptions().untilAsserted(() -> internalGroup.delete(HttpStatus.SC_OK, HttpStatus.SC_NOT_FOUND)));
         groupsInternal.clear();
     }
 
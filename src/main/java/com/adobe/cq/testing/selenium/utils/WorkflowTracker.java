@@ -0,0 +1,310 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.WorkflowClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_RETRY_DELAY;
+import static com.adobe.cq.testing.selenium.Constants.DEFAULT_TIMEOUT;
+
+/**
+ * Track the workflow instances started on a set of payloads, i.e. by the {@link
+ * com.adobe.cq.testing.selenium.pageobject.cq.sites.CreateWorkflowWizard}, until they all complete.
+ *
+ * The instances already existing for the payloads are recorded when watching, the new ones are found with a single
+ * QueryBuilder request on the payload paths. Their completion is then polled with one request per interval for all
+ * the running instances. Instances started on a workflow package rather than on the watched paths aren't matched.
+ *
+ * <pre>
+ *   WorkflowTracker tracker = wizard.trackWorkflows(client);
+ *   wizard.next();
+ *   Map&lt;String, WorkflowTracker.Instance&gt; instances = tracker.awaitCompleted();
+ * </pre>
+ */
+public final class WorkflowTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowTracker.class);
+
+    public static final String INSTANCES_ROOT = "/var/workflow/instances";
+
+    private static final String PAYLOAD_PROPERTY = "data/payload/path";
+    private static final List<NameValuePair> HIT_PARAMETERS = Collections.unmodifiableList(Arrays.asList(
+        new BasicNameValuePair("p.hits", "full"),
+        new BasicNameValuePair("p.nodedepth", "2")));
+
+    private final SlingClient client;
+    private final Set<String> payloads = new HashSet<>();
+    private final Set<String> existing = new HashSet<>();
+    private final Map<String, Instance> instances = new LinkedHashMap<>();
+    private Duration timeout = Duration.ofMillis(DEFAULT_TIMEOUT);
+    private Duration pollInterval = Duration.ofMillis(DEFAULT_RETRY_DELAY);
+    private int requests;
+
+    /**
+     * @param client author client, allowed to read the workflow instances.
+     */
+    public WorkflowTracker(final SlingClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param maxWait maximum time to wait for the instances to start, then to complete.
+     * @param interval delay between two polls.
+     * @return itself.
+     */
+    public WorkflowTracker withTimeout(final Duration maxWait, final Duration interval) {
+        this.timeout = maxWait;
+        this.pollInterval = interval;
+        return this;
+    }
+
+    /**
+     * Record the instances already running or completed on the payloads, to call before starting the workflows.
+     * @param payloadPaths the workflow payloads.
+     * @return itself.
+     * @throws ClientException if the query fails.
+     */
+    public WorkflowTracker watch(final Collection<String> payloadPaths) throws ClientException {
+        payloads.addAll(payloadPaths);
+        findByPayload(payloadPaths).forEach(instance -> existing.add(instance.id));
+        return this;
+    }
+
+    /**
+     * Wait for a new instance to be started on each watched payload.
+     * @return the ids (paths) of the new instances.
+     * @throws ClientException if a poll fails.
+     * @throws TimeoutException if some payloads have no new instance after the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public List<String> awaitStarted() throws ClientException, TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Set<String> started = new HashSet<>();
+            for (Instance instance : findByPayload(payloads)) {
+                if (!existing.contains(instance.id)) {
+                    instances.putIfAbsent(instance.id, instance);
+                    started.add(instance.payload);
+                }
+            }
+            Set<String> waiting = payloads.stream().filter(p -> !started.contains(p)).collect(Collectors.toSet());
+            if (waiting.isEmpty()) {
+                return new ArrayList<>(instances.keySet());
+            }
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("No workflow started after " + timeout.toMillis() + " ms on " + waiting);
+            }
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    /**
+     * Wait for all the new instances to be completed or aborted.
+     * @return the instances by id, in their start order.
+     * @throws ClientException if a poll fails.
+     * @throws TimeoutException if some instances are still running after the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Map<String, Instance> awaitCompleted() throws ClientException, TimeoutException, InterruptedException {
+        awaitStarted();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        List<String> pending = instances.values().stream().filter(i -> !i.isTerminated()).map(Instance::getId)
+            .collect(Collectors.toList());
+        int polls = 0;
+        while (!pending.isEmpty()) {
+            Map<String, Instance> polled = findById(pending);
+            polls++;
+            pending.removeIf(id -> {
+                Instance instance = polled.get(id);
+                if (instance != null) {
+                    instances.get(id).update(instance);
+                }
+                return instances.get(id).isTerminated();
+            });
+            if (!pending.isEmpty()) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("Workflows still running after " + timeout.toMillis() + " ms: " + pending);
+                }
+                Thread.sleep(pollInterval.toMillis());
+            }
+        }
+        LOGGER.info("{} workflows terminated after {} polls in {} ms", instances.size(), polls,
+            Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return new LinkedHashMap<>(instances);
+    }
+
+    /**
+     * @return the number of query requests sent.
+     */
+    public int getRequestCount() {
+        return requests;
+    }
+
+    private List<Instance> findByPayload(final Collection<String> payloadPaths) throws ClientException {
+        List<String> all = new ArrayList<>(payloadPaths);
+        List<Instance> found = new ArrayList<>();
+        for (int first = 0; first < all.size(); first += QueryBuilderHelper.BATCH_SIZE) {
+            List<NameValuePair> query = new ArrayList<>();
+            query.add(new BasicNameValuePair("path", INSTANCES_ROOT));
+            query.add(new BasicNameValuePair("type", "cq:Workflow"));
+            query.add(new BasicNameValuePair("property", PAYLOAD_PROPERTY));
+            List<String> batch = all.subList(first, Math.min(all.size(), first + QueryBuilderHelper.BATCH_SIZE));
+            for (int i = 0; i < batch.size(); i++) {
+                query.add(new BasicNameValuePair("property." + (i + 1) + "_value", batch.get(i)));
+            }
+            query.add(new BasicNameValuePair("p.limit", "-1"));
+            query.addAll(HIT_PARAMETERS);
+            found.addAll(instances(QueryBuilderHelper.query(client, query)).values());
+            requests++;
+        }
+        return found;
+    }
+
+    private Map<String, Instance> findById(final List<String> ids) throws ClientException {
+        Map<String, Instance> found = instances(QueryBuilderHelper.queryPaths(client, ids, HIT_PARAMETERS));
+        requests += QueryBuilderHelper.batchCount(ids.size());
+        return found;
+    }
+
+    private static Map<String, Instance> instances(final Iterable<JsonNode> hits) {
+        Map<String, Instance> found = new LinkedHashMap<>();
+        for (JsonNode hit : hits) {
+            Instance instance = new Instance(hit);
+            found.put(instance.id, instance);
+        }
+        return found;
+    }
+
+    /**
+     * Workflow instance as last polled.
+     */
+    public static final class Instance {
+
+        private final String id;
+        private final String payload;
+        private final String modelId;
+        private WorkflowClient.Status status;
+        private Instant startTime;
+        private Instant endTime;
+        private final long firstSeen = System.nanoTime();
+        private long terminatedSeen;
+
+        private Instance(final JsonNode hit) {
+            id = hit.path("jcr:path").asText();
+            payload = hit.path("data").path("payload").path("path").asText(null);
+            modelId = hit.path("modelId").asText(null);
+            status = status(hit.path("status").asText(null));
+            startTime = QueryBuilderHelper.parseDate(hit.path("startTime").asText(null));
+            endTime = QueryBuilderHelper.parseDate(hit.path("endTime").asText(null));
+            terminatedSeen = isTerminated() ? firstSeen : 0;
+        }
+
+        private static WorkflowClient.Status status(final String value) {
+            for (WorkflowClient.Status status : WorkflowClient.Status.values()) {
+                if (status.getString().equals(value)) {
+                    return status;
+                }
+            }
+            return null;
+        }
+
+        private void update(final Instance polled) {
+            status = polled.status;
+            startTime = polled.startTime != null ? polled.startTime : startTime;
+            endTime = polled.endTime;
+            if (isTerminated() && terminatedSeen == 0) {
+                terminatedSeen = System.nanoTime();
+            }
+        }
+
+        /**
+         * @return the instance id, its path.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return the payload path.
+         */
+        public String getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return the workflow model id.
+         */
+        public String getModelId() {
+            return modelId;
+        }
+
+        /**
+         * @return the status, null if unknown.
+         */
+        public WorkflowClient.Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return true if the instance is completed or aborted.
+         */
+        public boolean isTerminated() {
+            return status == WorkflowClient.Status.COMPLETED || status == WorkflowClient.Status.ABORTED;
+        }
+
+        /**
+         * @return the duration between the start and end times of the instance, or between the polls where it was
+         * first seen and seen terminated if these times are not available, null while running.
+         */
+        public Duration getDuration() {
+            if (!isTerminated()) {
+                return null;
+            }
+            if (startTime != null && endTime != null) {
+                return Duration.between(startTime, endTime);
+            }
+            return Duration.ofNanos(terminatedSeen - firstSeen);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s %s]", id, status, getDuration());
+        }
+    }
+}
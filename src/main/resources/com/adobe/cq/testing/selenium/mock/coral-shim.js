@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+(function(window){
+    window.Coral = window.Coral || {};
+    window.Coral.commons = window.Coral.commons || {};
+    window.Coral.commons.ready = function(element, callback) {
+        var cb = typeof element === 'function' ? element : callback;
+        setTimeout(function() { cb(element); }, 100);
+    };
+
+    window.Granite = window.Granite || {};
+    window.Granite.HTTP = window.Granite.HTTP || {
+        externalize: function(url) { return url; },
+        getContextPath: function() { return ''; }
+    };
+
+    window.jscoverage_serializeCoverageToJSON = function() {
+        return {};
+    };
+})(window);
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+(function(window){
+    window.Granite = window.Granite || {};
+    window.Granite.author = window.Granite.author || {
+        pageInfo: {},
+        editables: [],
+        selection: { deselectAll: function() {}, select: function() {} }
+    };
+    window.Granite.author.editables.find = window.Granite.author.editables.find || function(path) {
+        return window.Granite.author.editables.filter(function(e) { return e.path === path; });
+    };
+})(window);
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingClient;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StandInAuthorServerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @RegisterExtension
+    static StandInAuthorServer author = StandInAuthorServer.getInstance(0);
+
+    private SlingClient client;
+
+    @BeforeEach
+    public void setup() throws ClientException {
+        author.reset();
+        client = new SlingClient(author.getUrl(), "admin", "admin");
+    }
+
+    @AfterEach
+    public void restoreMaxResults() {
+        author.getRepository().setMaxResults(StandInRepository.DEFAULT_MAX_RESULTS);
+    }
+
+    @Test
+    public void jsonRendersSelectorDepth() throws ClientException, IOException {
+        author.getRepository().put("/content/a/b", new HashMap<>());
+
+        JsonNode json = MAPPER.readTree(client.doGet("/content.1.json", HttpStatus.SC_OK).getContent());
+
+        assertTrue(json.has("a"));
+        assertTrue(json.path("a").isObject() && !json.path("a").has("b"));
+        client.doGet("/content/missing.json", HttpStatus.SC_NOT_FOUND);
+    }
+
+    @Test
+    public void infinityJsonOverMaxResultsReturnsMultipleChoices() throws ClientException, IOException {
+        for (int i = 0; i < 4; i++) {
+            author.getRepository().put("/content/root/child" + i + "/leaf", new HashMap<>());
+        }
+        author.getRepository().setMaxResults(6);
+
+        JsonNode choices = MAPPER.readTree(client.doGet("/content/root.infinity.json", HttpStatus.SC_MULTIPLE_CHOICES)
+            .getContent());
+
+        assertEquals(2, choices.size());
+        assertEquals("/content/root.1.json", choices.path(0).asText());
+        assertEquals("/content/root.0.json", choices.path(1).asText());
+        author.getRepository().setMaxResults(9);
+        client.doGet("/content/root.infinity.json", HttpStatus.SC_OK);
+    }
+
+    @Test
+    public void multipartParametersAreApplied() throws ClientException {
+        MultipartEntityBuilder entity = MultipartEntityBuilder.create()
+            .addTextBody("jcr:title", "Multipart é", ContentType.create("text/plain", StandardCharsets.UTF_8))
+            .addBinaryBody("file", "content".getBytes(StandardCharsets.UTF_8), ContentType.TEXT_PLAIN, "file.txt");
+
+        client.doPost("/content/upload", entity.build(), HttpStatus.SC_CREATED);
+
+        assertEquals("Multipart é", author.getRepository().getProperties("/content/upload").get("jcr:title"));
+        assertEquals("content", author.getRepository().getProperties("/content/upload").get("file"));
+    }
+
+    @Test
+    public void formPostFollowsSlingPostServlet() throws ClientException {
+        client.doPost("/content/form", FormEntityBuilder.create().addParameter("jcr:title", "Form").build(),
+            HttpStatus.SC_CREATED);
+        client.doPost("/content/form", FormEntityBuilder.create().addParameter(":operation", "delete").build(),
+            HttpStatus.SC_OK);
+
+        assertFalse(author.getRepository().exists("/content/form"));
+    }
+
+    @Test
+    public void queryBuilderAnswersFromTheRepository() throws ClientException, IOException {
+        author.getRepository().put("/content/a", new HashMap<>());
+        author.getRepository().put("/content/b", new HashMap<>());
+
+        JsonNode result = MAPPER.readTree(client.doGet(StandInAuthorServer.QUERY_BUILDER_PATH,
+            Arrays.asList(new BasicNameValuePair("path", "/content"), new BasicNameValuePair("p.limit", "-1")),
+            HttpStatus.SC_OK).getContent());
+
+        assertEquals(2, result.path("hits").size());
+        assertEquals(1, author.getRequestCount(StandInAuthorServer.QUERY_BUILDER_PATH));
+    }
+
+    @Test
+    public void requestsAreRecordedWithTheirParameters() throws ClientException {
+        client.doGet(StandInAuthorServer.QUERY_BUILDER_PATH,
+            Arrays.asList(new BasicNameValuePair("path", "/content"), new BasicNameValuePair("p.limit", "-1")),
+            HttpStatus.SC_OK);
+        client.doPost("/content/form", FormEntityBuilder.create().addParameter(":applyTo", "a")
+            .addParameter(":applyTo", "b").build(), HttpStatus.SC_CREATED);
+
+        assertEquals(2, author.getRequests().size());
+        StandInAuthorServer.Request query = author.getRequests(StandInAuthorServer.QUERY_BUILDER_PATH).get(0);
+        assertEquals("GET", query.getMethod());
+        assertEquals("/content", query.getParameter("path"));
+        assertEquals(Arrays.asList("a", "b"), author.getRequests("/content/form").get(0).getParameters(":applyTo"));
+
+        author.reset();
+
+        assertTrue(author.getRequests().isEmpty());
+    }
+
+    @Test
+    public void wcmCommandCreatesAndDeletesPages() throws ClientException {
+        client.doPost(StandInAuthorServer.WCM_COMMAND_PATH, FormEntityBuilder.create()
+            .addParameter("cmd", "createPage").addParameter("parentPath", "/content")
+            .addParameter("label", "page").addParameter("title", "Page").build(), HttpStatus.SC_OK);
+
+        assertEquals("Page", author.getRepository().getProperties("/content/page/jcr:content").get("jcr:title"));
+
+        client.doPost(StandInAuthorServer.WCM_COMMAND_PATH, FormEntityBuilder.create()
+            .addParameter("cmd", "deletePage").addParameter("path", "/content/page").build(), HttpStatus.SC_OK);
+
+        assertFalse(author.getRepository().exists("/content/page"));
+    }
+
+    @Test
+    public void graniteShellsAreServed() throws ClientException {
+        assertTrue(client.doGet(StandInAuthorServer.START_PATH, HttpStatus.SC_OK).getContent().contains("<html"));
+        assertTrue(client.doGet(StandInAuthorServer.LOGIN_PATH, HttpStatus.SC_OK).getContent().contains("id=\"username\""));
+        client.doGet("/editor.html/content/page.html", HttpStatus.SC_OK);
+        client.doGet("/etc.clientlibs/clientlibs/mocked_coral.js", HttpStatus.SC_OK);
+        client.doGet(StandInAuthorServer.PROPERTIES_PATH, HttpStatus.SC_OK);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StandInRepositoryTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StandInRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        repository = new StandInRepository();
+    }
+
+    @Test
+    public void modifyCreatesIntermediateNodesWithTypedProperties() {
+        StandInRepository.PostResult result = repository.post("/content/a/b", params(
+            "jcr:title", "B",
+            "count", "3",
+            "count@TypeHint", "Long",
+            "tags", "x",
+            "tags@TypeHint", "String[]"), "admin");
+
+        assertEquals(HttpStatus.SC_CREATED, result.getStatus());
+        assertTrue(repository.exists("/content/a"));
+        Map<String, Object> properties = repository.getProperties("/content/a/b");
+        assertEquals("B", properties.get("jcr:title"));
+        assertEquals(3L, properties.get("count"));
+        assertEquals(Collections.singletonList("x"), properties.get("tags"));
+        assertEquals(HttpStatus.SC_OK, repository.post("/content/a/b", params("other", "1"), "admin").getStatus());
+    }
+
+    @Test
+    public void modifyHandlesDeleteAndDefaultValueSuffixes() {
+        repository.put("/content/a", map("gone", "1"));
+
+        repository.post("/content/a", params("gone@Delete", "", "kept@DefaultValue", "default"), "admin");
+
+        Map<String, Object> properties = repository.getProperties("/content/a");
+        assertFalse(properties.containsKey("gone"));
+        assertEquals("default", properties.get("kept"));
+    }
+
+    @Test
+    public void modifyOnTrailingSlashCreatesNamedChild() {
+        StandInRepository.PostResult result = repository.post("/content/", params(":name", "child"), "admin");
+
+        assertEquals("/content/child", result.getPath());
+        assertTrue(repository.exists("/content/child"));
+    }
+
+    @Test
+    public void deleteApplyToIgnoresMissingPaths() {
+        repository.put("/content/a", new HashMap<>());
+        repository.put("/content/b/c", new HashMap<>());
+
+        StandInRepository.PostResult result = repository.post("/content", params(
+            ":operation", "delete", ":applyTo", "/content/a", ":applyTo", "/content/missing", ":applyTo", "b"), "admin");
+
+        assertEquals(HttpStatus.SC_OK, result.getStatus());
+        assertFalse(repository.exists("/content/a"));
+        assertFalse(repository.exists("/content/b/c"));
+        assertEquals(HttpStatus.SC_NOT_FOUND, repository.post("/content/missing", params(":operation", "delete"), "admin")
+            .getStatus());
+    }
+
+    @Test
+    public void importCreatesTreeAndReplacesOnlyWhenAsked() {
+        String content = "{\"jcr:title\":\"T\",\"child\":{\"value\":\"v\"}}";
+
+        assertEquals(HttpStatus.SC_CREATED, repository.post("/content", params(
+            ":operation", "import", ":contentType", "json", ":name", "page", ":content", content), "admin").getStatus());
+        assertEquals("v", repository.getProperties("/content/page/child").get("value"));
+        assertEquals(HttpStatus.SC_CONFLICT, repository.post("/content", params(
+            ":operation", "import", ":contentType", "json", ":name", "page", ":content", "{}"), "admin").getStatus());
+
+        repository.post("/content", params(":operation", "import", ":contentType", "json", ":name", "page",
+            ":content", "{\"jcr:title\":\"U\"}", ":replace", "true"), "admin");
+
+        assertEquals("U", repository.getProperties("/content/page").get("jcr:title"));
+        assertFalse(repository.exists("/content/page/child"));
+    }
+
+    @Test
+    public void copyAndMoveKeepTheSubtree() {
+        repository.put("/content/src/child", map("value", "v"));
+
+        repository.post("/content/src", params(":operation", "copy", ":dest", "/content/copy"), "admin");
+        repository.post("/content/src", params(":operation", "move", ":dest", "/content/moved"), "admin");
+
+        assertEquals("v", repository.getProperties("/content/copy/child").get("value"));
+        assertEquals("v", repository.getProperties("/content/moved/child").get("value"));
+        assertFalse(repository.exists("/content/src"));
+    }
+
+    @Test
+    public void toJsonRendersTheRequestedDepth() throws IOException {
+        repository.put("/content/a/b/c", map("value", "v"));
+
+        JsonNode one = MAPPER.readTree(repository.toJson("/content", 1));
+        JsonNode infinity = MAPPER.readTree(repository.toJson("/content", -1));
+
+        assertTrue(one.has("a"));
+        assertFalse(one.path("a").has("b"));
+        assertEquals("v", infinity.path("a").path("b").path("c").path("value").asText());
+        assertNull(repository.toJson("/content/missing", 0));
+        assertEquals(-1, StandInRepository.depthOf("tidy.infinity"));
+        assertEquals(2, StandInRepository.depthOf("2"));
+        assertEquals(0, StandInRepository.depthOf(""));
+    }
+
+    @Test
+    public void fittingDepthFindsTheDeepestLevelWithinMaxResults() {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                repository.put("/content/root/l" + i + "/m" + j, new HashMap<>());
+            }
+        }
+        repository.setMaxResults(5);
+
+        assertEquals(1, repository.fittingDepth("/content/root"));
+        assertEquals(-1, repository.fittingDepth("/content/root/l0"));
+        repository.setMaxResults(2);
+        assertEquals(0, repository.fittingDepth("/content/root"));
+    }
+
+    @Test
+    public void fittingDepthOnlyCountsTheRequestedLevels() {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                repository.put("/content/root/l" + i + "/m" + j, new HashMap<>());
+            }
+        }
+        repository.setMaxResults(5);
+
+        assertEquals(-1, repository.fittingDepth("/content/root", 1));
+        assertEquals(1, repository.fittingDepth("/content/root", 2));
+        assertEquals(-1, repository.fittingDepth("/content/root", 0));
+    }
+
+    @Test
+    public void queryMatchesPathTypeAndPropertyValues() throws IOException {
+        repository.put("/content/a", map(StandInRepository.JCR_PRIMARY_TYPE, "cq:Page", "status", "RUNNING"));
+        repository.put("/content/b", map(StandInRepository.JCR_PRIMARY_TYPE, "cq:Page", "status", "COMPLETED"));
+        repository.put("/content/c", map(StandInRepository.JCR_PRIMARY_TYPE, "cq:Page", "status", "ABORTED"));
+        repository.put("/other/d", map(StandInRepository.JCR_PRIMARY_TYPE, "cq:Page", "status", "RUNNING"));
+
+        JsonNode result = MAPPER.readTree(repository.query(params("path", "/content", "type", "cq:Page",
+            "property", "status", "property.1_value", "COMPLETED", "property.2_value", "ABORTED", "p.limit", "-1")));
+
+        assertEquals(2, result.path("total").asInt());
+        assertEquals("/content/b", result.path("hits").path(0).path("path").asText());
+        assertEquals("/content/c", result.path("hits").path(1).path("path").asText());
+    }
+
+    @Test
+    public void queryMatchesOredGroupPaths() throws IOException {
+        repository.put("/content/a/child", new HashMap<>());
+        repository.put("/content/b/child", new HashMap<>());
+        repository.put("/content/c", new HashMap<>());
+
+        JsonNode result = MAPPER.readTree(repository.query(params("path", "/content", "group.p.or", "true",
+            "group.1_path", "/content/a", "group.1_path.exact", "true", "group.2_path", "/content/b",
+            "p.hits", "selective", "p.properties", "jcr:path", "p.limit", "-1")));
+
+        assertEquals(2, result.path("total").asInt());
+        assertEquals("/content/a", result.path("hits").path(0).path("jcr:path").asText());
+        assertEquals("/content/b/child", result.path("hits").path(1).path("jcr:path").asText());
+    }
+
+    private static Map<String, List<String>> params(final String... pairs) {
+        Map<String, List<String>> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            parameters.computeIfAbsent(pairs[i], n -> new ArrayList<>()).add(pairs[i + 1]);
+        }
+        return parameters;
+    }
+
+    private static Map<String, Object> map(final String... pairs) {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            properties.put(pairs[i], pairs[i + 1]);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.pageobject.granite;
+
+import com.adobe.cq.testing.selenium.pageobject.granite.ReadinessProfiles.Profile;
+import com.adobe.cq.testing.selenium.pageobject.granite.ReadinessProfiles.Signal;
+import com.codeborne.selenide.Configuration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadinessProfilesTest {
+
+    // a slow remote driver: 80 ms per script call, 150 ms per page source
+    private static final long ROUND_TRIP = 80;
+    private static final long SOURCE_TRANSFER = 150;
+
+    @Test
+    public void satisfiedThresholdIncludesTheDriverOverhead() {
+        assertEquals(250 + 2 * ROUND_TRIP + 100, Signal.NETWORK_IDLE.satisfiedWithin(ROUND_TRIP, SOURCE_TRANSFER));
+        assertEquals(ROUND_TRIP + 100, Signal.DOCUMENT_COMPLETE.satisfiedWithin(ROUND_TRIP, SOURCE_TRANSFER));
+        assertEquals(250 + 3 * ROUND_TRIP + 2 * SOURCE_TRANSFER + 100,
+            Signal.CORAL_READY.satisfiedWithin(ROUND_TRIP, SOURCE_TRANSFER));
+    }
+
+    @Test
+    public void onlyTheSkippedSignalsAreChecked() {
+        String check = ReadinessProfiles.getSkippedCheck(EnumSet.of(Signal.CORAL_READY));
+
+        assertTrue(check.startsWith("return performance.getEntriesByType('resource')"));
+        assertTrue(check.endsWith(" && document.readyState === 'complete';"));
+        assertFalse(check.contains("Coral"));
+        assertEquals("return !!(window.Coral && window.Coral.commons && window.Coral.commons.ready)"
+            + " && document.body.querySelectorAll(':not(:defined)').length === 0;",
+            ReadinessProfiles.getSkippedCheck(EnumSet.of(Signal.NETWORK_IDLE, Signal.DOCUMENT_COMPLETE)));
+    }
+
+    @Test
+    public void signalsSatisfiedOnEverySampleAreSkipped() {
+        Profile profile = new Profile();
+
+        // already satisfied signals, slowed down by the driver only
+        assertFalse(profile.record(durations(480, 170, 910), thresholds()));
+        assertFalse(profile.record(durations(460, 90, 880), thresholds()));
+        assertTrue(profile.isLearning());
+        assertTrue(profile.record(durations(490, 120, 1500), thresholds()));
+
+        assertFalse(profile.isLearning());
+        assertEquals(EnumSet.of(Signal.CORAL_READY), profile.getGatingSignals());
+    }
+
+    @Test
+    public void fixedMarginWouldGateEverySignalOnASlowDriver() {
+        Profile profile = new Profile();
+        Map<Signal, Long> intrinsicOnly = new EnumMap<>(Signal.class);
+        for (Signal signal : Signal.values()) {
+            intrinsicOnly.put(signal, signal.satisfiedWithin(0, 0));
+        }
+
+        for (int i = 0; i < ReadinessProfiles.LEARNING_SAMPLES; i++) {
+            profile.record(durations(520, 170, 910), intrinsicOnly);
+        }
+
+        assertEquals(EnumSet.allOf(Signal.class), profile.getGatingSignals());
+    }
+
+    @Test
+    public void adaptiveTimeoutFollowsTheSlowestSample() {
+        Profile profile = new Profile();
+        profile.record(durations(520, 170, 300), thresholds());
+        profile.record(durations(520, 170, 700), thresholds());
+
+        assertEquals(Duration.ofMillis(Math.min(2800, Configuration.timeout)), profile.getAdaptiveTimeout(Signal.CORAL_READY));
+        assertEquals(Duration.ofMillis(Math.min(2080, Configuration.timeout)), profile.getAdaptiveTimeout(Signal.NETWORK_IDLE));
+        assertEquals(Duration.ofMillis(Math.min(2000, Configuration.timeout)),
+            profile.getAdaptiveTimeout(Signal.DOCUMENT_COMPLETE));
+    }
+
+    @Test
+    public void resetLearnsAgain() {
+        Profile profile = new Profile();
+        for (int i = 0; i < ReadinessProfiles.LEARNING_SAMPLES; i++) {
+            profile.record(durations(520, 170, 910), thresholds());
+        }
+
+        profile.reset();
+
+        assertTrue(profile.isLearning());
+        assertTrue(profile.getMaxDurations().isEmpty());
+    }
+
+    @Test
+    public void profileSurvivesSerialization() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Profile profile = new Profile();
+        for (int i = 0; i < ReadinessProfiles.LEARNING_SAMPLES; i++) {
+            profile.record(durations(520, 170, 1500), thresholds());
+        }
+
+        Profile read = mapper.readValue(mapper.writeValueAsString(profile), Profile.class);
+
+        assertFalse(read.isLearning());
+        assertEquals(profile.getGatingSignals(), read.getGatingSignals());
+        assertEquals(profile.getMaxDurations(), read.getMaxDurations());
+    }
+
+    @Test
+    public void patternGroupsPagesOfTheSameConsole() {
+        assertEquals("/editor.html/*", ReadinessProfiles.getPattern("http://localhost:4502/editor.html/content/a.html?x=1"));
+        assertEquals("/sites.html/*", ReadinessProfiles.getPattern("/sites.html/content/site#hash"));
+        assertEquals("/aem/start.html", ReadinessProfiles.getPattern("/aem/start.html"));
+    }
+
+    private static Map<Signal, Long> durations(final long network, final long document, final long coral) {
+        Map<Signal, Long> durations = new EnumMap<>(Signal.class);
+        durations.put(Signal.NETWORK_IDLE, network);
+        durations.put(Signal.DOCUMENT_COMPLETE, document);
+        durations.put(Signal.CORAL_READY, coral);
+        return durations;
+    }
+
+    private static Map<Signal, Long> thresholds() {
+        Map<Signal, Long> thresholds = new EnumMap<>(Signal.class);
+        for (Signal signal : Signal.values()) {
+            thresholds.put(signal, signal.satisfiedWithin(ROUND_TRIP, SOURCE_TRANSFER));
+        }
+        return thresholds;
+    }
+}
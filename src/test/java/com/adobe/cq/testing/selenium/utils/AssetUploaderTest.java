@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetUploaderTest extends StandInAuthorAbstractTest {
+
+    private static final String FOLDER = "/content/dam/uploads";
+    private static final String OTHER_FOLDER = "/content/dam/others";
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setup() {
+        repository.put(FOLDER, Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "sling:OrderedFolder"));
+        repository.put(OTHER_FOLDER, Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "sling:OrderedFolder"));
+    }
+
+    @Test
+    public void uploadsEachFileInOneMultipartRequest() throws ClientException, IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            Files.write(directory.resolve("asset" + i + ".txt"), ("content " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        Files.createDirectory(directory.resolve("ignored"));
+
+        List<String> paths = new AssetUploader(client).withParallelism(2).upload(directory, FOLDER);
+
+        assertEquals(Arrays.asList(FOLDER + "/asset0.txt", FOLDER + "/asset1.txt", FOLDER + "/asset2.txt",
+            FOLDER + "/asset3.txt", FOLDER + "/asset4.txt"), paths);
+        List<StandInAuthorServer.Request> uploads = requests(FOLDER + StandInAuthorServer.CREATE_ASSET_SUFFIX);
+        assertEquals(5, uploads.size());
+        assertEquals(Arrays.asList("asset0.txt", "asset1.txt", "asset2.txt", "asset3.txt", "asset4.txt"),
+            uploads.stream().map(upload -> upload.getParameter("fileName")).sorted().collect(Collectors.toList()));
+        assertEquals("content 3", repository.getProperties(FOLDER + "/asset3.txt/jcr:content/renditions/original")
+            .get("jcr:data"));
+    }
+
+    @Test
+    public void processingIsPolledWithOneQueryPerFolder() throws Exception {
+        asset(FOLDER + "/a.png", "processed");
+        asset(FOLDER + "/b.png", "processing");
+        asset(OTHER_FOLDER + "/c.png", "failed");
+        Thread processing = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            asset(FOLDER + "/b.png", "processed");
+        });
+        processing.start();
+
+        Map<String, String> states = new AssetUploader(client)
+            .withProcessingTimeout(Duration.ofSeconds(10), Duration.ofMillis(50))
+            .waitProcessed(Arrays.asList(FOLDER + "/a.png", FOLDER + "/b.png", OTHER_FOLDER + "/c.png"));
+        processing.join();
+
+        assertEquals("processed", states.get(FOLDER + "/a.png"));
+        assertEquals("processed", states.get(FOLDER + "/b.png"));
+        assertEquals("failed", states.get(OTHER_FOLDER + "/c.png"));
+        List<StandInAuthorServer.Request> queries = requests(StandInAuthorServer.QUERY_BUILDER_PATH);
+        // the other folder is done after the first poll, the uploads folder is polled until b is processed
+        assertEquals(1, queries.stream().filter(query -> OTHER_FOLDER.equals(query.getParameter("path"))).count());
+        assertTrue(queries.stream().filter(query -> FOLDER.equals(query.getParameter("path"))).count() > 1);
+        queries.forEach(query -> {
+            assertEquals("true", query.getParameter("path.flat"));
+            assertEquals("dam:Asset", query.getParameter("type"));
+            assertEquals("full", query.getParameter("p.hits"));
+        });
+    }
+
+    @Test
+    public void processingTimesOutWithThePendingAssets() {
+        asset(FOLDER + "/a.png", "processed");
+        asset(FOLDER + "/b.png", "processing");
+
+        TimeoutException timeout = assertThrows(TimeoutException.class, () -> new AssetUploader(client)
+            .withProcessingTimeout(Duration.ofMillis(200), Duration.ofMillis(50))
+            .waitProcessed(Arrays.asList(FOLDER + "/a.png", FOLDER + "/b.png")));
+
+        assertTrue(timeout.getMessage().endsWith("[" + FOLDER + "/b.png]"));
+    }
+
+    private void asset(final String path, final String state) {
+        repository.put(path, Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "dam:Asset"));
+        repository.put(path + "/jcr:content", Collections.singletonMap(StandInAuthorServer.DAM_ASSET_STATE, state));
+    }
+}
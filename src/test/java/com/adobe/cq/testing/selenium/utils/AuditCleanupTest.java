@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuditCleanupTest extends StandInAuthorAbstractTest {
+
+    private static final int ROOTS = 20;
+    private static final String PAGE_AUDIT = "/var/audit/com.day.cq.wcm.core.page";
+
+    @Test
+    public void trailsAreListedByBatchesAndRemovedAtOnce() throws Exception {
+        List<String> roots = IntStream.range(0, ROOTS).mapToObj(i -> "/content/site" + i).collect(Collectors.toList());
+        List<String> trails = roots.subList(0, ROOTS / 2).stream().map(root -> PAGE_AUDIT + root)
+            .collect(Collectors.toList());
+        trails.forEach(trail -> repository.put(trail, Collections.emptyMap()));
+        AuditCleanup cleanup = new AuditCleanup(client).add(roots);
+
+        List<String> removed = cleanup.flush();
+
+        assertEquals(trails, removed);
+        trails.forEach(trail -> assertFalse(repository.exists(trail)));
+        // 60 candidate trails, one per audit root and content root
+        List<StandInAuthorServer.Request> queries = requests(StandInAuthorServer.QUERY_BUILDER_PATH);
+        assertEquals(2, queries.size());
+        assertEquals(50, pathPredicates(queries.get(0)));
+        assertEquals(10, pathPredicates(queries.get(1)));
+        queries.forEach(query -> assertEquals("selective", query.getParameter("p.hits")));
+        List<StandInAuthorServer.Request> deletes = requests("/var/audit");
+        assertEquals(1, deletes.size());
+        assertEquals("delete", deletes.get(0).getParameter(":operation"));
+        assertEquals(trails, deletes.get(0).getParameters(":applyTo"));
+        assertEquals(3, cleanup.getRequestCount());
+        // 60 probes and 10 deletes otherwise
+        assertEquals(67, cleanup.getRequestsSaved());
+    }
+
+    @Test
+    public void flushedRootsAreForgotten() throws Exception {
+        AuditCleanup cleanup = new AuditCleanup(client).add(Collections.singletonList("/content/site"));
+
+        assertTrue(cleanup.flush().isEmpty());
+        assertTrue(cleanup.flush().isEmpty());
+
+        // nothing to delete and nothing left to list
+        assertEquals(1, requests(StandInAuthorServer.QUERY_BUILDER_PATH).size());
+        assertTrue(requests("/var/audit").isEmpty());
+    }
+
+    private static long pathPredicates(final StandInAuthorServer.Request query) {
+        return query.getParameters().keySet().stream().filter(name -> name.matches("group\\.\\d+_path")).count();
+    }
+}
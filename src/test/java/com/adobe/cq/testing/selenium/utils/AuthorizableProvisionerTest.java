@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQSecurityClient;
+import com.adobe.cq.testing.client.security.Group;
+import com.adobe.cq.testing.client.security.User;
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthorizableProvisionerTest extends StandInAuthorAbstractTest {
+
+    private static final int USERS = 60;
+
+    private AuthorizableProvisioner provisioner;
+
+    @BeforeEach
+    public void setup() throws ClientException {
+        provisioner = new AuthorizableProvisioner(client.adaptTo(CQSecurityClient.class), "provisioner");
+    }
+
+    @Test
+    public void membersAreAddedInOneRequestPerGroup() throws ClientException, InterruptedException {
+        List<User> users = provisioner.createUsers(ids("user", USERS), "password");
+        List<Group> groups = provisioner.createGroups(ids("group", 2));
+
+        assertEquals(USERS, requestsByMethod("POST").stream()
+            .filter(request -> request.getParameter("createUser") != null).count());
+
+        provisioner.addMembers(Collections.singletonMap(groups.get(0).getId(), users));
+
+        List<StandInAuthorServer.Request> added = requests(groups.get(0).getHomePath() + ".rw.html");
+        assertEquals(1, added.size());
+        assertEquals(users.stream().map(User::getId).sorted().collect(Collectors.toList()),
+            added.get(0).getParameters("addMembers").stream().sorted().collect(Collectors.toList()));
+        assertTrue(requests(groups.get(1).getHomePath() + ".rw.html").isEmpty());
+    }
+
+    @Test
+    public void removeAllRemovesMembershipsThenDeletesByBatches() throws ClientException, InterruptedException {
+        List<User> users = provisioner.createUsers(ids("user", USERS), "password");
+        Group group = provisioner.createGroups(ids("group", 1)).get(0);
+        provisioner.addMembers(Collections.singletonMap(group.getId(), users));
+        int provisioning = author.getRequests().size();
+
+        provisioner.removeAll();
+
+        List<StandInAuthorServer.Request> cleanup = author.getRequests().subList(provisioning, author.getRequests().size());
+        assertEquals(3, cleanup.size());
+        assertEquals(group.getHomePath() + ".rw.html", cleanup.get(0).getPath());
+        assertEquals(USERS, cleanup.get(0).getParameters("removeMembers").size());
+        List<StandInAuthorServer.Request> deletes = cleanup.subList(1, 3);
+        deletes.forEach(delete -> {
+            assertEquals("/home", delete.getPath());
+            assertEquals("delete", delete.getParameter(":operation"));
+        });
+        assertEquals(USERS + 1, deletes.stream().mapToInt(delete -> delete.getParameters(":applyTo").size()).sum());
+        assertEquals(50, deletes.stream().mapToInt(delete -> delete.getParameters(":applyTo").size()).max().getAsInt());
+        assertFalse(repository.exists(group.getHomePath()));
+        assertTrue(provisioner.getCreated().isEmpty());
+    }
+
+    private static List<String> ids(final String prefix, final int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + i).collect(Collectors.toCollection(ArrayList::new));
+    }
+}
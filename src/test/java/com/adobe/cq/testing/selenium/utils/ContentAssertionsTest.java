@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentAssertionsTest extends StandInAuthorAbstractTest {
+
+    private static final String SITE = "/content/site";
+
+    private ContentAssertions assertions;
+
+    @BeforeEach
+    public void setup() throws ClientException {
+        assertions = new ContentAssertions(client);
+    }
+
+    @Test
+    public void planGroupsPathsUnderTheirCommonAncestor() {
+        Map<String, List<String>> plan = assertions.plan(Arrays.asList(
+            SITE + "/en/jcr:content", SITE + "/fr", SITE + "/en"));
+
+        assertEquals(Collections.singletonMap(SITE, Arrays.asList(SITE + "/en", SITE + "/en/jcr:content", SITE + "/fr")),
+            plan);
+    }
+
+    @Test
+    public void planDoesNotGroupUnderTopLevelAncestors() {
+        Map<String, List<String>> plan = assertions.plan(Arrays.asList("/content/a", "/content/b"));
+
+        assertEquals(2, plan.size());
+        assertEquals(Collections.singletonList("/content/a"), plan.get("/content/a"));
+        assertEquals(Collections.singletonList("/content/b"), plan.get("/content/b"));
+    }
+
+    @Test
+    public void planKeepsGroupsWithinTheMaxDepth() {
+        Map<String, List<String>> plan = assertions.withMaxDepth(1).plan(Arrays.asList(
+            SITE + "/a", SITE + "/b", SITE + "/c/d/e"));
+
+        assertEquals(Arrays.asList(SITE + "/a", SITE + "/b"), plan.get(SITE));
+        assertEquals(Collections.singletonList(SITE + "/c/d/e"), plan.get(SITE + "/c/d/e"));
+        assertEquals(2, plan.size());
+    }
+
+    @Test
+    public void verifyReadsAGroupInOneRequest() throws Exception {
+        repository.put(SITE + "/en/jcr:content", node("English"));
+        repository.put(SITE + "/fr", node("French"));
+
+        assertions.exists(SITE + "/en")
+            .hasProperty(SITE + "/en/jcr:content", "jcr:title", "English")
+            .hasProperty(SITE + "/fr", "jcr:title")
+            .notExists(SITE + "/de")
+            .verify();
+
+        assertEquals(1, assertions.getRequestCount());
+        assertEquals(Collections.singletonList(SITE + ".2.json"), getPaths());
+    }
+
+    @Test
+    public void verifySplitsAGroupTooLargeToRender() throws Exception {
+        // the site rendered two levels deep is above the json servlet limit
+        for (int i = 0; i < repository.getMaxResults(); i++) {
+            repository.put(SITE + "/big/item" + i, node("item" + i));
+        }
+        repository.put(SITE + "/small/jcr:content", node("small"));
+
+        assertions.hasProperty(SITE + "/big/item7", "jcr:title", "item7")
+            .hasProperty(SITE + "/small/jcr:content", "jcr:title", "small")
+            .verify();
+
+        // the site, then the paths below each child on their own
+        assertEquals(3, assertions.getRequestCount());
+        assertEquals(Arrays.asList(SITE + ".2.json", SITE + "/big/item7.json", SITE + "/small/jcr:content.json"),
+            getPaths());
+    }
+
+    @Test
+    public void verifyListsTheUnsatisfiedExpectations() {
+        repository.put(SITE + "/en", node("English"));
+
+        AssertionError error = assertThrows(AssertionError.class, () -> assertions
+            .hasProperty(SITE + "/en", "jcr:title", "Anglais")
+            .exists(SITE + "/fr")
+            .verify());
+
+        assertTrue(error.getMessage().startsWith("2 unsatisfied expectations"));
+    }
+
+    private static List<String> getPaths() {
+        return requestsByMethod("GET").stream().map(StandInAuthorServer.Request::getPath).collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> node(final String title) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(StandInRepository.JCR_PRIMARY_TYPE, "nt:unstructured");
+        properties.put("jcr:title", title);
+        return properties;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentGeneratorTest extends StandInAuthorAbstractTest {
+
+    private static final String PARENT = "/content/generated";
+    private static final String ROOT = PARENT + "/scale";
+
+    private ContentGenerator generator;
+
+    @BeforeEach
+    public void setup() {
+        repository.put(PARENT, Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "sling:Folder"));
+        generator = new ContentGenerator(new TestContentBuilder(client, "generator"));
+    }
+
+    @Test
+    public void treeFittingInABatchIsImportedAtOnce() throws ClientException, InterruptedException {
+        ContentGenerator.Generated pages = generator.generatePages(PARENT, "scale", 3, 2);
+
+        List<StandInAuthorServer.Request> imports = requests(PARENT);
+        assertEquals(1, imports.size());
+        assertEquals("import", imports.get(0).getParameter(":operation"));
+        assertEquals("json", imports.get(0).getParameter(":contentType"));
+        assertNull(imports.get(0).getParameter(":name"));
+        assertEquals(1, pages.getRequests());
+        assertEquals(10, pages.getNodes());
+        assertEquals("cq:Page", repository.getProperties(pages.getPath(2, 1)).get(StandInRepository.JCR_PRIMARY_TYPE));
+        assertEquals("Page 1", repository.getProperties(pages.getPath(2, 1) + "/jcr:content").get("jcr:title"));
+    }
+
+    @Test
+    public void largerTreeIsImportedBySubtreesFittingInABatch() throws ClientException, InterruptedException {
+        ContentGenerator.Generated pages = generator.withBatchSize(4).generatePages(PARENT, "scale", 3, 2);
+
+        // the root alone, then one request per child subtree of 3 pages
+        assertEquals(1, requests(PARENT).size());
+        List<StandInAuthorServer.Request> subtrees = requests(ROOT);
+        assertEquals(3, subtrees.size());
+        assertEquals(Arrays.asList("page-0", "page-1", "page-2"), subtrees.stream()
+            .map(request -> request.getParameter(":content").replaceAll("(?s)^\\{\"(page-\\d+)\".*", "$1"))
+            .sorted().collect(Collectors.toList()));
+        assertEquals(4, pages.getRequests());
+        assertTrue(repository.exists(pages.getPath(0, 1)));
+        assertTrue(repository.exists(pages.getPath(2, 1)));
+    }
+
+    @Test
+    public void levelsAreImportedOneByOneWhenAChildSubtreeDoesNotFit() throws ClientException, InterruptedException {
+        ContentGenerator.Generated folders = generator.withBatchSize(2).generateDamFolders(PARENT, "scale", 3, 2);
+
+        // the root, its 3 children by 2, then the 2 children of each child
+        assertEquals(1, requests(PARENT).size());
+        assertEquals(2, requests(ROOT).size());
+        assertEquals(1, requests(folders.getPath(1)).size());
+        assertEquals(6, folders.getRequests());
+        assertEquals("sling:OrderedFolder",
+            repository.getProperties(folders.getPath(2, 1)).get(StandInRepository.JCR_PRIMARY_TYPE));
+    }
+
+    @Test
+    public void deleteRemovesTheFirstLevelByBatchesThenTheRoot() throws ClientException, InterruptedException {
+        ContentGenerator.Generated pages = generator.withBatchSize(4).generatePages(PARENT, "scale", 3, 2);
+        int generation = author.getRequests().size();
+
+        ContentGenerator.Generated deleted = generator.delete(pages);
+
+        List<StandInAuthorServer.Request> deletes = author.getRequests().subList(generation, author.getRequests().size());
+        // one subtree of 3 pages per request, then the root
+        assertEquals(4, deletes.size());
+        deletes.forEach(request -> assertEquals(ROOT, request.getPath()));
+        deletes.forEach(request -> assertEquals("delete", request.getParameter(":operation")));
+        assertEquals(Collections.singletonList(1), deletes.subList(0, 3).stream()
+            .map(request -> request.getParameters(":applyTo").size()).distinct().collect(Collectors.toList()));
+        assertTrue(deletes.get(3).getParameters(":applyTo").isEmpty());
+        assertEquals(4, deleted.getRequests());
+        assertFalse(repository.exists(ROOT));
+        assertTrue(repository.exists(PARENT));
+    }
+}
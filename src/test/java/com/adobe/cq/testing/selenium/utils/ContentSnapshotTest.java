@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import org.apache.http.HttpStatus;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.util.FormEntityBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentSnapshotTest extends StandInAuthorAbstractTest {
+
+    private static final String ROOT = "/content/snapshot";
+    private static final int BRANCHES = 5;
+    private static final int LEAVES = 50;
+
+
+    @BeforeEach
+    public void setup() throws ClientException {
+        repository.put(ROOT, node("root"));
+        repository.put(ROOT + "/small", node("small"));
+        // the big child alone is above the json servlet limit, each of its branches fits
+        for (int branch = 0; branch < BRANCHES; branch++) {
+            for (int leaf = 0; leaf < LEAVES; leaf++) {
+                repository.put(ROOT + "/big/branch" + branch + "/leaf" + leaf, node("leaf" + leaf));
+            }
+        }
+    }
+
+    @Test
+    public void restoresAChildLargerThanTheRenderingLimit() throws Exception {
+        assertTrue(repository.fittingDepth(ROOT + "/big") >= 0);
+        ContentSnapshot snapshot = ContentSnapshot.capture(client, Collections.singletonList(ROOT));
+
+        client.doPost(ROOT + "/big/branch3/leaf7", FormEntityBuilder.create()
+            .addParameter("jcr:title", "changed")
+            .addParameter("jcr:lastModified", "")
+            .build(), HttpStatus.SC_OK);
+        List<String> restored = snapshot.restore();
+
+        assertEquals(Collections.singletonList(ROOT + "/big"), restored);
+        assertEquals("leaf7", repository.getProperties(ROOT + "/big/branch3/leaf7").get("jcr:title"));
+        assertFalse(repository.getProperties(ROOT + "/big/branch3/leaf7").containsKey("jcr:lastModified"));
+        assertTrue(repository.exists(ROOT + "/big/branch" + (BRANCHES - 1) + "/leaf" + (LEAVES - 1)));
+        assertEquals("small", repository.getProperties(ROOT + "/small").get("jcr:title"));
+    }
+
+    @Test
+    public void deletesTheChildrenAddedAfterTheCapture() throws Exception {
+        ContentSnapshot snapshot = ContentSnapshot.capture(client, Collections.singletonList(ROOT));
+
+        client.doPost(ROOT + "/added", FormEntityBuilder.create()
+            .addParameter("jcr:lastModified", "")
+            .build(), HttpStatus.SC_CREATED);
+        List<String> restored = snapshot.restore();
+
+        assertEquals(Collections.singletonList(ROOT + "/added"), restored);
+        assertFalse(repository.exists(ROOT + "/added"));
+        assertTrue(snapshot.restore().isEmpty());
+    }
+
+    @Test
+    public void restoreSendsOneQueryAndOneRequestPerChangedChild() throws Exception {
+        ContentSnapshot snapshot = ContentSnapshot.capture(client, Collections.singletonList(ROOT));
+        // the big child alone is rendered by branch: root and big listings, then one rendering per branch
+        assertEquals(Arrays.asList(ROOT + ".infinity.json", ROOT + ".1.json", ROOT + "/big.infinity.json",
+            ROOT + "/big.1.json", ROOT + "/small.infinity.json"), requestsByMethod("GET").stream()
+            .map(StandInAuthorServer.Request::getPath).filter(path -> !path.contains("/branch"))
+            .filter(path -> !path.equals(StandInAuthorServer.QUERY_BUILDER_PATH)).collect(Collectors.toList()));
+        int capture = author.getRequests().size();
+
+        assertTrue(snapshot.restore().isEmpty());
+        assertEquals(capture + 1, author.getRequests().size());
+
+        client.doPost(ROOT + "/small", FormEntityBuilder.create().addParameter("jcr:lastModified", "").build(),
+            HttpStatus.SC_OK);
+        client.doPost(ROOT + "/added1", FormEntityBuilder.create().addParameter("jcr:lastModified", "").build(),
+            HttpStatus.SC_CREATED);
+        client.doPost(ROOT + "/added2", FormEntityBuilder.create().addParameter("jcr:lastModified", "").build(),
+            HttpStatus.SC_CREATED);
+        int changes = author.getRequests().size();
+        snapshot.restore();
+
+        List<StandInAuthorServer.Request> restore = author.getRequests().subList(changes, author.getRequests().size());
+        assertEquals(Arrays.asList(StandInAuthorServer.QUERY_BUILDER_PATH, ROOT, ROOT, StandInAuthorServer.QUERY_BUILDER_PATH),
+            restore.stream().map(StandInAuthorServer.Request::getPath).collect(Collectors.toList()));
+        assertEquals(ROOT, restore.get(0).getParameter("path"));
+        StandInAuthorServer.Request replace = restore.get(1);
+        assertEquals("import", replace.getParameter(":operation"));
+        assertEquals("small", replace.getParameter(":name"));
+        assertEquals("true", replace.getParameter(":replace"));
+        StandInAuthorServer.Request delete = restore.get(2);
+        assertEquals("delete", delete.getParameter(":operation"));
+        assertEquals(Arrays.asList(ROOT + "/added1", ROOT + "/added2"), delete.getParameters(":applyTo"));
+    }
+
+    @Test
+    public void restoresTheBinariesOfAnAssetFromItsCopy() throws Exception {
+        String asset = ROOT + "/asset.png";
+        String original = asset + "/jcr:content/renditions/original";
+        repository.put(asset, Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "dam:Asset"));
+        Map<String, Object> file = new HashMap<>();
+        file.put(StandInRepository.JCR_PRIMARY_TYPE, "nt:file");
+        file.put("jcr:data", "original binary");
+        repository.put(original, file);
+        ContentSnapshot snapshot = ContentSnapshot.capture(client, Collections.singletonList(ROOT));
+
+        client.doPost(original, FormEntityBuilder.create()
+            .addParameter("jcr:data", "changed binary")
+            .addParameter("jcr:lastModified", "")
+            .build(), HttpStatus.SC_OK);
+        int changes = author.getRequests().size();
+        List<String> restored = snapshot.restore();
+
+        assertEquals(Collections.singletonList(asset), restored);
+        assertEquals("original binary", repository.getProperties(original).get("jcr:data"));
+        // copied back, the json rendering of the asset has no binary to import
+        List<StandInAuthorServer.Request> restore = author.getRequests().subList(changes, author.getRequests().size());
+        assertEquals(Collections.singletonList("copy"), restore.stream().map(request -> request.getParameter(":operation"))
+            .filter(Objects::nonNull).collect(Collectors.toList()));
+        assertTrue(snapshot.restore().isEmpty());
+
+        snapshot.dispose();
+        assertTrue(repository.children("/tmp/contentsnapshots").isEmpty());
+    }
+
+    private static Map<String, Object> node(final String title) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(StandInRepository.JCR_PRIMARY_TYPE, "nt:unstructured");
+        properties.put("jcr:title", title);
+        return properties;
+    }
+}
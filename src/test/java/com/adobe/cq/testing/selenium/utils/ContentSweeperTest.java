@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentSweeperTest extends StandInAuthorAbstractTest {
+
+    private static final String OLD = OffsetDateTime.now().minusDays(2).toString();
+    private static final String RECENT = OffsetDateTime.now().minusMinutes(5).toString();
+
+    @Test
+    public void sweepsOnlyMarkedLabelRoots() throws ClientException, InterruptedException {
+        root("/conf/MyTest_abcdEFgh", OLD, "MyTest_abcdEFgh");
+        root("/content/mytest_abcdefgh", OLD, "MyTest_abcdEFgh");
+        root("/content/dam/mytest_abcdefgh", OLD, "MyTest_abcdEFgh");
+        root("/content/cq:tags/mytest_abcdefgh", OLD, "MyTest_abcdEFgh");
+        // real content with label looking names, unmarked or marked for another label
+        root("/conf/global_settings", OLD, null);
+        root("/content/dam/brand_archives", OLD, null);
+        root("/content/team_projects", OLD, "other_abcdefgh");
+        root("/content/site_abcdefghij", OLD, "site_abcdefghij");
+
+        ContentSweeper.Report report = new ContentSweeper(client).withMaxAge(Duration.ofDays(1)).sweep();
+
+        assertEquals(Arrays.asList("/conf", "/content", "/content/dam", "/content/cq:tags"),
+            Arrays.asList(report.getRemoved().keySet().toArray()));
+        assertFalse(repository.exists("/conf/MyTest_abcdEFgh"));
+        assertFalse(repository.exists("/content/mytest_abcdefgh"));
+        assertFalse(repository.exists("/content/dam/mytest_abcdefgh"));
+        assertFalse(repository.exists("/content/cq:tags/mytest_abcdefgh"));
+        assertTrue(repository.exists("/conf/global_settings"));
+        assertTrue(repository.exists("/content/dam/brand_archives"));
+        assertTrue(repository.exists("/content/team_projects"));
+        assertTrue(repository.exists("/content/site_abcdefghij"));
+    }
+
+    @Test
+    public void keepsLabelsWithARecentRoot() throws ClientException, InterruptedException {
+        root("/conf/recent_abcdefgh", OLD, "recent_abcdefgh");
+        root("/content/recent_abcdefgh", RECENT, "recent_abcdefgh");
+        root("/content/undated_abcdefgh", null, "undated_abcdefgh");
+
+        ContentSweeper.Report report = new ContentSweeper(client).withMaxAge(Duration.ofDays(1)).sweep();
+
+        assertTrue(report.getRemoved().isEmpty());
+        assertEquals(Arrays.asList("recent_abcdefgh", "undated_abcdefgh"), report.getKept());
+        assertTrue(repository.exists("/conf/recent_abcdefgh"));
+    }
+
+    @Test
+    public void sweepsUsersAndGroupsOnlyWithPrefixes() throws ClientException, InterruptedException {
+        root("/home/users/mytest_abcdefgh", OLD, null);
+        root("/home/groups/mytest_abcdefgh", OLD, null);
+        root("/home/users/other_abcdefgh", OLD, null);
+        root("/home/users/mytest_abcdefgh_extra", OLD, null);
+
+        assertTrue(new ContentSweeper(client).sweep().getRemoved().isEmpty());
+
+        ContentSweeper.Report report = new ContentSweeper(client).withPrefixes("MyTest").sweep();
+
+        assertEquals(Collections.singletonList("/home/users/mytest_abcdefgh"), report.getRemoved().get("/home/users"));
+        assertEquals(Collections.singletonList("/home/groups/mytest_abcdefgh"), report.getRemoved().get("/home/groups"));
+        assertTrue(repository.exists("/home/users/other_abcdefgh"));
+        assertTrue(repository.exists("/home/users/mytest_abcdefgh_extra"));
+    }
+
+    @Test
+    public void dryRunOnlyReports() throws ClientException, InterruptedException {
+        root("/content/mytest_abcdefgh", OLD, "mytest_abcdefgh");
+
+        ContentSweeper.Report report = new ContentSweeper(client).withDryRun(true).sweep();
+
+        assertEquals(Collections.singletonList("/content/mytest_abcdefgh"), report.getRemoved().get("/content"));
+        assertTrue(repository.exists("/content/mytest_abcdefgh"));
+        assertTrue(report.toString().contains("(dry run)"));
+    }
+
+    @Test
+    public void queriesEachRootOnceAndDeletesByBatches() throws ClientException, InterruptedException {
+        for (int i = 0; i < 60; i++) {
+            String label = String.format("mytest%02d_abcdefgh", i);
+            root("/content/" + label, OLD, label);
+        }
+
+        new ContentSweeper(client).withMaxAge(Duration.ofDays(1)).sweep();
+
+        List<StandInAuthorServer.Request> queries = requests(StandInAuthorServer.QUERY_BUILDER_PATH);
+        assertEquals(Arrays.asList("/conf", "/content", "/content/dam", "/content/cq:tags"),
+            queries.stream().map(query -> query.getParameter("path")).collect(Collectors.toList()));
+        StandInAuthorServer.Request query = queries.get(1);
+        assertEquals("true", query.getParameter("path.flat"));
+        assertEquals("*_*", query.getParameter("nodename"));
+        assertEquals(TestContentBuilder.MARKER_PROPERTY, query.getParameter("property"));
+        assertEquals("exists", query.getParameter("property.operation"));
+        assertEquals("-1", query.getParameter("p.limit"));
+
+        List<StandInAuthorServer.Request> deletes = requests("/content");
+        assertEquals(2, deletes.size());
+        deletes.forEach(delete -> assertEquals("delete", delete.getParameter(":operation")));
+        assertEquals(Arrays.asList(50, 10), deletes.stream()
+            .map(delete -> delete.getParameters(":applyTo").size()).sorted(Collections.reverseOrder())
+            .collect(Collectors.toList()));
+        // the audit trails of each batch, one request for the 3 audit roots
+        List<StandInAuthorServer.Request> audits = requests("/var/audit");
+        assertEquals(2, audits.size());
+        assertEquals(180, audits.stream().mapToInt(audit -> audit.getParameters(":applyTo").size()).sum());
+    }
+
+    @Test
+    public void dryRunSendsNoDeletion() throws ClientException, InterruptedException {
+        root("/content/mytest_abcdefgh", OLD, "mytest_abcdefgh");
+
+        new ContentSweeper(client).withDryRun(true).sweep();
+
+        assertTrue(requestsByMethod("POST").isEmpty());
+    }
+
+    private void root(final String path, final String created, final String marker) {
+        Map<String, Object> properties = new HashMap<>();
+        if (created != null) {
+            properties.put("jcr:created", created);
+        }
+        if (marker != null) {
+            properties.put(TestContentBuilder.MARKER_PROPERTY, marker);
+        }
+        repository.put(path, properties);
+    }
+}
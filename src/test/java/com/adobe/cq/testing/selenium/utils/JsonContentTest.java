@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonContentTest {
+
+    @Test
+    public void substituteReplacesNamesAndStringValues() throws IOException {
+        String json = "{ \"${label}-node\": { \"title\": \"Hello ${label}\", \"tags\": [\"${label}\", \"other\"] } }";
+
+        String result = JsonContent.substitute(stream(json), Collections.singletonMap("${label}", "abc"));
+
+        assertEquals("{\"abc-node\":{\"title\":\"Hello abc\",\"tags\":[\"abc\",\"other\"]}}", result);
+    }
+
+    @Test
+    public void substituteMatchesLongestPlaceholderFirst() throws IOException {
+        Map<String, String> replacements = new HashMap<>();
+        replacements.put("/conf/test-site", "/conf/label-site");
+        replacements.put("/conf/test-site/settings", "/conf/shared/settings");
+
+        String result = JsonContent.substitute(stream("{\"a\":\"/conf/test-site/settings/wcm\",\"b\":\"/conf/test-site\"}"),
+            replacements);
+
+        assertEquals("{\"a\":\"/conf/shared/settings/wcm\",\"b\":\"/conf/label-site\"}", result);
+    }
+
+    @Test
+    public void substituteKeepsOtherValuesUntouched() throws IOException {
+        String json = "{\"count\": 12, \"ratio\": 1.5, \"enabled\": true, \"none\": null, \"n12\": \"12\"}";
+
+        String result = JsonContent.substitute(stream(json), Collections.singletonMap("12", "34"));
+
+        assertEquals("{\"count\":12,\"ratio\":1.5,\"enabled\":true,\"none\":null,\"n34\":\"34\"}", result);
+    }
+
+    @Test
+    public void substituteRejectsInvalidJson() {
+        assertThrows(JsonParseException.class,
+            () -> JsonContent.substitute(stream("{\"a\": }"), Collections.emptyMap()));
+    }
+
+    private static InputStream stream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplicationWaiterTest extends StandInAuthorAbstractTest {
+
+    private static final int PAGES = 60;
+
+    @Test
+    public void pendingPathsArePolledByBatchesOf50() throws Exception {
+        List<String> paths = IntStream.range(0, PAGES).mapToObj(i -> "/content/site/page" + i).collect(Collectors.toList());
+        // half of the pages are already published, republishing them must be detected as well
+        paths.subList(0, PAGES / 2).forEach(path -> stamp(path, "2021-01-01T00:00:00.000Z"));
+        ReplicationWaiter waiter = new ReplicationWaiter(client).withBackoff(Duration.ofMillis(20), Duration.ofMillis(50));
+        waiter.track(paths);
+        Thread publication = new Thread(() -> {
+            sleep(150);
+            paths.forEach(path -> stamp(path, "2021-01-02T00:00:00.000Z"));
+        });
+        publication.start();
+
+        Map<String, Duration> latencies = waiter.awaitPublished();
+        publication.join();
+
+        assertEquals(new HashSet<>(paths), latencies.keySet());
+        List<StandInAuthorServer.Request> queries = requests(StandInAuthorServer.QUERY_BUILDER_PATH);
+        assertEquals(waiter.getRequestCount(), queries.size());
+        // tracking covers all the paths, the polls only those still pending
+        assertEquals(50, pathPredicates(queries.get(0)));
+        assertEquals(10, pathPredicates(queries.get(1)));
+        queries.forEach(query -> {
+            assertEquals("true", query.getParameter("group.p.or"));
+            assertEquals("full", query.getParameter("p.hits"));
+            assertTrue(pathPredicates(query) <= 50);
+        });
+    }
+
+    @Test
+    public void pollsBackOffUpToTheMaxDelay() throws Exception {
+        ReplicationWaiter waiter = new ReplicationWaiter(client)
+            .withTimeout(Duration.ofMillis(1000))
+            .withBackoff(Duration.ofMillis(50), Duration.ofMillis(200))
+            .track("/content/site/never");
+
+        TimeoutException timeout = assertThrows(TimeoutException.class, waiter::awaitPublished);
+
+        // track, then polls after 0, 50, 150, 350, 550, 750, 950 and 1000 ms, where a 50 ms interval would poll 20 times
+        int polls = requests(StandInAuthorServer.QUERY_BUILDER_PATH).size() - 1;
+        assertTrue(polls >= 5 && polls <= 9, "Unexpected number of polls " + polls);
+        assertTrue(timeout.getMessage().endsWith("[/content/site/never]"));
+    }
+
+    @Test
+    public void removedPathsAreDetected() throws Exception {
+        stamp("/content/site/page", "2021-01-01T00:00:00.000Z");
+        ReplicationWaiter waiter = new ReplicationWaiter(client)
+            .withBackoff(Duration.ofMillis(20), Duration.ofMillis(50))
+            .track("/content/site/page");
+        Thread removal = new Thread(() -> {
+            sleep(100);
+            repository.delete("/content/site/page");
+        });
+        removal.start();
+
+        Map<String, Duration> latencies = waiter.awaitRemoved();
+        removal.join();
+
+        assertEquals(Collections.singleton("/content/site/page"), latencies.keySet());
+        assertTrue(latencies.get("/content/site/page").toMillis() >= 100);
+    }
+
+    private static long pathPredicates(final StandInAuthorServer.Request query) {
+        return query.getParameters().keySet().stream().filter(name -> name.matches("group\\.\\d+_path")).count();
+    }
+
+    private void stamp(final String path, final String replicated) {
+        repository.put(path + "/jcr:content", Collections.singletonMap("cq:lastReplicated", replicated));
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+
+/**
+ * Content helper tests against a fresh stand-in author, with the requests it received for checking what was sent.
+ */
+public abstract class StandInAuthorAbstractTest {
+
+    @RegisterExtension
+    static StandInAuthorServer author = StandInAuthorServer.getInstance(0);
+
+    protected StandInRepository repository;
+    protected CQClient client;
+
+    @BeforeEach
+    public void resetAuthor() throws ClientException {
+        author.reset();
+        repository = author.getRepository();
+        client = new CQClient(author.getUrl(), "admin", "admin");
+    }
+
+    /**
+     * @param path exact request path.
+     * @return the requests received for this path since the test started.
+     */
+    protected static List<StandInAuthorServer.Request> requests(final String path) {
+        return author.getRequests(path);
+    }
+
+    /**
+     * @param method request method.
+     * @return the requests with this method received since the test started.
+     */
+    protected static List<StandInAuthorServer.Request> requestsByMethod(final String method) {
+        List<StandInAuthorServer.Request> matching = author.getRequests();
+        matching.removeIf(request -> !request.getMethod().equals(method));
+        return matching;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.security.Group;
+import com.adobe.cq.testing.client.security.User;
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import com.adobe.cq.testing.selenium.mock.StandInRepository;
+import org.apache.sling.testing.clients.ClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestContentBuilderTest extends StandInAuthorAbstractTest {
+
+    private static final String EXISTING_GROUP = "content-authors";
+    private static final String EXISTING_GROUP_HOME = "/home/groups/c/content-authors";
+
+    private TestContentBuilder builder;
+
+    @BeforeEach
+    public void setup() throws ClientException {
+        Map<String, Object> group = new HashMap<>();
+        group.put(StandInRepository.JCR_PRIMARY_TYPE, "rep:Group");
+        group.put(StandInAuthorServer.REP_AUTHORIZABLE_ID, EXISTING_GROUP);
+        repository.put(EXISTING_GROUP_HOME, group);
+        builder = new TestContentBuilder(client, "lifecycle");
+    }
+
+    @Test
+    public void disposeRemovesMembershipsBeforeDeletingGroups() throws Exception {
+        Group group = builder.createGroup("group");
+        List<User> users = builder.createUniqueUsers("user", 3, "password", EXISTING_GROUP, group.getId());
+
+        assertEquals(3, members(EXISTING_GROUP_HOME).size());
+        assertEquals(3, members(group.getHomePath()).size());
+
+        builder.dispose();
+
+        assertTrue(members(EXISTING_GROUP_HOME).isEmpty());
+        assertFalse(repository.exists(group.getHomePath()));
+        users.forEach(user -> assertFalse(repository.exists(user.getHomePath())));
+        assertFalse(repository.exists("/home/users/" + builder.getLabel()));
+        assertFalse(repository.exists("/home/groups/" + builder.getLabel()));
+        assertTrue(builder.getAuthorizableProvisioner().getCreated().isEmpty());
+    }
+
+    @Test
+    public void removingMembersOfADeletedGroupCountsAsDone() throws Exception {
+        Group group = builder.createGroup("group");
+        List<User> users = builder.createUniqueUsers("user", 2, "password", group.getId());
+        repository.delete(group.getHomePath());
+
+        long start = System.currentTimeMillis();
+        builder.getAuthorizableProvisioner().removeMembers(Collections.singletonMap(group.getId(), users));
+
+        // a 404 is not retried until the timeout
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        builder.dispose();
+        users.forEach(user -> assertFalse(repository.exists(user.getHomePath())));
+    }
+
+    @Test
+    public void importContentReplacesPlaceholdersAndIsDeletedOnDispose() throws Exception {
+        repository.put("/content/imports", Collections.singletonMap(StandInRepository.JCR_PRIMARY_TYPE, "sling:Folder"));
+        String json = "{\"jcr:primaryType\": \"nt:unstructured\", \"title\": \"${label} ${custom}\","
+            + " \"${label}\": {\"jcr:primaryType\": \"nt:unstructured\", \"count\": 3}}";
+
+        String path = builder.importContent("/content/imports", "tree",
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Collections.singletonMap("${custom}", "value"));
+
+        assertEquals("/content/imports/tree", path);
+        List<StandInAuthorServer.Request> imports = requests("/content/imports");
+        assertEquals(1, imports.size());
+        assertEquals("import", imports.get(0).getParameter(":operation"));
+        assertEquals("tree", imports.get(0).getParameter(":name"));
+        assertEquals("true", imports.get(0).getParameter(":replace"));
+        assertEquals(builder.getLabel() + " value", repository.getProperties(path).get("title"));
+        assertEquals(3, repository.getProperties(path + "/" + builder.getLabel()).get("count"));
+        assertTrue(builder.getRootPaths().contains(path));
+
+        builder.dispose();
+
+        assertFalse(repository.exists(path));
+        assertTrue(repository.exists("/content/imports"));
+    }
+
+    @Test
+    public void importFixtureSiteRewritesTheSiteReferences() throws Exception {
+        String siteName = builder.getLabel().toLowerCase() + "-site";
+
+        String sitePath = builder.importFixtureSite();
+
+        assertEquals("/content/" + siteName, sitePath);
+        Map<String, Object> content = repository.getProperties(sitePath + "/jcr:content");
+        assertEquals("/conf/" + siteName, content.get("cq:conf"));
+        assertEquals("/conf/" + siteName + "/settings/wcm/templates/content-page", content.get("cq:template"));
+        assertTrue(repository.exists("/conf/" + siteName + "/settings/wcm/templates/content-page"));
+
+        builder.dispose();
+
+        assertFalse(repository.exists(sitePath));
+        assertFalse(repository.exists("/conf/" + siteName));
+    }
+
+    private List<?> members(final String home) {
+        Object members = repository.getProperties(home).get(StandInAuthorServer.REP_MEMBERS);
+        return members instanceof List ? (List<?>) members : Collections.emptyList();
+    }
+}
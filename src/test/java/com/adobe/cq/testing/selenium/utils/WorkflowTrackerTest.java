@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 Adobe Systems Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.adobe.cq.testing.selenium.utils;
+
+import com.adobe.cq.testing.client.WorkflowClient;
+import com.adobe.cq.testing.selenium.mock.StandInAuthorServer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkflowTrackerTest extends StandInAuthorAbstractTest {
+
+    private static final int PAGES = 60;
+    private static final String MODEL = "/var/workflow/models/request_for_activation";
+
+    @Test
+    public void newInstancesAreFoundAndPolledByBatches() throws Exception {
+        List<String> payloads = IntStream.range(0, PAGES).mapToObj(i -> "/content/site/page" + i).collect(Collectors.toList());
+        payloads.forEach(payload -> instance("old", payload, "COMPLETED"));
+        WorkflowTracker tracker = new WorkflowTracker(client).withTimeout(Duration.ofSeconds(10), Duration.ofMillis(50));
+
+        tracker.watch(payloads);
+
+        List<StandInAuthorServer.Request> watch = requests(StandInAuthorServer.QUERY_BUILDER_PATH);
+        assertEquals(2, watch.size());
+        assertEquals(50, valuePredicates(watch.get(0)));
+        assertEquals(10, valuePredicates(watch.get(1)));
+        watch.forEach(query -> {
+            assertEquals(WorkflowTracker.INSTANCES_ROOT, query.getParameter("path"));
+            assertEquals("data/payload/path", query.getParameter("property"));
+            assertEquals("full", query.getParameter("p.hits"));
+        });
+
+        Thread workflows = new Thread(() -> {
+            sleep(100);
+            payloads.forEach(payload -> instance("new", payload, "RUNNING"));
+            sleep(200);
+            payloads.forEach(payload -> instance("new", payload, "COMPLETED"));
+        });
+        workflows.start();
+        Map<String, WorkflowTracker.Instance> instances = tracker.awaitCompleted();
+        workflows.join();
+
+        assertEquals(PAGES, instances.size());
+        instances.values().forEach(instance -> {
+            assertTrue(instance.getId().contains("/new"));
+            assertEquals(WorkflowClient.Status.COMPLETED, instance.getStatus());
+            assertEquals(MODEL, instance.getModelId());
+        });
+        List<StandInAuthorServer.Request> queries = requests(StandInAuthorServer.QUERY_BUILDER_PATH);
+        assertEquals(tracker.getRequestCount(), queries.size());
+        List<StandInAuthorServer.Request> polls = queries.stream().filter(query -> "true".equals(query.getParameter("group.p.or")))
+            .collect(Collectors.toList());
+        // the first poll covers all the running instances, the next ones only those still pending
+        assertEquals(50, pathPredicates(polls.get(0)));
+        assertEquals(10, pathPredicates(polls.get(1)));
+        polls.forEach(poll -> assertTrue(pathPredicates(poll) <= 50));
+    }
+
+    @Test
+    public void missingInstancesTimeOut() throws Exception {
+        WorkflowTracker tracker = new WorkflowTracker(client).withTimeout(Duration.ofMillis(300), Duration.ofMillis(50))
+            .watch(Collections.singletonList("/content/site/page"));
+
+        TimeoutException timeout = assertThrows(TimeoutException.class, tracker::awaitStarted);
+
+        assertEquals("No workflow started after 300 ms on [/content/site/page]", timeout.getMessage());
+    }
+
+    private void instance(final String name, final String payload, final String status) {
+        String path = WorkflowTracker.INSTANCES_ROOT + "/server0/" + name + payload.substring(payload.lastIndexOf('/'));
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jcr:primaryType", "cq:Workflow");
+        properties.put("modelId", MODEL);
+        properties.put("status", status);
+        repository.put(path, properties);
+        repository.put(path + "/data/payload", Collections.singletonMap("path", payload));
+    }
+
+    private static long valuePredicates(final StandInAuthorServer.Request query) {
+        return query.getParameters().keySet().stream().filter(name -> name.matches("property\\.\\d+_value")).count();
+    }
+
+    private static long pathPredicates(final StandInAuthorServer.Request query) {
+        return query.getParameters().keySet().stream().filter(name -> name.matches("group\\.\\d+_path")).count();
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}